@@ -0,0 +1,27 @@
+package com.example.stream.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 在IDE中运行基准测试, 默认开启GC profiler, 输出每次操作的分配字节数(gc.alloc.rate.norm)
+ * 命令行参数同JMH, 例如: IntermediateBenchmark -p size=1000,1000000 -p source=ARRAY_LIST,LINKED_LIST
+ * 打包后也可以直接运行: java -jar benchmarks/target/benchmarks.jar -prof gc
+ *
+ * @Auther: Akang
+ * @Date: 2026/10/18 17:25
+ * @Description:
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.stream.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * CollectorsTest中的收集器: toList, toSet, toMap, toConcurrentMap, toCollection, counting, summingInt, averagingInt,
+ * summarizingInt, joining, maxBy, reducing, groupingBy, groupingByConcurrent, partitioningBy
+ * 分组键取x % 128, 模拟少量分组的场景
+ *
+ * @Auther: Akang
+ * @Date: 2026/10/18 17:20
+ * @Description:
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollectorsBenchmark {
+
+    @Benchmark
+    public List<Integer> toList(StreamState state) {
+        return state.stream().collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public Set<Integer> toSet(StreamState state) {
+        return state.stream().collect(Collectors.toSet());
+    }
+
+    @Benchmark
+    public Map<Integer, Integer> toMap(StreamState state) {
+        return state.stream().collect(Collectors.toMap(Function.identity(), Function.identity()));
+    }
+
+    @Benchmark
+    public ConcurrentMap<Integer, Integer> toConcurrentMap(StreamState state) {
+        return state.stream().collect(Collectors.toConcurrentMap(Function.identity(), Function.identity()));
+    }
+
+    @Benchmark
+    public TreeSet<Integer> toCollection(StreamState state) {
+        return state.stream().collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    @Benchmark
+    public Long counting(StreamState state) {
+        return state.stream().collect(Collectors.counting());
+    }
+
+    @Benchmark
+    public Integer summingInt(StreamState state) {
+        return state.stream().collect(Collectors.summingInt(Integer::intValue));
+    }
+
+    @Benchmark
+    public Double averagingInt(StreamState state) {
+        return state.stream().collect(Collectors.averagingInt(Integer::intValue));
+    }
+
+    @Benchmark
+    public IntSummaryStatistics summarizingInt(StreamState state) {
+        return state.stream().collect(Collectors.summarizingInt(Integer::intValue));
+    }
+
+    @Benchmark
+    public String joining(StreamState state) {
+        return state.stream().map(String::valueOf).collect(Collectors.joining(", "));
+    }
+
+    @Benchmark
+    public Optional<Integer> maxBy(StreamState state) {
+        return state.stream().collect(Collectors.maxBy(Comparator.naturalOrder()));
+    }
+
+    @Benchmark
+    public Integer reducing(StreamState state) {
+        return state.stream().collect(Collectors.reducing(0, Integer::sum));
+    }
+
+    @Benchmark
+    public Map<Integer, Long> groupingByCounting(StreamState state) {
+        return state.stream().collect(Collectors.groupingBy(x -> x & 127, Collectors.counting()));
+    }
+
+    @Benchmark
+    public Map<Integer, Double> groupingByAveraging(StreamState state) {
+        return state.stream().collect(Collectors.groupingBy(x -> x & 127, TreeMap::new, Collectors.averagingDouble(Integer::doubleValue)));
+    }
+
+    @Benchmark
+    public ConcurrentMap<Integer, Long> groupingByConcurrentCounting(StreamState state) {
+        return state.stream().collect(Collectors.groupingByConcurrent(x -> x & 127, Collectors.counting()));
+    }
+
+    @Benchmark
+    public Map<Boolean, Long> partitioningByCounting(StreamState state) {
+        return state.stream().collect(Collectors.partitioningBy(x -> (x & 1) == 0, Collectors.counting()));
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.stream.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * IntermediateTest中的中间操作: map, flatMap, filter, distinct, sorted, peek, limit, skip
+ * 以sum结尾, 保证中间操作对每个元素都执行(count()在SIZED流上可能跳过中间操作)
+ *
+ * @Auther: Akang
+ * @Date: 2026/10/18 17:10
+ * @Description:
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IntermediateBenchmark {
+
+    @Benchmark
+    public long map(StreamState state) {
+        return state.stream().map(x -> x * 2).mapToLong(Integer::longValue).sum();
+    }
+
+    @Benchmark
+    public long mapToInt(StreamState state) {
+        return state.stream().mapToInt(Integer::intValue).asLongStream().sum();
+    }
+
+    @Benchmark
+    public long flatMap(StreamState state) {
+        return state.stream().flatMap(x -> Stream.of(x, x)).mapToLong(Integer::longValue).sum();
+    }
+
+    @Benchmark
+    public long filter(StreamState state) {
+        return state.stream().filter(x -> (x & 1) == 0).mapToLong(Integer::longValue).sum();
+    }
+
+    @Benchmark
+    public long distinct(StreamState state) {
+        return state.stream().map(x -> x & 1023).distinct().mapToLong(Integer::longValue).sum();
+    }
+
+    @Benchmark
+    public long sorted(StreamState state) {
+        return state.stream().sorted(Comparator.reverseOrder()).mapToLong(Integer::longValue).sum();
+    }
+
+    @Benchmark
+    public long peek(StreamState state) {
+        long[] peeked = new long[1];
+        return state.stream().peek(x -> peeked[0] = x).mapToLong(Integer::longValue).sum() + peeked[0];
+    }
+
+    @Benchmark
+    public long limit(StreamState state) {
+        return state.stream().limit(state.size >>> 1).mapToLong(Integer::longValue).sum();
+    }
+
+    @Benchmark
+    public long skip(StreamState state) {
+        return state.stream().skip(state.size >>> 1).mapToLong(Integer::longValue).sum();
+    }
+}
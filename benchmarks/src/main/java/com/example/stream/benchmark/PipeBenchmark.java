@@ -0,0 +1,124 @@
+package com.example.stream.benchmark;
+
+import com.example.stream.common.IntPipe;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+
+/**
+ * IntStream与IntPipe的range(0, size).map(f).filter(p).sum()
+ * shapes为同时使用的lambda组数, 每次操作把shapes条流水线各执行一次:
+ * shapes=1时各调用点只见过一种lambda, 可以内联; shapes>2时IntStream和IntPipe共用的调用点变为megamorphic,
+ * compile()后的IntPipe每条流水线有自己的循环类, 不受影响
+ * stages为中间操作个数: 2为map.filter, 5为map.filter.map.filter.map, 后者需要合成相邻阶段, 覆盖合成函数的调用点
+ *
+ * @Auther: Akang
+ * @Date: 2026/10/19 01:45
+ * @Description:
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PipeBenchmark {
+
+    /**
+     * 每组是不同的lambda类
+     */
+    private static final IntUnaryOperator[] MAPPERS = {x -> x * 3, x -> x + 7, x -> x ^ 0x5A, x -> x * 5 + 1};
+    private static final IntPredicate[] FILTERS = {x -> (x & 1) == 0, x -> x % 3 != 0, x -> (x & 4) == 0, x -> x % 5 != 0};
+
+    @State(Scope.Benchmark)
+    public static class PipeState {
+
+        @Param({"1000", "1000000"})
+        public int size;
+
+        @Param({"1", "4"})
+        public int shapes;
+
+        @Param({"2", "5"})
+        public int stages;
+
+        private IntPipe[] pipes;
+        private IntPipe[] compiled;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            pipes = new IntPipe[shapes];
+            compiled = new IntPipe[shapes];
+            for (int i = 0; i < shapes; i++) {
+                IntPipe pipe = IntPipe.range(0, size).map(MAPPERS[i]).filter(FILTERS[i]);
+                if (stages == 5) {
+                    pipe = pipe.map(MAPPERS[(i + 1) % 4]).filter(FILTERS[(i + 2) % 4]).map(MAPPERS[(i + 3) % 4]);
+                }
+                pipes[i] = pipe;
+                compiled[i] = pipe.compile();
+            }
+        }
+    }
+
+    @Benchmark
+    public long intStream(PipeState state) {
+        long result = 0L;
+        for (int i = 0; i < state.shapes; i++) {
+            IntStream stream = IntStream.range(0, state.size).map(MAPPERS[i]).filter(FILTERS[i]);
+            if (state.stages == 5) {
+                stream = stream.map(MAPPERS[(i + 1) % 4]).filter(FILTERS[(i + 2) % 4]).map(MAPPERS[(i + 3) % 4]);
+            }
+            result += stream.sum();
+        }
+        return result;
+    }
+
+    @Benchmark
+    public long intPipe(PipeState state) {
+        long result = 0L;
+        for (int i = 0; i < state.shapes; i++) {
+            result += state.pipes[i].sum();
+        }
+        return result;
+    }
+
+    @Benchmark
+    public long compiledIntPipe(PipeState state) {
+        long result = 0L;
+        for (int i = 0; i < state.shapes; i++) {
+            result += state.compiled[i].sum();
+        }
+        return result;
+    }
+
+    @Benchmark
+    public long loop(PipeState state) {
+        long result = 0L;
+        for (int i = 0; i < state.shapes; i++) {
+            IntUnaryOperator mapper = MAPPERS[i];
+            IntPredicate filter = FILTERS[i];
+            IntUnaryOperator mapper2 = MAPPERS[(i + 1) % 4];
+            IntPredicate filter2 = FILTERS[(i + 2) % 4];
+            IntUnaryOperator mapper3 = MAPPERS[(i + 3) % 4];
+            boolean five = state.stages == 5;
+            int sum = 0;
+            for (int x = 0; x < state.size; x++) {
+                int v = mapper.applyAsInt(x);
+                if (filter.test(v)) {
+                    if (!five) {
+                        sum += v;
+                    } else {
+                        v = mapper2.applyAsInt(v);
+                        if (filter2.test(v)) {
+                            sum += mapper3.applyAsInt(v);
+                        }
+                    }
+                }
+            }
+            result += sum;
+        }
+        return result;
+    }
+}
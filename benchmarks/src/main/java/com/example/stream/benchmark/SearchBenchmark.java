@@ -0,0 +1,59 @@
+package com.example.stream.benchmark;
+
+import com.example.stream.common.ParallelSearch;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * 并行流与ParallelSearch在谓词耗时较长时的查找耗时(needle in haystack)
+ * 每个元素执行谓词消耗约tokens个CPU单位, 满足条件的元素在下标needle处
+ *
+ * @Auther: Akang
+ * @Date: 2026/10/19 02:05
+ * @Description:
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SearchBenchmark {
+
+    @Param({"100000"})
+    public long size;
+
+    @Param({"100", "50000"})
+    public long needle;
+
+    @Param({"1000"})
+    public long tokens;
+
+    private boolean matches(long i) {
+        Blackhole.consumeCPU(tokens);
+        return i == needle;
+    }
+
+    @Benchmark
+    public boolean streamAnyMatch() {
+        return LongStream.range(0L, size).parallel().anyMatch(this::matches);
+    }
+
+    @Benchmark
+    public boolean searchAnyMatch() {
+        return ParallelSearch.of(size, i -> i).costPerElement(tokens).anyMatch(this::matches);
+    }
+
+    @Benchmark
+    public long streamFindFirst() {
+        return LongStream.range(0L, size).parallel().filter(this::matches).findFirst().orElse(-1L);
+    }
+
+    @Benchmark
+    public long searchFindFirst() {
+        return ParallelSearch.of(size, i -> i).costPerElement(tokens).indexOfFirst(this::matches);
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.stream.benchmark;
+
+import java.util.*;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * 基准测试的数据源, 对应ParallelStreamTest中的可分解性列表
+ * ArrayList 极佳, LinkedList 差, IntStream.range 极佳, Stream.iterate 差, HashSet 好, TreeSet 好
+ *
+ * @Auther: Akang
+ * @Date: 2026/10/18 17:02
+ * @Description:
+ */
+public enum StreamSource {
+
+    ARRAY_LIST {
+        @Override
+        Collection<Integer> collection(int size) {
+            return IntStream.range(0, size).boxed().collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
+        }
+    },
+    LINKED_LIST {
+        @Override
+        Collection<Integer> collection(int size) {
+            return IntStream.range(0, size).boxed().collect(LinkedList::new, LinkedList::add, LinkedList::addAll);
+        }
+    },
+    HASH_SET {
+        @Override
+        Collection<Integer> collection(int size) {
+            return IntStream.range(0, size).boxed().collect(() -> new HashSet<>(size * 2), HashSet::add, HashSet::addAll);
+        }
+    },
+    TREE_SET {
+        @Override
+        Collection<Integer> collection(int size) {
+            return IntStream.range(0, size).boxed().collect(TreeSet::new, TreeSet::add, TreeSet::addAll);
+        }
+    },
+    INT_STREAM_RANGE {
+        @Override
+        Stream<Integer> stream(Collection<Integer> collection, int size) {
+            return IntStream.range(0, size).boxed();
+        }
+    },
+    STREAM_ITERATE {
+        @Override
+        Stream<Integer> stream(Collection<Integer> collection, int size) {
+            return Stream.iterate(0, x -> x + 1).limit(size);
+        }
+    };
+
+    /**
+     * 预先构建的集合, 不计入测试时间; 流式数据源返回null, 每次测试时现生成
+     */
+    Collection<Integer> collection(int size) {
+        return null;
+    }
+
+    /**
+     * 由预先构建的集合或生成器得到顺序流
+     */
+    Stream<Integer> stream(Collection<Integer> collection, int size) {
+        return collection.stream();
+    }
+}
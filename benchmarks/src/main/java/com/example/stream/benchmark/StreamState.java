@@ -0,0 +1,48 @@
+package com.example.stream.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collection;
+import java.util.stream.Stream;
+
+/**
+ * 基准测试参数: 数据量(默认1e3~1e6), 数据源, 顺序流/并行流
+ * 1e7以上的数据量LinkedList/TreeSet/Stream.iterate每个元素都是装箱的节点, 默认堆内存下会OOM或耗时数小时, 不作为默认参数;
+ * 需要时通过 -p size=10000000,100000000 -p source=ARRAY_LIST,INT_STREAM_RANGE 指定, 并调大 -jvmArgs -Xmx
+ *
+ * @Auther: Akang
+ * @Date: 2026/10/18 17:05
+ * @Description:
+ */
+@State(Scope.Benchmark)
+public class StreamState {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    @Param({"ARRAY_LIST", "LINKED_LIST", "HASH_SET", "TREE_SET", "INT_STREAM_RANGE", "STREAM_ITERATE"})
+    public StreamSource source;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    private Collection<Integer> collection;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        collection = source.collection(size);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        collection = null;
+    }
+
+    /**
+     * 按参数生成顺序流或并行流
+     */
+    public Stream<Integer> stream() {
+        Stream<Integer> stream = source.stream(collection, size);
+        return parallel ? stream.parallel() : stream;
+    }
+}
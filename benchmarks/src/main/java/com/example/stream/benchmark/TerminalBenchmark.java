@@ -0,0 +1,103 @@
+package com.example.stream.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * TerminalTest/ShortCircuitingTest中的终结操作: forEach, forEachOrdered, toArray, reduce, collect, min, max, count,
+ * anyMatch, allMatch, noneMatch, findFirst, findAny
+ * findFirst/findAny查找最后一个元素, 用于对比并行流下两者的差异
+ *
+ * @Auther: Akang
+ * @Date: 2026/10/18 17:15
+ * @Description:
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TerminalBenchmark {
+
+    @Benchmark
+    public long forEach(StreamState state) {
+        LongAdder sink = new LongAdder();
+        state.stream().forEach(sink::add);
+        return sink.sum();
+    }
+
+    @Benchmark
+    public long forEachOrdered(StreamState state) {
+        LongAdder sink = new LongAdder();
+        state.stream().forEachOrdered(sink::add);
+        return sink.sum();
+    }
+
+    @Benchmark
+    public Object[] toArray(StreamState state) {
+        return state.stream().toArray(Integer[]::new);
+    }
+
+    @Benchmark
+    public Integer reduce(StreamState state) {
+        return state.stream().reduce(0, Integer::sum);
+    }
+
+    @Benchmark
+    public Integer reduceWithCombiner(StreamState state) {
+        return state.stream().reduce(0, (sum, x) -> sum + x, Integer::sum);
+    }
+
+    @Benchmark
+    public ArrayList<Integer> collect(StreamState state) {
+        return state.stream().collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
+    }
+
+    @Benchmark
+    public Optional<Integer> min(StreamState state) {
+        return state.stream().min(Comparator.naturalOrder());
+    }
+
+    @Benchmark
+    public Optional<Integer> max(StreamState state) {
+        return state.stream().max(Integer::compare);
+    }
+
+    @Benchmark
+    public long count(StreamState state) {
+        return state.stream().filter(x -> (x & 1) == 0).count();
+    }
+
+    @Benchmark
+    public boolean anyMatch(StreamState state) {
+        int last = state.size - 1;
+        return state.stream().anyMatch(x -> x == last);
+    }
+
+    @Benchmark
+    public boolean allMatch(StreamState state) {
+        return state.stream().allMatch(x -> x >= 0);
+    }
+
+    @Benchmark
+    public boolean noneMatch(StreamState state) {
+        return state.stream().noneMatch(x -> x < 0);
+    }
+
+    @Benchmark
+    public Optional<Integer> findFirst(StreamState state) {
+        int last = state.size - 1;
+        return state.stream().filter(x -> x == last).findFirst();
+    }
+
+    @Benchmark
+    public Optional<Integer> findAny(StreamState state) {
+        int last = state.size - 1;
+        return state.stream().filter(x -> x == last).findAny();
+    }
+}
@@ -0,0 +1,259 @@
+package com.example.stream.common;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * 自适应并行流
+ * ParallelStreamTest中的使用建议(数据量小不建议并行, LinkedList/Stream.iterate不易分解)需要每个调用处自己判断,
+ * AdaptiveStreams根据数据源的Spliterator特征(SIZED, SUBSIZED), 预估数据量和每个元素的处理耗时自动选择执行方式:
+ * <p>
+ * SEQUENTIAL 预估总耗时小于PARALLEL_THRESHOLD_NANOS, 顺序执行, 不付出fork/join的开销
+ * COMMON_POOL 在ForkJoinPool.commonPool()中并行执行
+ * DEDICATED_POOL 预估总耗时超过DEDICATED_THRESHOLD_NANOS, 在独立的PipelineExecutor中并行执行, 避免长时间占满公共线程池
+ * <p>
+ * 每个元素的处理耗时优先使用同名流水线历史执行的统计值(指数加权平均), 没有历史时使用costPerElement提示或默认值;
+ * 顺序执行和并行执行分别统计: 顺序执行记录每个元素的耗时, 并行执行记录墙上时间/元素数(包含拆分, 窃取, 合并的开销),
+ * 两种方式都执行过时直接比较实测耗时, 并行不比顺序快的流水线回到SEQUENTIAL; 统计按元素平均, 同名流水线的数据量应当相近
+ * <p>
+ * AdaptiveStreams.of(list).named("salary-sum").apply(stream -> stream.mapToDouble(Employee::getSalary).sum());
+ *
+ * @Auther: Akang
+ * @Date: 2026/10/18 18:10
+ * @Description:
+ */
+public final class AdaptiveStreams {
+
+    /**
+     * 预估总耗时低于该值时顺序执行(100微秒)
+     */
+    public static final long PARALLEL_THRESHOLD_NANOS = 100_000L;
+
+    /**
+     * 预估总耗时高于该值时使用独立线程池(50毫秒)
+     */
+    public static final long DEDICATED_THRESHOLD_NANOS = 50_000_000L;
+
+    /**
+     * 没有历史统计和提示时, 假定每个元素的处理耗时(纳秒)
+     */
+    public static final double DEFAULT_NANOS_PER_ELEMENT = 10D;
+
+    /**
+     * 数据源不是SUBSIZED(如LinkedList, Stream.iterate)时拆分不均匀, 并行收益打折扣, 预估耗时需达到阈值的倍数才并行
+     */
+    private static final int UNBALANCED_SPLIT_PENALTY = 4;
+
+    /**
+     * 指数加权平均中新样本的权重
+     */
+    private static final double SMOOTHING = 0.2D;
+
+    /**
+     * 流水线名称 -> 顺序/并行执行时每个元素的耗时(纳秒)
+     */
+    private static final ConcurrentMap<String, Cost> COSTS = new ConcurrentHashMap<>();
+
+    private AdaptiveStreams() {
+    }
+
+    /**
+     * 执行方式
+     */
+    public enum Mode {
+        SEQUENTIAL, COMMON_POOL, DEDICATED_POOL
+    }
+
+    /**
+     * 以集合为数据源
+     */
+    public static <T> Source<T> of(Collection<T> collection) {
+        return new Source<>(Objects.requireNonNull(collection));
+    }
+
+    /**
+     * 名为pipeline的流水线顺序执行时每个元素的处理耗时(纳秒), 没有顺序执行过时返回NaN
+     */
+    public static double learnedNanosPerElement(String pipeline) {
+        Cost cost = COSTS.get(pipeline);
+        return cost == null ? Double.NaN : cost.sequential;
+    }
+
+    /**
+     * 名为pipeline的流水线并行执行时每个元素分摊的墙上时间(纳秒), 没有并行执行过时返回NaN
+     */
+    public static double learnedParallelNanosPerElement(String pipeline) {
+        Cost cost = COSTS.get(pipeline);
+        return cost == null ? Double.NaN : cost.parallel;
+    }
+
+    /**
+     * 清除名为pipeline的流水线的历史统计
+     */
+    public static void forget(String pipeline) {
+        COSTS.remove(pipeline);
+    }
+
+    private static void record(String pipeline, boolean parallel, double nanosPerElement) {
+        Cost sample = parallel ? new Cost(Double.NaN, nanosPerElement) : new Cost(nanosPerElement, Double.NaN);
+        COSTS.merge(pipeline, sample, Cost::update);
+    }
+
+    /**
+     * 一条流水线的耗时统计, 不可变, 没有样本的一项为NaN
+     */
+    private static final class Cost {
+
+        final double sequential;
+        final double parallel;
+
+        Cost(double sequential, double parallel) {
+            this.sequential = sequential;
+            this.parallel = parallel;
+        }
+
+        Cost update(Cost sample) {
+            return new Cost(smooth(sequential, sample.sequential), smooth(parallel, sample.parallel));
+        }
+
+        private static double smooth(double old, double sample) {
+            if (Double.isNaN(sample)) {
+                return old;
+            }
+            return Double.isNaN(old) ? sample : old + SMOOTHING * (sample - old);
+        }
+    }
+
+    /**
+     * 默认的独立线程池, 首次使用时创建
+     */
+    private static final class DefaultExecutorHolder {
+
+        static final PipelineExecutor EXECUTOR = new PipelineExecutor("adaptive", Runtime.getRuntime().availableProcessors(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * 自适应数据源
+     */
+    public static final class Source<T> {
+
+        private final Collection<T> collection;
+        private String pipeline;
+        private double nanosPerElementHint = Double.NaN;
+        private PipelineExecutor executor;
+
+        private Source(Collection<T> collection) {
+            this.collection = collection;
+        }
+
+        /**
+         * 流水线名称, 同名流水线共享历史耗时统计
+         */
+        public Source<T> named(String pipeline) {
+            this.pipeline = Objects.requireNonNull(pipeline);
+            return this;
+        }
+
+        /**
+         * 每个元素处理耗时的提示(纳秒), 没有历史统计时使用
+         */
+        public Source<T> costPerElement(double nanos) {
+            if (!(nanos > 0D)) {
+                throw new IllegalArgumentException("Illegal cost per element: " + nanos);
+            }
+            this.nanosPerElementHint = nanos;
+            return this;
+        }
+
+        /**
+         * DEDICATED_POOL模式使用的执行器, 不指定时使用默认的独立线程池
+         */
+        public Source<T> on(PipelineExecutor executor) {
+            this.executor = Objects.requireNonNull(executor);
+            return this;
+        }
+
+        /**
+         * 顺序执行时每个元素的预估耗时
+         */
+        private double nanosPerElement(Cost learned) {
+            if (learned != null && !Double.isNaN(learned.sequential)) {
+                return learned.sequential;
+            }
+            return Double.isNaN(nanosPerElementHint) ? DEFAULT_NANOS_PER_ELEMENT : nanosPerElementHint;
+        }
+
+        /**
+         * 根据数据量, Spliterator特征和每个元素的处理耗时选择执行方式
+         */
+        public Mode mode() {
+            if (Runtime.getRuntime().availableProcessors() <= 1) {
+                return Mode.SEQUENTIAL;
+            }
+            Cost learned = pipeline == null ? null : COSTS.get(pipeline);
+            Spliterator<T> spliterator = collection.spliterator();
+            long size = spliterator.estimateSize();
+            double estimatedNanos = size * nanosPerElement(learned);
+            if (!spliterator.hasCharacteristics(Spliterator.SUBSIZED)) {
+                estimatedNanos /= UNBALANCED_SPLIT_PENALTY;
+            }
+            if (estimatedNanos < PARALLEL_THRESHOLD_NANOS) {
+                return Mode.SEQUENTIAL;
+            }
+            if (learned != null && !Double.isNaN(learned.parallel)) {
+                if (Double.isNaN(learned.sequential)) {
+                    // 只并行执行过: 顺序耗时不会超过并行耗时 * 线程数, 该上限较小时顺序执行一次作为对照
+                    if (size * learned.parallel * Runtime.getRuntime().availableProcessors() < DEDICATED_THRESHOLD_NANOS) {
+                        return Mode.SEQUENTIAL;
+                    }
+                } else if (learned.parallel >= learned.sequential) {
+                    return Mode.SEQUENTIAL;
+                }
+            }
+            return estimatedNanos < DEDICATED_THRESHOLD_NANOS ? Mode.COMMON_POOL : Mode.DEDICATED_POOL;
+        }
+
+        /**
+         * 按mode()选择顺序流或并行流, 流在哪个线程池中执行取决于终结操作的调用线程, 需要独立线程池时使用apply
+         */
+        public Stream<T> stream() {
+            return mode() == Mode.SEQUENTIAL ? collection.stream() : collection.parallelStream();
+        }
+
+        /**
+         * 按mode()选择的方式执行流水线, 并记录本次的每个元素处理耗时
+         *
+         * @param pipeline 流水线, 包含终结操作
+         * @return 终结操作的结果
+         */
+        public <R> R apply(Function<? super Stream<T>, ? extends R> pipeline) {
+            Objects.requireNonNull(pipeline);
+            Mode mode = mode();
+            long size = collection.size();
+            long start = System.nanoTime();
+            R result;
+            switch (mode) {
+                case SEQUENTIAL:
+                    result = pipeline.apply(collection.stream());
+                    break;
+                case COMMON_POOL:
+                    result = pipeline.apply(collection.parallelStream());
+                    break;
+                default:
+                    PipelineExecutor dedicated = executor != null ? executor : DefaultExecutorHolder.EXECUTOR;
+                    result = dedicated.execute(collection.parallelStream(), pipeline);
+                    break;
+            }
+            if (this.pipeline != null && size > 0) {
+                // 并行执行记录墙上时间, 不折算为单线程耗时, 与顺序执行的实测值直接比较
+                record(this.pipeline, mode != Mode.SEQUENTIAL, (double) (System.nanoTime() - start) / size);
+            }
+            return result;
+        }
+    }
+}
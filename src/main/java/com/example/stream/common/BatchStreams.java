@@ -0,0 +1,511 @@
+package com.example.stream.common;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 批量流
+ * forEach(System.out::println)之类的下游(写文件, 插入数据库)每个元素调用一次, 批量写入时每批1000个通常快一个数量级以上;
+ * BatchStreams把元素按固定个数分批, 每批为一个List或基本类型数组
+ * <p>
+ * Stream<List<T>> batched(Stream<T> stream, int size); 每size个元素一批
+ * Stream<int[]> batched(IntStream stream, int size); 同理LongStream -> long[], DoubleStream -> double[]
+ * 串行流中除最后一批外每批都是size个元素; 并行流中源Spliterator照常拆分, 每个叶子任务在自己的范围内分批, 每个叶子的最后一批可能不满
+ * <p>
+ * Collector<T, ?, Long> batching(int size, Consumer<? super List<T>> sink); 攒满size个元素调用一次sink, 结束时提交剩余元素, 返回元素总数
+ * Collector<T, ?, Long> batchingInt(int size, ToIntFunction<? super T> mapper, Consumer<? super int[]> sink); 同理batchingLong/batchingDouble
+ * 并行流中每个叶子任务各自攒批, 合并时把右侧未满的批并入左侧; sink需线程安全, 批次之间的先后顺序不保证
+ * <p>
+ * 每一批都是新分配的List/数组, 交给下游后不再被修改
+ *
+ * @Auther: Akang
+ * @Date: 2026/10/19 00:10
+ * @Description:
+ */
+public final class BatchStreams {
+
+    private BatchStreams() {
+    }
+
+    /**
+     * 每size个元素一批
+     */
+    public static <T> Stream<List<T>> batched(Stream<T> stream, int size) {
+        checkSize(size);
+        return StreamSupport.stream(new ObjectBatchSpliterator<>(stream.spliterator(), size), stream.isParallel())
+                .onClose(stream::close);
+    }
+
+    /**
+     * 每size个元素一批, 每批为int[]
+     */
+    public static Stream<int[]> batched(IntStream stream, int size) {
+        checkSize(size);
+        return StreamSupport.stream(new IntBatchSpliterator(stream.spliterator(), size), stream.isParallel())
+                .onClose(stream::close);
+    }
+
+    /**
+     * 每size个元素一批, 每批为long[]
+     */
+    public static Stream<long[]> batched(LongStream stream, int size) {
+        checkSize(size);
+        return StreamSupport.stream(new LongBatchSpliterator(stream.spliterator(), size), stream.isParallel())
+                .onClose(stream::close);
+    }
+
+    /**
+     * 每size个元素一批, 每批为double[]
+     */
+    public static Stream<double[]> batched(DoubleStream stream, int size) {
+        checkSize(size);
+        return StreamSupport.stream(new DoubleBatchSpliterator(stream.spliterator(), size), stream.isParallel())
+                .onClose(stream::close);
+    }
+
+    /**
+     * 攒满size个元素调用一次sink
+     *
+     * @param sink 接收每一批, 并行流中会被多个线程调用
+     * @return 元素总数
+     */
+    public static <T> Collector<T, ?, Long> batching(int size, Consumer<? super List<T>> sink) {
+        checkSize(size);
+        Objects.requireNonNull(sink);
+        return Collector.of(() -> new ObjectBatch<T>(size, sink),
+                ObjectBatch::add,
+                ObjectBatch::merge,
+                ObjectBatch::finish);
+    }
+
+    /**
+     * 把mapper的结果攒成int[], 每满size个调用一次sink
+     *
+     * @return 元素总数
+     */
+    public static <T> Collector<T, ?, Long> batchingInt(int size, ToIntFunction<? super T> mapper, Consumer<? super int[]> sink) {
+        checkSize(size);
+        Objects.requireNonNull(mapper);
+        Objects.requireNonNull(sink);
+        return Collector.of(() -> new IntBatch(size, sink),
+                (batch, t) -> batch.add(mapper.applyAsInt(t)),
+                IntBatch::merge,
+                IntBatch::finish);
+    }
+
+    /**
+     * 把mapper的结果攒成long[], 每满size个调用一次sink
+     *
+     * @return 元素总数
+     */
+    public static <T> Collector<T, ?, Long> batchingLong(int size, ToLongFunction<? super T> mapper, Consumer<? super long[]> sink) {
+        checkSize(size);
+        Objects.requireNonNull(mapper);
+        Objects.requireNonNull(sink);
+        return Collector.of(() -> new LongBatch(size, sink),
+                (batch, t) -> batch.add(mapper.applyAsLong(t)),
+                LongBatch::merge,
+                LongBatch::finish);
+    }
+
+    /**
+     * 把mapper的结果攒成double[], 每满size个调用一次sink
+     *
+     * @return 元素总数
+     */
+    public static <T> Collector<T, ?, Long> batchingDouble(int size, ToDoubleFunction<? super T> mapper, Consumer<? super double[]> sink) {
+        checkSize(size);
+        Objects.requireNonNull(mapper);
+        Objects.requireNonNull(sink);
+        return Collector.of(() -> new DoubleBatch(size, sink),
+                (batch, t) -> batch.add(mapper.applyAsDouble(t)),
+                DoubleBatch::merge,
+                DoubleBatch::finish);
+    }
+
+    private static void checkSize(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Illegal batch size: " + size);
+        }
+    }
+
+    /**
+     * 一批的初始容量, 源大小已知时不超过源大小, 避免size很大而元素很少时按size分配
+     */
+    private static int initialCapacity(Spliterator<?> source, int size) {
+        return (int) Math.max(1L, Math.min(size, source.estimateSize()));
+    }
+
+    /**
+     * 分批Spliterator, 拆分时拆分源Spliterator, 每个部分各自分批
+     */
+    private abstract static class BatchSpliterator<S extends Spliterator<?>, B> implements Spliterator<B> {
+
+        final S source;
+        final int size;
+
+        BatchSpliterator(S source, int size) {
+            this.source = source;
+            this.size = size;
+        }
+
+        /**
+         * 下一批, 源已耗尽时返回null
+         */
+        abstract B nextBatch();
+
+        abstract Spliterator<B> wrap(S prefix);
+
+        @Override
+        public boolean tryAdvance(Consumer<? super B> action) {
+            Objects.requireNonNull(action);
+            B batch = nextBatch();
+            if (batch == null) {
+                return false;
+            }
+            action.accept(batch);
+            return true;
+        }
+
+        @Override
+        public Spliterator<B> trySplit() {
+            @SuppressWarnings("unchecked")
+            S prefix = (S) source.trySplit();
+            return prefix == null ? null : wrap(prefix);
+        }
+
+        @Override
+        public long estimateSize() {
+            long estimate = source.estimateSize();
+            return estimate == Long.MAX_VALUE ? estimate : (estimate + size - 1) / size;
+        }
+
+        @Override
+        public int characteristics() {
+            return (source.characteristics() & ORDERED) | NONNULL;
+        }
+    }
+
+    private static final class ObjectBatchSpliterator<T> extends BatchSpliterator<Spliterator<T>, List<T>> implements Consumer<T> {
+
+        private List<T> batch;
+
+        ObjectBatchSpliterator(Spliterator<T> source, int size) {
+            super(source, size);
+        }
+
+        @Override
+        public void accept(T t) {
+            batch.add(t);
+        }
+
+        @Override
+        List<T> nextBatch() {
+            batch = new ArrayList<>(initialCapacity(source, size));
+            while (batch.size() < size && source.tryAdvance(this)) {
+                // 逐个读取直到攒满或源耗尽
+            }
+            List<T> result = batch;
+            batch = null;
+            return result.isEmpty() ? null : result;
+        }
+
+        @Override
+        Spliterator<List<T>> wrap(Spliterator<T> prefix) {
+            return new ObjectBatchSpliterator<>(prefix, size);
+        }
+    }
+
+    private static final class IntBatchSpliterator extends BatchSpliterator<Spliterator.OfInt, int[]> implements IntConsumer {
+
+        private int[] batch;
+        private int count;
+
+        IntBatchSpliterator(Spliterator.OfInt source, int size) {
+            super(source, size);
+        }
+
+        @Override
+        public void accept(int value) {
+            if (count == batch.length) {
+                batch = Arrays.copyOf(batch, (int) Math.min(size, (long) count << 1));
+            }
+            batch[count++] = value;
+        }
+
+        @Override
+        int[] nextBatch() {
+            batch = new int[initialCapacity(source, size)];
+            count = 0;
+            while (count < size && source.tryAdvance(this)) {
+                // 逐个读取直到攒满或源耗尽
+            }
+            return count == 0 ? null : count == batch.length ? batch : Arrays.copyOf(batch, count);
+        }
+
+        @Override
+        Spliterator<int[]> wrap(Spliterator.OfInt prefix) {
+            return new IntBatchSpliterator(prefix, size);
+        }
+    }
+
+    private static final class LongBatchSpliterator extends BatchSpliterator<Spliterator.OfLong, long[]> implements LongConsumer {
+
+        private long[] batch;
+        private int count;
+
+        LongBatchSpliterator(Spliterator.OfLong source, int size) {
+            super(source, size);
+        }
+
+        @Override
+        public void accept(long value) {
+            if (count == batch.length) {
+                batch = Arrays.copyOf(batch, (int) Math.min(size, (long) count << 1));
+            }
+            batch[count++] = value;
+        }
+
+        @Override
+        long[] nextBatch() {
+            batch = new long[initialCapacity(source, size)];
+            count = 0;
+            while (count < size && source.tryAdvance(this)) {
+                // 逐个读取直到攒满或源耗尽
+            }
+            return count == 0 ? null : count == batch.length ? batch : Arrays.copyOf(batch, count);
+        }
+
+        @Override
+        Spliterator<long[]> wrap(Spliterator.OfLong prefix) {
+            return new LongBatchSpliterator(prefix, size);
+        }
+    }
+
+    private static final class DoubleBatchSpliterator extends BatchSpliterator<Spliterator.OfDouble, double[]> implements DoubleConsumer {
+
+        private double[] batch;
+        private int count;
+
+        DoubleBatchSpliterator(Spliterator.OfDouble source, int size) {
+            super(source, size);
+        }
+
+        @Override
+        public void accept(double value) {
+            if (count == batch.length) {
+                batch = Arrays.copyOf(batch, (int) Math.min(size, (long) count << 1));
+            }
+            batch[count++] = value;
+        }
+
+        @Override
+        double[] nextBatch() {
+            batch = new double[initialCapacity(source, size)];
+            count = 0;
+            while (count < size && source.tryAdvance(this)) {
+                // 逐个读取直到攒满或源耗尽
+            }
+            return count == 0 ? null : count == batch.length ? batch : Arrays.copyOf(batch, count);
+        }
+
+        @Override
+        Spliterator<double[]> wrap(Spliterator.OfDouble prefix) {
+            return new DoubleBatchSpliterator(prefix, size);
+        }
+    }
+
+    /**
+     * batching的结果容器, 当前未满的一批和已处理的元素数
+     */
+    private static final class ObjectBatch<T> {
+
+        private final int size;
+        private final Consumer<? super List<T>> sink;
+        private List<T> buffer = new ArrayList<>();
+        private long count;
+
+        ObjectBatch(int size, Consumer<? super List<T>> sink) {
+            this.size = size;
+            this.sink = sink;
+        }
+
+        void add(T t) {
+            buffer.add(t);
+            count++;
+            if (buffer.size() == size) {
+                sink.accept(buffer);
+                buffer = new ArrayList<>();
+            }
+        }
+
+        /**
+         * 右侧已提交的批不再处理, 只把右侧未满的批并入左侧
+         */
+        ObjectBatch<T> merge(ObjectBatch<T> other) {
+            long merged = count + other.count;
+            other.buffer.forEach(this::add);
+            count = merged;
+            return this;
+        }
+
+        Long finish() {
+            if (!buffer.isEmpty()) {
+                sink.accept(buffer);
+                buffer = new ArrayList<>();
+            }
+            return count;
+        }
+    }
+
+    private static final class IntBatch {
+
+        private final int size;
+        private final Consumer<? super int[]> sink;
+        private int[] buffer;
+        private int length;
+        private long count;
+
+        IntBatch(int size, Consumer<? super int[]> sink) {
+            this.size = size;
+            this.sink = sink;
+            this.buffer = new int[Math.min(size, 16)];
+        }
+
+        void add(int value) {
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, (int) Math.min(size, (long) length << 1));
+            }
+            buffer[length++] = value;
+            count++;
+            if (length == size) {
+                sink.accept(buffer);
+                buffer = new int[Math.min(size, 16)];
+                length = 0;
+            }
+        }
+
+        IntBatch merge(IntBatch other) {
+            long merged = count + other.count;
+            for (int i = 0; i < other.length; i++) {
+                add(other.buffer[i]);
+            }
+            count = merged;
+            return this;
+        }
+
+        Long finish() {
+            if (length > 0) {
+                sink.accept(Arrays.copyOf(buffer, length));
+                length = 0;
+            }
+            return count;
+        }
+    }
+
+    private static final class LongBatch {
+
+        private final int size;
+        private final Consumer<? super long[]> sink;
+        private long[] buffer;
+        private int length;
+        private long count;
+
+        LongBatch(int size, Consumer<? super long[]> sink) {
+            this.size = size;
+            this.sink = sink;
+            this.buffer = new long[Math.min(size, 16)];
+        }
+
+        void add(long value) {
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, (int) Math.min(size, (long) length << 1));
+            }
+            buffer[length++] = value;
+            count++;
+            if (length == size) {
+                sink.accept(buffer);
+                buffer = new long[Math.min(size, 16)];
+                length = 0;
+            }
+        }
+
+        LongBatch merge(LongBatch other) {
+            long merged = count + other.count;
+            for (int i = 0; i < other.length; i++) {
+                add(other.buffer[i]);
+            }
+            count = merged;
+            return this;
+        }
+
+        Long finish() {
+            if (length > 0) {
+                sink.accept(Arrays.copyOf(buffer, length));
+                length = 0;
+            }
+            return count;
+        }
+    }
+
+    private static final class DoubleBatch {
+
+        private final int size;
+        private final Consumer<? super double[]> sink;
+        private double[] buffer;
+        private int length;
+        private long count;
+
+        DoubleBatch(int size, Consumer<? super double[]> sink) {
+            this.size = size;
+            this.sink = sink;
+            this.buffer = new double[Math.min(size, 16)];
+        }
+
+        void add(double value) {
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, (int) Math.min(size, (long) length << 1));
+            }
+            buffer[length++] = value;
+            count++;
+            if (length == size) {
+                sink.accept(buffer);
+                buffer = new double[Math.min(size, 16)];
+                length = 0;
+            }
+        }
+
+        DoubleBatch merge(DoubleBatch other) {
+            long merged = count + other.count;
+            for (int i = 0; i < other.length; i++) {
+                add(other.buffer[i]);
+            }
+            count = merged;
+            return this;
+        }
+
+        Long finish() {
+            if (length > 0) {
+                sink.accept(Arrays.copyOf(buffer, length));
+                length = 0;
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package com.example.stream.common;
+
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 阻塞映射
+ * 并行流操作过程中不能阻塞: map中读磁盘, 调用本地服务会占住fork/join工作线程, 公共线程池中其他并行流也随之变慢;
+ * mapBlocking把每个元素的映射提交到专门的执行器, 最多maxConcurrency个同时进行, 大量阻塞调用可以重叠执行
+ * <p>
+ * Stream<R> mapBlocking(Stream<T> stream, Function<? super T, ? extends R> mapper, int maxConcurrency); 保持遇到顺序
+ * Stream<R> mapBlocking(Stream<T> stream, Function<? super T, ? extends R> mapper, int maxConcurrency, boolean ordered); ordered为false时先完成的先输出
+ * Stream<R> mapBlocking(..., Executor executor); 指定执行器
+ * <p>
+ * 默认执行器: 运行在Java 21及以上时为虚拟线程(每个任务一个虚拟线程, 通过反射创建), 否则为最多IO_POOL_SIZE个守护线程的有界线程池
+ * 返回的流是串行流, 由调用终结操作的线程拉取源流, 源流不会被并行拆分, 在途的映射最多maxConcurrency个, 没有被消费的结果不会无限堆积;
+ * 映射抛出的异常在终结操作中原样抛出(受检异常包装为CompletionException), 同时取消其余在途的映射; 关闭流时同样取消
+ *
+ * @Auther: Akang
+ * @Date: 2026/10/19 00:50
+ * @Description:
+ */
+public final class BlockingStreams {
+
+    /**
+     * 没有虚拟线程时默认线程池的线程数上限
+     */
+    public static final int IO_POOL_SIZE = 256;
+
+    private BlockingStreams() {
+    }
+
+    /**
+     * 阻塞映射, 保持遇到顺序
+     *
+     * @param maxConcurrency 同时进行的映射个数上限
+     */
+    public static <T, R> Stream<R> mapBlocking(Stream<T> stream, Function<? super T, ? extends R> mapper, int maxConcurrency) {
+        return mapBlocking(stream, mapper, maxConcurrency, true);
+    }
+
+    /**
+     * 阻塞映射
+     *
+     * @param maxConcurrency 同时进行的映射个数上限
+     * @param ordered        是否保持遇到顺序, 为false时先完成的先输出
+     */
+    public static <T, R> Stream<R> mapBlocking(Stream<T> stream, Function<? super T, ? extends R> mapper, int maxConcurrency,
+                                               boolean ordered) {
+        return mapBlocking(stream, mapper, maxConcurrency, ordered, DefaultExecutor.INSTANCE);
+    }
+
+    /**
+     * 在executor中执行的阻塞映射
+     *
+     * @param maxConcurrency 同时进行的映射个数上限
+     * @param ordered        是否保持遇到顺序, 为false时先完成的先输出
+     */
+    public static <T, R> Stream<R> mapBlocking(Stream<T> stream, Function<? super T, ? extends R> mapper, int maxConcurrency,
+                                               boolean ordered, Executor executor) {
+        Objects.requireNonNull(mapper);
+        Objects.requireNonNull(executor);
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("Illegal max concurrency: " + maxConcurrency);
+        }
+        BlockingIterator<T, R> iterator = new BlockingIterator<>(stream.iterator(), mapper, maxConcurrency, ordered, executor);
+        int characteristics = ordered ? Spliterator.ORDERED : 0;
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, characteristics), false)
+                .onClose(iterator::cancelAll)
+                .onClose(stream::close);
+    }
+
+    /**
+     * 默认执行器是否使用虚拟线程
+     */
+    public static boolean usesVirtualThreads() {
+        return DefaultExecutor.VIRTUAL;
+    }
+
+    /**
+     * 默认执行器, 第一次使用时创建
+     */
+    private static final class DefaultExecutor {
+
+        static final boolean VIRTUAL;
+        static final Executor INSTANCE;
+
+        static {
+            Executor executor = virtualThreadExecutor();
+            VIRTUAL = executor != null;
+            INSTANCE = executor != null ? executor : ioPool();
+        }
+
+        /**
+         * Executors.newVirtualThreadPerTaskExecutor(), Java 21之前不存在该方法时返回null
+         */
+        private static Executor virtualThreadExecutor() {
+            try {
+                Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                return (Executor) method.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                return null;
+            }
+        }
+
+        private static Executor ioPool() {
+            AtomicInteger threadNumber = new AtomicInteger();
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(IO_POOL_SIZE, IO_POOL_SIZE, 60L, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "blocking-io-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            pool.allowCoreThreadTimeOut(true);
+            return pool;
+        }
+    }
+
+    /**
+     * 从源流拉取元素提交映射, 在途的映射不超过maxConcurrency个;
+     * 保持顺序时按提交顺序等待队首, 否则从完成队列中取先完成的
+     */
+    private static final class BlockingIterator<T, R> implements Iterator<R> {
+
+        private final Iterator<T> source;
+        private final Function<? super T, ? extends R> mapper;
+        private final int maxConcurrency;
+        private final boolean ordered;
+        private final Executor executor;
+
+        /**
+         * 在途的映射, 按提交顺序
+         */
+        private final ArrayDeque<Task> pending = new ArrayDeque<>();
+
+        /**
+         * 不保持顺序时已完成的映射
+         */
+        private final BlockingQueue<Task> completed = new LinkedBlockingQueue<>();
+        private volatile boolean cancelled;
+        private boolean hasNext;
+        private R next;
+
+        BlockingIterator(Iterator<T> source, Function<? super T, ? extends R> mapper, int maxConcurrency, boolean ordered,
+                         Executor executor) {
+            this.source = source;
+            this.mapper = mapper;
+            this.maxConcurrency = maxConcurrency;
+            this.ordered = ordered;
+            this.executor = executor;
+        }
+
+        private final class Task extends FutureTask<R> {
+
+            Task(T t) {
+                super(() -> mapper.apply(t));
+            }
+
+            @Override
+            protected void done() {
+                if (!ordered) {
+                    completed.add(this);
+                }
+            }
+        }
+
+        private void fill() {
+            try {
+                while (!cancelled && pending.size() < maxConcurrency && source.hasNext()) {
+                    Task task = new Task(source.next());
+                    pending.addLast(task);
+                    executor.execute(task);
+                }
+            } catch (RuntimeException | Error e) {
+                cancelAll();
+                throw e;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (hasNext) {
+                return true;
+            }
+            if (cancelled) {
+                return false;
+            }
+            fill();
+            if (pending.isEmpty()) {
+                return false;
+            }
+            Task task;
+            try {
+                if (ordered) {
+                    task = pending.pollFirst();
+                } else {
+                    task = completed.take();
+                    pending.remove(task);
+                }
+                next = task.get();
+            } catch (InterruptedException e) {
+                cancelAll();
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Interrupted while waiting for a blocking mapping");
+            } catch (ExecutionException e) {
+                cancelAll();
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new CompletionException(cause);
+            }
+            hasNext = true;
+            // 立即补充, 消费者处理当前结果时映射继续进行
+            fill();
+            return true;
+        }
+
+        @Override
+        public R next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            R result = next;
+            next = null;
+            hasNext = false;
+            return result;
+        }
+
+        /**
+         * 取消所有在途的映射(中断执行中的线程)
+         */
+        void cancelAll() {
+            cancelled = true;
+            Task task;
+            while ((task = pending.pollFirst()) != null) {
+                task.cancel(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.stream.common;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Predicate;
+import java.util.stream.Collector;
+
+/**
+ * 分段列表收集器
+ * collect(ArrayList::new, ArrayList::add, ArrayList::addAll)在并行流中每个叶子任务创建一个ArrayList, 合并时逐层addAll复制元素, 总复制量为O(n log n);
+ * LinkedList::addAll先把右侧列表转为数组再逐个链接, 开销更大;
+ * 这里的结果容器为ChunkedList, 合并时只移动段引用, 不复制元素
+ * <p>
+ * Collector<T, ?, ChunkedList<T>> toChunkedList(); 保持遇到顺序, 合并时按左右顺序拼接段
+ * Collector<T, ?, ChunkedList<T>> toConcurrentChunkedList(); 不保证顺序, 特征为CONCURRENT和UNORDERED, 每个线程追加到自己的ChunkedList, 结束时拼接
+ * Collector<T, ?, ChunkedList<T>> filtering(Predicate<? super T> predicate, boolean ordered); 筛选并收集, 对应collectTest中的三参数collect
+ *
+ * @Auther: Akang
+ * @Date: 2026/10/18 19:55
+ * @Description:
+ */
+public final class ChunkedCollectors {
+
+    private ChunkedCollectors() {
+    }
+
+    /**
+     * 收集到ChunkedList, 保持遇到顺序, 同Collectors.toList()但合并时不复制元素
+     */
+    public static <T> Collector<T, ?, ChunkedList<T>> toChunkedList() {
+        return Collector.of(ChunkedList<T>::new, ChunkedList::add, ChunkedList::appendAll);
+    }
+
+    /**
+     * 并发收集到ChunkedList, 不保证顺序
+     * 并行流中所有线程共享同一个容器, 不再有合并步骤; 每个线程追加到以线程为键的ChunkedList, 追加无锁无竞争, 结束时拼接各线程的段
+     */
+    public static <T> Collector<T, ?, ChunkedList<T>> toConcurrentChunkedList() {
+        return Collector.of(ThreadChunks<T>::new,
+                ThreadChunks::add,
+                ThreadChunks::appendAll,
+                ThreadChunks::finish,
+                Collector.Characteristics.CONCURRENT,
+                Collector.Characteristics.UNORDERED);
+    }
+
+    /**
+     * 筛选满足predicate的元素收集到ChunkedList
+     *
+     * @param predicate 筛选条件
+     * @param ordered   是否保持遇到顺序, 为false时使用toConcurrentChunkedList()
+     */
+    public static <T> Collector<T, ?, ChunkedList<T>> filtering(Predicate<? super T> predicate, boolean ordered) {
+        Objects.requireNonNull(predicate);
+        if (ordered) {
+            return Collector.of(ChunkedList<T>::new,
+                    (list, t) -> {
+                        if (predicate.test(t)) {
+                            list.add(t);
+                        }
+                    },
+                    ChunkedList::appendAll);
+        }
+        return Collector.of(ThreadChunks<T>::new,
+                (chunks, t) -> {
+                    if (predicate.test(t)) {
+                        chunks.add(t);
+                    }
+                },
+                ThreadChunks::appendAll,
+                ThreadChunks::finish,
+                Collector.Characteristics.CONCURRENT,
+                Collector.Characteristics.UNORDERED);
+    }
+
+    /**
+     * 每个线程的ChunkedList, 以线程为键保存, 收集结束后随容器一起回收
+     */
+    private static final class ThreadChunks<T> {
+
+        private final ConcurrentMap<Thread, ChunkedList<T>> locals = new ConcurrentHashMap<>();
+
+        void add(T t) {
+            Thread thread = Thread.currentThread();
+            ChunkedList<T> local = locals.get(thread);
+            if (local == null) {
+                local = locals.computeIfAbsent(thread, key -> new ChunkedList<>());
+            }
+            local.add(t);
+        }
+
+        /**
+         * 非并发收集时(顺序流, 或有序并行流)才会调用
+         */
+        ThreadChunks<T> appendAll(ThreadChunks<T> other) {
+            for (ChunkedList<T> list : other.locals.values()) {
+                locals.merge(Thread.currentThread(), list, ChunkedList::appendAll);
+            }
+            other.locals.clear();
+            return this;
+        }
+
+        /**
+         * 所有追加均已完成(fork/join的join保证可见性), 拼接各线程的ChunkedList
+         */
+        ChunkedList<T> finish() {
+            ChunkedList<T> result = new ChunkedList<>();
+            for (ChunkedList<T> local : locals.values()) {
+                result.appendAll(local);
+            }
+            locals.clear();
+            return result;
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package com.example.stream.common;
+
+import java.lang.reflect.Array;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * 分段列表
+ * 元素存放在多个数组段中, 追加元素时只在最后一段写入, 段写满后分配新的段, 已有元素从不复制;
+ * appendAll(other)只移动other的段引用, 两个列表拼接的开销与段数成正比, 与元素个数无关, 适合作为并行收集的结果容器
+ * <p>
+ * 段的容量从MIN_CHUNK_SIZE开始按列表大小翻倍, 最大为MAX_CHUNK_SIZE, 随机访问get(index)在段起始下标上二分查找
+ * <p>
+ * 只支持追加(add, appendAll)和set, 不支持删除和插入
+ *
+ * @Auther: Akang
+ * @Date: 2026/10/18 19:40
+ * @Description:
+ */
+public class ChunkedList<T> extends AbstractList<T> implements RandomAccess {
+
+    private static final int MIN_CHUNK_SIZE = 16;
+    private static final int MAX_CHUNK_SIZE = 1 << 16;
+
+    /**
+     * chunks[i]中的元素下标区间为[offsets[i], offsets[i + 1]), 最后一段的结束下标为size;
+     * 只有最后一段可以继续写入, 其余段即使未写满(拼接而来)也不再写入
+     */
+    private Object[][] chunks = new Object[4][];
+    private int[] offsets = new int[4];
+    private int chunkCount;
+    private int size;
+
+    public ChunkedList() {
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean add(T t) {
+        Object[] tail = chunkCount == 0 ? null : chunks[chunkCount - 1];
+        int position = chunkCount == 0 ? 0 : size - offsets[chunkCount - 1];
+        if (tail == null || position == tail.length) {
+            tail = new Object[Math.min(Math.max(MIN_CHUNK_SIZE, size), MAX_CHUNK_SIZE)];
+            addChunk(tail, size);
+            position = 0;
+        }
+        tail[position] = t;
+        size++;
+        modCount++;
+        return true;
+    }
+
+    /**
+     * 把other的所有元素追加到本列表末尾, 只移动段引用不复制元素, 追加后other为空
+     *
+     * @return 本列表
+     */
+    public ChunkedList<T> appendAll(ChunkedList<T> other) {
+        Objects.requireNonNull(other);
+        if (other == this) {
+            throw new IllegalArgumentException("Cannot append a list to itself");
+        }
+        if (other.size == 0) {
+            return this;
+        }
+        for (int i = 0; i < other.chunkCount; i++) {
+            int start = other.offsets[i];
+            int end = i + 1 < other.chunkCount ? other.offsets[i + 1] : other.size;
+            if (end > start) {
+                addChunk(other.chunks[i], size);
+                size += end - start;
+            }
+        }
+        modCount++;
+        other.chunks = new Object[4][];
+        other.offsets = new int[4];
+        other.chunkCount = 0;
+        other.size = 0;
+        other.modCount++;
+        return this;
+    }
+
+    private void addChunk(Object[] chunk, int offset) {
+        if (chunkCount == chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunkCount << 1);
+            offsets = Arrays.copyOf(offsets, chunkCount << 1);
+        }
+        chunks[chunkCount] = chunk;
+        offsets[chunkCount] = offset;
+        chunkCount++;
+    }
+
+    /**
+     * 段数
+     */
+    public int chunkCount() {
+        return chunkCount;
+    }
+
+    /**
+     * 下标index所在的段
+     */
+    private int chunkOf(int index) {
+        if (index >= offsets[chunkCount - 1]) {
+            return chunkCount - 1;
+        }
+        int chunk = Arrays.binarySearch(offsets, 0, chunkCount, index);
+        if (chunk < 0) {
+            return -chunk - 2;
+        }
+        // 拼接时跳过了空段, 起始下标不会重复
+        return chunk;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        checkIndex(index);
+        int chunk = chunkOf(index);
+        return (T) chunks[chunk][index - offsets[chunk]];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T set(int index, T element) {
+        checkIndex(index);
+        int chunk = chunkOf(index);
+        Object[] values = chunks[chunk];
+        T old = (T) values[index - offsets[chunk]];
+        values[index - offsets[chunk]] = element;
+        return old;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    @Override
+    public void clear() {
+        chunks = new Object[4][];
+        offsets = new int[4];
+        chunkCount = 0;
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public Object[] toArray() {
+        Object[] array = new Object[size];
+        copyTo(array);
+        return array;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <E> E[] toArray(E[] a) {
+        E[] array = a.length >= size ? a : (E[]) Array.newInstance(a.getClass().getComponentType(), size);
+        copyTo(array);
+        if (array.length > size) {
+            array[size] = null;
+        }
+        return array;
+    }
+
+    private void copyTo(Object[] array) {
+        for (int i = 0; i < chunkCount; i++) {
+            int end = i + 1 < chunkCount ? offsets[i + 1] : size;
+            System.arraycopy(chunks[i], 0, array, offsets[i], end - offsets[i]);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<? super T> action) {
+        Objects.requireNonNull(action);
+        int expectedModCount = modCount;
+        for (int i = 0; i < chunkCount; i++) {
+            Object[] values = chunks[i];
+            int length = (i + 1 < chunkCount ? offsets[i + 1] : size) - offsets[i];
+            for (int j = 0; j < length; j++) {
+                action.accept((T) values[j]);
+            }
+        }
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    /**
+     * 按下标区间拆分的Spliterator, 遍历时逐段顺序读取
+     */
+    @Override
+    public Spliterator<T> spliterator() {
+        return new ChunkSpliterator(0, -1, 0);
+    }
+
+    private final class ChunkSpliterator implements Spliterator<T> {
+
+        private int index;
+
+        /**
+         * 第一次使用时才确定结束下标, 创建后到遍历前的追加也能看到
+         */
+        private int fence;
+        private int expectedModCount;
+
+        ChunkSpliterator(int origin, int fence, int expectedModCount) {
+            this.index = origin;
+            this.fence = fence;
+            this.expectedModCount = expectedModCount;
+        }
+
+        private int getFence() {
+            if (fence < 0) {
+                expectedModCount = modCount;
+                fence = size;
+            }
+            return fence;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean tryAdvance(Consumer<? super T> action) {
+            Objects.requireNonNull(action);
+            int hi = getFence();
+            if (index >= hi) {
+                return false;
+            }
+            int chunk = chunkOf(index);
+            T value = (T) chunks[chunk][index - offsets[chunk]];
+            index++;
+            action.accept(value);
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            return true;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void forEachRemaining(Consumer<? super T> action) {
+            Objects.requireNonNull(action);
+            int hi = getFence();
+            int i = index;
+            if (i >= hi) {
+                return;
+            }
+            index = hi;
+            for (int chunk = chunkOf(i); i < hi; chunk++) {
+                Object[] values = chunks[chunk];
+                int base = offsets[chunk];
+                int end = Math.min(hi, chunk + 1 < chunkCount ? offsets[chunk + 1] : size);
+                for (; i < end; i++) {
+                    action.accept((T) values[i - base]);
+                }
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            int hi = getFence();
+            int lo = index;
+            int mid = (lo + hi) >>> 1;
+            if (lo >= mid) {
+                return null;
+            }
+            index = mid;
+            return new ChunkSpliterator(lo, mid, expectedModCount);
+        }
+
+        @Override
+        public long estimateSize() {
+            return getFence() - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED;
+        }
+    }
+}
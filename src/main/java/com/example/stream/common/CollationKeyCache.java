@@ -0,0 +1,239 @@
+package com.example.stream.common;
+
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 排序键缓存
+ * Comparator.comparing(Employee::getName, Collator.getInstance(Locale.CHINA))每次比较都要对两个字符串重新做完整的排序规则分析, 大量中文姓名排序时非常慢;
+ * CollationKeyCache对每个不同的字符串只计算一次排序键(CollationKey.toByteArray()), 按LRU淘汰保存最近使用的maxSize个, 比较时只比较字节数组
+ * <p>
+ * CollationKeyCache chinese(); 按Locale.CHINA的排序规则
+ * CollationKeyCache pinyin(Function<String, String> toPinyin); 先按toPinyin转换后的拼音排序, 拼音相同再按原字符串排序,
+ * 多音字和生僻字的顺序由调用方提供的拼音转换决定, 弥补Collator"不够准确"的问题
+ * <p>
+ * Key key(String source); 排序键
+ * Comparator<String> comparator(); 按排序键比较的比较器
+ * <T> void sort(List<T> list, Function<? super T, String> name); 原地排序, 每个不同的name只计算一次排序键, 再按名次用FastSort排序
+ *
+ * @Auther: Akang
+ * @Date: 2026/10/18 21:40
+ * @Description:
+ */
+public final class CollationKeyCache {
+
+    public static final int DEFAULT_MAX_SIZE = 1 << 16;
+
+    /**
+     * Collator不是线程安全的, 每个缓存持有自己的实例, 计算排序键时加锁
+     */
+    private final Collator collator;
+    private final Function<String, String> transliterator;
+    private final Map<String, Key> cache;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param collator 排序规则
+     * @param maxSize  缓存的排序键个数上限
+     */
+    public CollationKeyCache(Collator collator, int maxSize) {
+        this(collator, null, maxSize);
+    }
+
+    /**
+     * @param collator       排序规则
+     * @param transliterator 排序前的转换(如汉字转拼音), 转换结果相同时按原字符串排序, 为null时不转换
+     * @param maxSize        缓存的排序键个数上限
+     */
+    public CollationKeyCache(Collator collator, Function<String, String> transliterator, int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Illegal max size: " + maxSize);
+        }
+        this.collator = (Collator) Objects.requireNonNull(collator).clone();
+        this.transliterator = transliterator;
+        this.cache = new LinkedHashMap<String, Key>(16, 0.75F, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Key> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * 按Locale.CHINA的排序规则
+     */
+    public static CollationKeyCache chinese() {
+        return new CollationKeyCache(Collator.getInstance(Locale.CHINA), DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * 先按拼音排序, 拼音相同再按Locale.CHINA的排序规则排序
+     *
+     * @param toPinyin 汉字转拼音, 如"张三" -> "zhang san"
+     */
+    public static CollationKeyCache pinyin(Function<String, String> toPinyin) {
+        return new CollationKeyCache(Collator.getInstance(Locale.CHINA), Objects.requireNonNull(toPinyin), DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * source的排序键, 命中缓存时不重新计算
+     */
+    public Key key(String source) {
+        Objects.requireNonNull(source);
+        Key key;
+        synchronized (cache) {
+            key = cache.get(source);
+        }
+        if (key != null) {
+            hits.increment();
+            return key;
+        }
+        misses.increment();
+        key = compute(source);
+        synchronized (cache) {
+            cache.put(source, key);
+        }
+        return key;
+    }
+
+    private Key compute(String source) {
+        synchronized (collator) {
+            byte[] original = collator.getCollationKey(source).toByteArray();
+            if (transliterator == null) {
+                return new Key(original, null);
+            }
+            String transliterated = Objects.requireNonNull(transliterator.apply(source), "transliterator returned null");
+            return new Key(collator.getCollationKey(transliterated).toByteArray(), original);
+        }
+    }
+
+    /**
+     * 按排序键比较字符串的比较器
+     */
+    public Comparator<String> comparator() {
+        return (a, b) -> key(a).compareTo(key(b));
+    }
+
+    /**
+     * 按name的排序键比较的比较器
+     */
+    public <T> Comparator<T> comparing(Function<? super T, String> name) {
+        Objects.requireNonNull(name);
+        return (a, b) -> key(name.apply(a)).compareTo(key(name.apply(b)));
+    }
+
+    /**
+     * 按name原地排序, 排序稳定
+     * 先对不同的name排序得到名次, 每个元素只查一次名次, 再用FastSort按int名次排序, 比较次数与不同name的个数相关而不是元素个数
+     */
+    public <T> void sort(List<T> list, Function<? super T, String> name) {
+        Objects.requireNonNull(name);
+        Map<String, Integer> ranks = new HashMap<>();
+        for (T t : list) {
+            ranks.put(name.apply(t), 0);
+        }
+        String[] distinct = ranks.keySet().toArray(new String[0]);
+        Key[] keys = new Key[distinct.length];
+        Integer[] indexes = new Integer[distinct.length];
+        for (int i = 0; i < distinct.length; i++) {
+            keys[i] = key(distinct[i]);
+            indexes[i] = i;
+        }
+        Arrays.sort(indexes, (a, b) -> keys[a].compareTo(keys[b]));
+        for (int rank = 0; rank < indexes.length; rank++) {
+            ranks.put(distinct[indexes[rank]], rank);
+        }
+        List<T> copy = new ArrayList<>(list);
+        int[] order = FastSort.order(copy, FastSort.<T>comparingInt(t -> ranks.get(name.apply(t))));
+        ListIterator<T> iterator = list.listIterator();
+        for (int index : order) {
+            iterator.next();
+            iterator.set(copy.get(index));
+        }
+    }
+
+    /**
+     * 当前缓存的排序键个数
+     */
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * 排序键, 按字节无符号逐个比较; 有转换时先比较转换结果的排序键, 相同再比较原字符串的排序键
+     */
+    public static final class Key implements Comparable<Key> {
+
+        private final byte[] primary;
+        private final byte[] secondary;
+
+        private Key(byte[] primary, byte[] secondary) {
+            this.primary = primary;
+            this.secondary = secondary;
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            int c = compareUnsigned(primary, other.primary);
+            if (c != 0 || secondary == null || other.secondary == null) {
+                return c;
+            }
+            return compareUnsigned(secondary, other.secondary);
+        }
+
+        private static int compareUnsigned(byte[] a, byte[] b) {
+            int length = Math.min(a.length, b.length);
+            for (int i = 0; i < length; i++) {
+                if (a[i] != b[i]) {
+                    return (a[i] & 0xFF) - (b[i] & 0xFF);
+                }
+            }
+            return a.length - b.length;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return Arrays.equals(primary, key.primary) && Arrays.equals(secondary, key.secondary);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Arrays.hashCode(primary) + Arrays.hashCode(secondary);
+        }
+    }
+}
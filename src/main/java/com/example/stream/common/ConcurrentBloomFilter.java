@@ -0,0 +1,115 @@
+package com.example.stream.common;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 线程安全的布隆过滤器
+ * 位数组存放在AtomicLongArray中, 置位使用CAS, 可以在并行流中共享; 内存只与预期元素个数和误判率有关, 与元素本身大小无关
+ * put按哈希分段加锁, 同一个元素的put串行执行, 并发put同一个元素时只有一个返回true; mightContain不加锁
+ * 不存在的元素可能被误判为存在(概率约为fpp), 存在的元素不会被误判为不存在
+ * <p>
+ * 使用64位哈希及其扰动值做双重哈希(h1 + i * h2), 生成numHashFunctions个位置, 调用方提供的哈希应当分布均匀, 可以先经过mix64
+ *
+ * @Auther: Akang
+ * @Date: 2026/10/18 22:20
+ * @Description:
+ */
+public class ConcurrentBloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitSize;
+    private final int numHashFunctions;
+
+    /**
+     * put的分段锁, 个数为2的幂
+     */
+    private final Object[] stripes;
+
+    /**
+     * @param expectedInsertions 预期元素个数
+     * @param fpp                预期元素个数下的误判率, 0 < fpp < 1
+     */
+    public ConcurrentBloomFilter(long expectedInsertions, double fpp) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("Illegal expected insertions: " + expectedInsertions);
+        }
+        if (!(fpp > 0D && fpp < 1D)) {
+            throw new IllegalArgumentException("Illegal false positive probability: " + fpp);
+        }
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        long wordCount = Math.max(1L, (bits + 63) >>> 6);
+        if (wordCount > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Bloom filter too large: " + bits + " bits");
+        }
+        this.words = new AtomicLongArray((int) wordCount);
+        this.bitSize = wordCount << 6;
+        this.numHashFunctions = Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * Math.log(2)));
+        this.stripes = new Object[Integer.highestOneBit(Math.max(16, Runtime.getRuntime().availableProcessors() * 4) - 1) << 1];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Object();
+        }
+    }
+
+    /**
+     * 位数组大小(位)
+     */
+    public long bitSize() {
+        return bitSize;
+    }
+
+    public int numHashFunctions() {
+        return numHashFunctions;
+    }
+
+    /**
+     * hash64对应的元素是否可能存在
+     */
+    public boolean mightContain(long hash64) {
+        long combined = hash64;
+        long h2 = mix64(hash64);
+        for (int i = 0; i < numHashFunctions; i++, combined += h2) {
+            long bit = (combined & Long.MAX_VALUE) % bitSize;
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0L) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 添加hash64对应的元素
+     * 相同hash64的put持有同一个分段锁, 前一个put置位完成后, 后一个put一定看到所有位都为1;
+     * 不同元素的位可能在同一个long中, 分段之间仍然用CAS置位
+     *
+     * @return 有位从0变为1时返回true, 即元素之前一定不存在, 并发put同一个元素时只有一个返回true; 返回false表示元素可能已存在
+     */
+    public boolean put(long hash64) {
+        long h2 = mix64(hash64);
+        synchronized (stripes[(int) (h2 >>> 32) & (stripes.length - 1)]) {
+            long combined = hash64;
+            boolean changed = false;
+            for (int i = 0; i < numHashFunctions; i++, combined += h2) {
+                long bit = (combined & Long.MAX_VALUE) % bitSize;
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current;
+                while (((current = words.get(word)) & mask) == 0L) {
+                    if (words.compareAndSet(word, current, current | mask)) {
+                        changed = true;
+                        break;
+                    }
+                }
+            }
+            return changed;
+        }
+    }
+
+    /**
+     * 64位扰动(SplitMix64的终结函数), 把hashCode等分布较差的值扩散到64位
+     */
+    public static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.stream.common;
+
+import java.util.DoubleSummaryStatistics;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collector;
+
+/**
+ * 分段累加的并发分组收集器
+ * Collectors.groupingByConcurrent(classifier, Collectors.counting())每个元素都要经过ConcurrentHashMap.computeIfAbsent,
+ * 键分布倾斜时(大部分元素属于少数几个键), 所有线程都在竞争同一个桶;
+ * 这里每个键对应一个LongAdder/DoubleAdder/StripedDoubleStatistics, 已存在的键只做无锁读取, 累加分散到多个Cell上
+ * <p>
+ * 带batchSize参数的重载为每个线程提供本地预聚合缓冲, 线程先在本地哈希表中累加, 每处理batchSize个元素批量写入共享结果, 热点键的竞争次数降为1/batchSize
+ * <p>
+ * 收集器特征为CONCURRENT和UNORDERED, 并行流中所有线程共享同一个结果容器
+ *
+ * @Auther: Akang
+ * @Date: 2026/10/18 16:20
+ * @Description:
+ */
+public final class ConcurrentGroupingCollectors {
+
+    private ConcurrentGroupingCollectors() {
+    }
+
+    /**
+     * 根据分组条件classifier并发分组计数, 同Collectors.groupingByConcurrent(classifier, Collectors.counting())
+     */
+    public static <T, K> Collector<T, ?, ConcurrentMap<K, LongAdder>> countingByConcurrent(Function<? super T, ? extends K> classifier) {
+        Objects.requireNonNull(classifier);
+        return striped(classifier, LongAdder::new, (adder, t) -> adder.increment(), (left, right) -> left.add(right.sum()));
+    }
+
+    /**
+     * 根据分组条件classifier并发分组计数, 每个线程先在本地累加batchSize个元素再写入共享结果
+     */
+    public static <T, K> Collector<T, ?, ConcurrentMap<K, LongAdder>> countingByConcurrent(Function<? super T, ? extends K> classifier,
+                                                                                         int batchSize) {
+        Objects.requireNonNull(classifier);
+        return buffered(batchSize,
+                ObjectLongHashMap<K>::new,
+                (buffer, t) -> buffer.addTo(classify(classifier, t), 1L),
+                (buffer, target) -> {
+                    buffer.forEach((key, count) -> accumulator(target, key, LongAdder::new).add(count));
+                    buffer.clear();
+                },
+                (left, right) -> left.add(right.sum()));
+    }
+
+    /**
+     * 根据分组条件classifier并发分组, 对mapper的结果求和, 同Collectors.groupingByConcurrent(classifier, Collectors.summingDouble(mapper))
+     */
+    public static <T, K> Collector<T, ?, ConcurrentMap<K, DoubleAdder>> summingDoubleByConcurrent(Function<? super T, ? extends K> classifier,
+                                                                                                ToDoubleFunction<? super T> mapper) {
+        Objects.requireNonNull(classifier);
+        Objects.requireNonNull(mapper);
+        return striped(classifier, DoubleAdder::new, (adder, t) -> adder.add(mapper.applyAsDouble(t)), (left, right) -> left.add(right.sum()));
+    }
+
+    /**
+     * 根据分组条件classifier并发分组, 对mapper的结果求和, 每个线程先在本地累加batchSize个元素再写入共享结果
+     */
+    public static <T, K> Collector<T, ?, ConcurrentMap<K, DoubleAdder>> summingDoubleByConcurrent(Function<? super T, ? extends K> classifier,
+                                                                                                ToDoubleFunction<? super T> mapper,
+                                                                                                int batchSize) {
+        Objects.requireNonNull(classifier);
+        Objects.requireNonNull(mapper);
+        return buffered(batchSize,
+                ObjectDoubleHashMap<K>::new,
+                (buffer, t) -> buffer.addTo(classify(classifier, t), mapper.applyAsDouble(t)),
+                (buffer, target) -> {
+                    buffer.forEach((key, sum) -> accumulator(target, key, DoubleAdder::new).add(sum));
+                    buffer.clear();
+                },
+                (left, right) -> left.add(right.sum()));
+    }
+
+    /**
+     * 根据分组条件classifier并发分组, 统计mapper的结果, 同Collectors.groupingByConcurrent(classifier, Collectors.summarizingDouble(mapper))
+     */
+    public static <T, K> Collector<T, ?, ConcurrentMap<K, StripedDoubleStatistics>> summarizingDoubleByConcurrent(
+            Function<? super T, ? extends K> classifier, ToDoubleFunction<? super T> mapper) {
+        Objects.requireNonNull(classifier);
+        Objects.requireNonNull(mapper);
+        return striped(classifier, StripedDoubleStatistics::new, (statistics, t) -> statistics.accept(mapper.applyAsDouble(t)),
+                StripedDoubleStatistics::combine);
+    }
+
+    /**
+     * 根据分组条件classifier并发分组, 统计mapper的结果, 每个线程先在本地统计batchSize个元素再写入共享结果
+     */
+    public static <T, K> Collector<T, ?, ConcurrentMap<K, StripedDoubleStatistics>> summarizingDoubleByConcurrent(
+            Function<? super T, ? extends K> classifier, ToDoubleFunction<? super T> mapper, int batchSize) {
+        Objects.requireNonNull(classifier);
+        Objects.requireNonNull(mapper);
+        return buffered(batchSize,
+                HashMap<K, DoubleSummaryStatistics>::new,
+                (buffer, t) -> buffer.computeIfAbsent(classify(classifier, t), key -> new DoubleSummaryStatistics()).accept(mapper.applyAsDouble(t)),
+                (buffer, target) -> {
+                    buffer.forEach((key, statistics) -> accumulator(target, key, StripedDoubleStatistics::new).combine(statistics));
+                    buffer.clear();
+                },
+                StripedDoubleStatistics::combine);
+    }
+
+    /**
+     * 每个元素直接更新共享结果中对应键的分段累加器
+     */
+    private static <T, K, A> Collector<T, ?, ConcurrentMap<K, A>> striped(Function<? super T, ? extends K> classifier,
+                                                                         Supplier<A> factory,
+                                                                         BiConsumer<A, ? super T> update,
+                                                                         BiConsumer<A, A> merge) {
+        return Collector.of(ConcurrentHashMap<K, A>::new,
+                (map, t) -> update.accept(accumulator(map, classify(classifier, t), factory), t),
+                (left, right) -> mergeInto(left, right, merge),
+                Collector.Characteristics.CONCURRENT,
+                Collector.Characteristics.UNORDERED,
+                Collector.Characteristics.IDENTITY_FINISH);
+    }
+
+    /**
+     * 每个线程先更新本地缓冲, 累计batchSize个元素后写入共享结果, 收集结束时写入所有缓冲中剩余的数据
+     */
+    private static <T, K, A, B> Collector<T, ?, ConcurrentMap<K, A>> buffered(int batchSize,
+                                                                             Supplier<B> bufferFactory,
+                                                                             BiConsumer<B, ? super T> update,
+                                                                             BiConsumer<B, ConcurrentMap<K, A>> flush,
+                                                                             BiConsumer<A, A> merge) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Illegal batch size: " + batchSize);
+        }
+        return Collector.of(() -> new ThreadBuffers<T, K, A, B>(batchSize, bufferFactory, update, flush),
+                ThreadBuffers::accept,
+                (left, right) -> {
+                    mergeInto(left.target, right.finish(), merge);
+                    return left;
+                },
+                ThreadBuffers::finish,
+                Collector.Characteristics.CONCURRENT,
+                Collector.Characteristics.UNORDERED);
+    }
+
+    /**
+     * 获取key对应的累加器, 已存在的key只做无锁读取, 不经过computeIfAbsent
+     */
+    private static <K, A> A accumulator(ConcurrentMap<K, A> map, K key, Supplier<A> factory) {
+        A accumulator = map.get(key);
+        return accumulator != null ? accumulator : map.computeIfAbsent(key, k -> factory.get());
+    }
+
+    private static <K, A> ConcurrentMap<K, A> mergeInto(ConcurrentMap<K, A> left, ConcurrentMap<K, A> right, BiConsumer<A, A> merge) {
+        for (Map.Entry<K, A> entry : right.entrySet()) {
+            A existing = left.putIfAbsent(entry.getKey(), entry.getValue());
+            if (existing != null) {
+                merge.accept(existing, entry.getValue());
+            }
+        }
+        return left;
+    }
+
+    private static <T, K> K classify(Function<? super T, ? extends K> classifier, T t) {
+        return Objects.requireNonNull(classifier.apply(t), "element cannot be mapped to a null key");
+    }
+
+    /**
+     * 共享结果及每个线程的本地缓冲, 以线程为键保存缓冲, 收集结束后随容器一起回收
+     */
+    private static final class ThreadBuffers<T, K, A, B> {
+
+        private final int batchSize;
+        private final Supplier<B> bufferFactory;
+        private final BiConsumer<B, ? super T> update;
+        private final BiConsumer<B, ConcurrentMap<K, A>> flush;
+        private final ConcurrentMap<K, A> target = new ConcurrentHashMap<>();
+        private final ConcurrentMap<Thread, LocalBuffer<B>> locals = new ConcurrentHashMap<>();
+
+        ThreadBuffers(int batchSize, Supplier<B> bufferFactory, BiConsumer<B, ? super T> update, BiConsumer<B, ConcurrentMap<K, A>> flush) {
+            this.batchSize = batchSize;
+            this.bufferFactory = bufferFactory;
+            this.update = update;
+            this.flush = flush;
+        }
+
+        void accept(T t) {
+            Thread thread = Thread.currentThread();
+            LocalBuffer<B> local = locals.get(thread);
+            if (local == null) {
+                local = locals.computeIfAbsent(thread, key -> new LocalBuffer<>(bufferFactory.get()));
+            }
+            update.accept(local.buffer, t);
+            if (++local.pending >= batchSize) {
+                flush.accept(local.buffer, target);
+                local.pending = 0;
+            }
+        }
+
+        /**
+         * 所有累加均已完成(fork/join的join保证可见性), 由调用线程写入各线程缓冲中剩余的数据
+         */
+        ConcurrentMap<K, A> finish() {
+            for (LocalBuffer<B> local : locals.values()) {
+                if (local.pending > 0) {
+                    flush.accept(local.buffer, target);
+                    local.pending = 0;
+                }
+            }
+            locals.clear();
+            return target;
+        }
+    }
+
+    private static final class LocalBuffer<B> {
+
+        final B buffer;
+        int pending;
+
+        LocalBuffer(B buffer) {
+            this.buffer = buffer;
+        }
+    }
+}
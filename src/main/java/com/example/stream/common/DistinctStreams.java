@@ -0,0 +1,501 @@
+package com.example.stream.common;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 按键去重
+ * Stream.distinct()按equals去重, 无法指定去重的键, 并且用LinkedHashSet保存每个元素, 数据量大时占满堆内存;
+ * DistinctStreams按keyExtractor提取的键去重, 提供三种方式:
+ * <p>
+ * 精确去重, 只保存键, 顺序流使用开放寻址的ObjectHashSet/LongHashSet, 并行流使用ConcurrentHashMap的键集合
+ * Stream<T> distinctBy(Stream<T> stream, Function<? super T, ?> keyExtractor);
+ * Stream<T> distinctByLong(Stream<T> stream, ToLongFunction<? super T> keyExtractor);
+ * <p>
+ * 限制内存的精确去重, 内存中最多保存maxKeysInMemory个键, 之后遇到的新键对应的元素按键的哈希分区写入临时文件,
+ * 源数据遍历结束后逐个分区读回去重(分区仍然过大时递归分区); 只支持顺序处理, 溢出的元素在内存中的元素之后输出
+ * Stream<T> distinctBySpilling(Stream<T> stream, Function<? super T, ?> keyExtractor, RecordCodec<T> codec, int maxKeysInMemory);
+ * <p>
+ * 近似去重, 使用布隆过滤器, 内存只与预期元素个数和误判率有关; 重复元素一定被去除(并行流中同一个键的put串行执行, 只有一个返回true),
+ * 少量不重复的元素(比例约为fpp)会被误判为重复而丢弃
+ * Stream<T> approximateDistinctBy(Stream<T> stream, Function<? super T, ?> keyExtractor, long expectedInsertions, double fpp);
+ * Stream<T> approximateDistinctByLong(Stream<T> stream, ToLongFunction<? super T> keyExtractor, long expectedInsertions, double fpp);
+ * <p>
+ * 顺序流保留每个键第一次出现的元素; 并行流保留的是任意一个, 同unordered().distinct()
+ *
+ * @Auther: Akang
+ * @Date: 2026/10/18 22:30
+ * @Description:
+ */
+public final class DistinctStreams {
+
+    /**
+     * 溢出时的分区数
+     */
+    private static final int SPILL_PARTITIONS = 16;
+
+    /**
+     * 最大递归分区深度, 超过后不再溢出(大量键的hashCode相同时避免无限递归)
+     */
+    private static final int MAX_SPILL_DEPTH = 4;
+
+    private DistinctStreams() {
+    }
+
+    /**
+     * 按keyExtractor提取的键精确去重
+     */
+    public static <T> Stream<T> distinctBy(Stream<T> stream, Function<? super T, ?> keyExtractor) {
+        Objects.requireNonNull(keyExtractor);
+        return filter(stream, new ExactFilter<T>() {
+            private ObjectHashSet<Object> local = new ObjectHashSet<>();
+
+            @Override
+            boolean addLocal(T t) {
+                return local.add(key(t));
+            }
+
+            @Override
+            Set<Object> toConcurrent() {
+                Set<Object> set = ConcurrentHashMap.newKeySet();
+                // 第一次拆分前已经遍历过的元素的键迁移到并发集合
+                local.forEach(set::add);
+                local = null;
+                return set;
+            }
+
+            @Override
+            Object key(T t) {
+                return Objects.requireNonNull(keyExtractor.apply(t), "element cannot be mapped to a null key");
+            }
+        });
+    }
+
+    /**
+     * 按keyExtractor提取的long键精确去重, 顺序流中键不装箱
+     */
+    public static <T> Stream<T> distinctByLong(Stream<T> stream, ToLongFunction<? super T> keyExtractor) {
+        Objects.requireNonNull(keyExtractor);
+        return filter(stream, new ExactFilter<T>() {
+            private LongHashSet local = new LongHashSet();
+
+            @Override
+            boolean addLocal(T t) {
+                return local.add(keyExtractor.applyAsLong(t));
+            }
+
+            @Override
+            Set<Object> toConcurrent() {
+                Set<Object> set = ConcurrentHashMap.newKeySet();
+                local.forEach(set::add);
+                local = null;
+                return set;
+            }
+
+            @Override
+            Object key(T t) {
+                return keyExtractor.applyAsLong(t);
+            }
+        });
+    }
+
+    /**
+     * 限制内存的精确去重, 临时文件写在java.io.tmpdir下
+     *
+     * @param codec           溢出元素的编解码
+     * @param maxKeysInMemory 内存中最多保存的键个数
+     */
+    public static <T> Stream<T> distinctBySpilling(Stream<T> stream, Function<? super T, ?> keyExtractor,
+                                                   RecordCodec<T> codec, int maxKeysInMemory) {
+        return distinctBySpilling(stream, keyExtractor, codec, maxKeysInMemory, Paths.get(System.getProperty("java.io.tmpdir")));
+    }
+
+    /**
+     * 限制内存的精确去重
+     *
+     * @param codec           溢出元素的编解码
+     * @param maxKeysInMemory 内存中最多保存的键个数
+     * @param directory       临时文件目录, 流关闭或读完后删除临时文件
+     */
+    public static <T> Stream<T> distinctBySpilling(Stream<T> stream, Function<? super T, ?> keyExtractor,
+                                                   RecordCodec<T> codec, int maxKeysInMemory, Path directory) {
+        Objects.requireNonNull(keyExtractor);
+        Objects.requireNonNull(codec);
+        Objects.requireNonNull(directory);
+        if (maxKeysInMemory <= 0) {
+            throw new IllegalArgumentException("Illegal max keys in memory: " + maxKeysInMemory);
+        }
+        SpillingIterator<T> iterator = new SpillingIterator<>(stream.iterator(), keyExtractor, codec, maxKeysInMemory, directory, 0);
+        Spliterator<T> spliterator = Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(iterator::close).onClose(stream::close);
+    }
+
+    /**
+     * 按keyExtractor提取的键近似去重
+     * 键为CharSequence或整数时按内容计算64位哈希, 其他类型的键使用hashCode(32位), 不同键的hashCode相同时会被当作重复
+     *
+     * @param expectedInsertions 预期不重复的键个数
+     * @param fpp                误判率, 即不重复的元素被丢弃的概率
+     */
+    public static <T> Stream<T> approximateDistinctBy(Stream<T> stream, Function<? super T, ?> keyExtractor,
+                                                      long expectedInsertions, double fpp) {
+        Objects.requireNonNull(keyExtractor);
+        ConcurrentBloomFilter filter = new ConcurrentBloomFilter(expectedInsertions, fpp);
+        return filter(stream, t -> filter.put(hash64(keyExtractor.apply(t))));
+    }
+
+    /**
+     * 按keyExtractor提取的long键近似去重
+     */
+    public static <T> Stream<T> approximateDistinctByLong(Stream<T> stream, ToLongFunction<? super T> keyExtractor,
+                                                          long expectedInsertions, double fpp) {
+        Objects.requireNonNull(keyExtractor);
+        ConcurrentBloomFilter filter = new ConcurrentBloomFilter(expectedInsertions, fpp);
+        return filter(stream, t -> filter.put(ConcurrentBloomFilter.mix64(keyExtractor.applyAsLong(t))));
+    }
+
+    private static long hash64(Object key) {
+        Objects.requireNonNull(key, "element cannot be mapped to a null key");
+        if (key instanceof CharSequence) {
+            CharSequence s = (CharSequence) key;
+            // FNV-1a
+            long h = 0xCBF29CE484222325L;
+            for (int i = 0; i < s.length(); i++) {
+                h = (h ^ s.charAt(i)) * 0x100000001B3L;
+            }
+            return ConcurrentBloomFilter.mix64(h);
+        }
+        if (key instanceof Long || key instanceof Integer || key instanceof Short || key instanceof Byte) {
+            return ConcurrentBloomFilter.mix64(((Number) key).longValue());
+        }
+        return ConcurrentBloomFilter.mix64(key.hashCode());
+    }
+
+    private static <T> Stream<T> filter(Stream<T> stream, Predicate<? super T> firstSeen) {
+        Spliterator<T> spliterator = new FilterSpliterator<>(stream.spliterator(), firstSeen);
+        return StreamSupport.stream(spliterator, stream.isParallel()).onClose(stream::close);
+    }
+
+    /**
+     * 精确去重的已见键集合
+     * 顺序遍历时使用非线程安全的本地集合; 返回的流可能在之后被parallel(), Spliterator第一次拆分时(此时还没有并发遍历)切换为并发集合
+     */
+    private abstract static class ExactFilter<T> implements Predicate<T> {
+
+        private volatile Set<Object> concurrent;
+
+        abstract boolean addLocal(T t);
+
+        abstract Set<Object> toConcurrent();
+
+        abstract Object key(T t);
+
+        @Override
+        public boolean test(T t) {
+            Set<Object> set = concurrent;
+            return set == null ? addLocal(t) : set.add(key(t));
+        }
+
+        void parallel() {
+            if (concurrent == null) {
+                concurrent = toConcurrent();
+            }
+        }
+    }
+
+    /**
+     * 只保留firstSeen返回true的元素
+     */
+    private static final class FilterSpliterator<T> implements Spliterator<T>, Consumer<T> {
+
+        private final Spliterator<T> source;
+        private final Predicate<? super T> firstSeen;
+        private T current;
+
+        FilterSpliterator(Spliterator<T> source, Predicate<? super T> firstSeen) {
+            this.source = source;
+            this.firstSeen = firstSeen;
+        }
+
+        @Override
+        public void accept(T t) {
+            current = t;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            Objects.requireNonNull(action);
+            while (source.tryAdvance(this)) {
+                T t = current;
+                current = null;
+                if (firstSeen.test(t)) {
+                    action.accept(t);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            Objects.requireNonNull(action);
+            source.forEachRemaining(t -> {
+                if (firstSeen.test(t)) {
+                    action.accept(t);
+                }
+            });
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            if (firstSeen instanceof ExactFilter) {
+                ((ExactFilter<?>) firstSeen).parallel();
+            }
+            Spliterator<T> prefix = source.trySplit();
+            return prefix == null ? null : new FilterSpliterator<>(prefix, firstSeen);
+        }
+
+        @Override
+        public long estimateSize() {
+            return source.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return source.characteristics() & ~(SIZED | SUBSIZED);
+        }
+    }
+
+    /**
+     * 限制内存的去重迭代器
+     * 内存中的键集合未满时直接输出新元素; 满了之后, 键不在集合中的元素按键的哈希写入分区文件; 源数据结束后逐个分区递归去重
+     */
+    private static final class SpillingIterator<T> implements Iterator<T> {
+
+        private final Iterator<T> source;
+        private final Function<? super T, ?> keyExtractor;
+        private final RecordCodec<T> codec;
+        private final int maxKeysInMemory;
+        private final Path directory;
+        private final int depth;
+
+        private ObjectHashSet<Object> seen = new ObjectHashSet<>();
+        private Partition[] partitions;
+        private boolean sourceDone;
+        private int partitionIndex;
+        private SpillingIterator<T> partitionIterator;
+        private Partition partition;
+        private T next;
+
+        SpillingIterator(Iterator<T> source, Function<? super T, ?> keyExtractor, RecordCodec<T> codec,
+                         int maxKeysInMemory, Path directory, int depth) {
+            this.source = source;
+            this.keyExtractor = keyExtractor;
+            this.codec = codec;
+            this.maxKeysInMemory = depth >= MAX_SPILL_DEPTH ? Integer.MAX_VALUE : maxKeysInMemory;
+            this.directory = directory;
+            this.depth = depth;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                next = advance();
+            }
+            return next != null;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T t = next;
+            next = null;
+            return t;
+        }
+
+        private T advance() {
+            if (!sourceDone) {
+                while (source.hasNext()) {
+                    T t = source.next();
+                    Object key = Objects.requireNonNull(keyExtractor.apply(t), "element cannot be mapped to a null key");
+                    if (seen.contains(key)) {
+                        continue;
+                    }
+                    if (seen.size() < maxKeysInMemory) {
+                        seen.add(key);
+                        return t;
+                    }
+                    spill(key, t);
+                }
+                sourceDone = true;
+                // 溢出分区中的键一定不在内存集合中, 不再需要
+                seen = null;
+                finishWriting();
+            }
+            while (partitions != null && partitionIndex < partitions.length) {
+                if (partitionIterator == null) {
+                    partition = partitions[partitionIndex];
+                    if (partition == null) {
+                        partitionIndex++;
+                        continue;
+                    }
+                    partitionIterator = new SpillingIterator<>(partition.reader(codec), keyExtractor, codec,
+                            maxKeysInMemory, directory, depth + 1);
+                }
+                if (partitionIterator.hasNext()) {
+                    return partitionIterator.next();
+                }
+                partitionIterator.close();
+                partitionIterator = null;
+                partition.delete();
+                partitions[partitionIndex++] = null;
+            }
+            return null;
+        }
+
+        private void spill(Object key, T t) {
+            if (partitions == null) {
+                partitions = new Partition[SPILL_PARTITIONS];
+            }
+            int h = (int) ConcurrentBloomFilter.mix64(key.hashCode() + depth * 0x9E3779B97F4A7C15L);
+            int index = h & (SPILL_PARTITIONS - 1);
+            if (partitions[index] == null) {
+                partitions[index] = new Partition(directory);
+            }
+            partitions[index].write(codec, t);
+        }
+
+        private void finishWriting() {
+            if (partitions != null) {
+                for (Partition p : partitions) {
+                    if (p != null) {
+                        p.finishWriting();
+                    }
+                }
+            }
+        }
+
+        /**
+         * 删除所有未读完的临时文件
+         */
+        void close() {
+            if (partitionIterator != null) {
+                partitionIterator.close();
+                partitionIterator = null;
+            }
+            if (partitions != null) {
+                for (int i = 0; i < partitions.length; i++) {
+                    if (partitions[i] != null) {
+                        partitions[i].delete();
+                        partitions[i] = null;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 一个溢出分区对应的临时文件
+     */
+    private static final class Partition {
+
+        private final Path file;
+        private DataOutputStream out;
+        private DataInputStream in;
+        private long count;
+
+        Partition(Path directory) {
+            try {
+                this.file = Files.createTempFile(directory, "distinct-", ".spill");
+                this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        <T> void write(RecordCodec<T> codec, T t) {
+            try {
+                codec.write(out, t);
+                count++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void finishWriting() {
+            try {
+                out.close();
+                out = null;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        <T> Iterator<T> reader(RecordCodec<T> codec) {
+            try {
+                in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return new Iterator<T>() {
+                private long remaining = count;
+
+                @Override
+                public boolean hasNext() {
+                    return remaining > 0;
+                }
+
+                @Override
+                public T next() {
+                    if (remaining <= 0) {
+                        throw new NoSuchElementException();
+                    }
+                    remaining--;
+                    try {
+                        return codec.read(in);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            };
+        }
+
+        void delete() {
+            try {
+                if (out != null) {
+                    out.close();
+                    out = null;
+                }
+                if (in != null) {
+                    in.close();
+                    in = null;
+                }
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
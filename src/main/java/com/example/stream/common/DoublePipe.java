@@ -0,0 +1,267 @@
+package com.example.stream.common;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.OptionalDouble;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleConsumer;
+import java.util.function.DoublePredicate;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * 融合的double流水线
+ * DoubleStream.of(...).map(...).filter(...).sum()的每个中间操作是一个Sink, 每个元素逐级调用accept;
+ * 多条流水线使用不同的lambda时, Sink中调用mapper/predicate的位置见到多种类型(megamorphic), JIT无法内联, 每个元素每一级都是一次接口分派
+ * <p>
+ * DoublePipe把中间操作合并为before(map) -> predicate(filter) -> after(map)三段, 终结操作是直接遍历数据源的一个循环(FusedDoubleLoop);
+ * 相邻的map合成一个函数, 相邻的filter合成一个条件, map-filter-map之外更长的形式把后面的filter并入predicate,
+ * 此时predicate和after会对同一元素各执行一次中间的map, 与Stream一样要求行为参数无状态
+ * <p>
+ * DoublePipe compile(); 为这条流水线复制一个专属的循环类, 合成map/filter的函数类(FusedDoubleLoop.Compose, And, MapThenTest)也每个复制一份,
+ * 循环和合成函数中的调用点只见过这条流水线的lambda, 可以内联为与手写循环相当的代码;
+ * 复制会定义新类(循环类1个, 每个合成函数1个), 适用于反复执行的热点流水线, 编译后的DoublePipe应保存复用;
+ * 未编译的DoublePipe中合成函数的类被所有流水线共用, 多阶段的流水线与DoubleStream一样会遇到megamorphic的调用点
+ * <p>
+ * DoublePipe of(double... values) / of(double[] array, int from, int to); 数据源
+ * DoublePipe map(DoubleUnaryOperator mapper) / filter(DoublePredicate predicate); 中间操作
+ * sum, count, min, max, average, reduce, anyMatch, allMatch, noneMatch, forEach, toArray; 终结操作, 结果同DoubleStream
+ * <p>
+ * DoublePipe不可变, 同一个DoublePipe可以反复执行终结操作, 也可以被多个线程同时使用; 只支持串行, 需要并行时使用DoubleStream
+ *
+ * @Auther: Akang
+ * @Date: 2026/10/19 01:40
+ * @Description:
+ */
+public final class DoublePipe {
+
+    private static final DoubleUnaryOperator IDENTITY = x -> x;
+    private static final DoublePredicate ALWAYS = x -> true;
+    private static final Class<?>[] LOOP_PARAMETERS = {DoubleUnaryOperator.class, DoublePredicate.class, DoubleUnaryOperator.class};
+    private static final Class<?>[] COMPOSE_PARAMETERS = {DoubleUnaryOperator.class, DoubleUnaryOperator.class};
+    private static final Class<?>[] AND_PARAMETERS = {DoublePredicate.class, DoublePredicate.class};
+    private static final Class<?>[] MAP_THEN_TEST_PARAMETERS = {DoubleUnaryOperator.class, DoublePredicate.class};
+
+    /**
+     * 数据源, 数组下标[from, to)
+     */
+    private final double[] array;
+    private final int from;
+    private final int to;
+
+    /**
+     * 中间操作, 按调用顺序保存, 在fold中合并; mapping[i]表示第i个阶段是否为map
+     */
+    private final Object[] stages;
+    private final boolean[] mapping;
+
+    /**
+     * 终结操作的循环, 第一次使用时创建
+     */
+    private volatile Loop loop;
+
+    private DoublePipe(double[] array, int from, int to, Object[] stages, boolean[] mapping, Loop loop) {
+        this.array = array;
+        this.from = from;
+        this.to = to;
+        this.stages = stages;
+        this.mapping = mapping;
+        this.loop = loop;
+    }
+
+    /**
+     * 数组元素, 不复制数组
+     */
+    public static DoublePipe of(double... values) {
+        return of(values, 0, values.length);
+    }
+
+    /**
+     * 数组[from, to)范围的元素, 不复制数组
+     */
+    public static DoublePipe of(double[] array, int from, int to) {
+        Objects.requireNonNull(array);
+        if (from < 0 || to > array.length || from > to) {
+            throw new ArrayIndexOutOfBoundsException("from: " + from + ", to: " + to + ", length: " + array.length);
+        }
+        return new DoublePipe(array, from, to, new Object[0], new boolean[0], null);
+    }
+
+    public DoublePipe map(DoubleUnaryOperator mapper) {
+        return append(Objects.requireNonNull(mapper), true);
+    }
+
+    public DoublePipe filter(DoublePredicate predicate) {
+        return append(Objects.requireNonNull(predicate), false);
+    }
+
+    /**
+     * 复制一个只属于这条流水线的循环类, 已编译时返回自身
+     */
+    public DoublePipe compile() {
+        Loop current = loop;
+        if (current != null && current.getClass() != FusedDoubleLoop.class) {
+            return this;
+        }
+        Loop specialized = LoopSpecializer.specialize(FusedDoubleLoop.class, Loop.class, LOOP_PARAMETERS, fold(true));
+        return new DoublePipe(array, from, to, stages, mapping, specialized);
+    }
+
+    private DoublePipe append(Object stage, boolean map) {
+        Object[] next = Arrays.copyOf(stages, stages.length + 1);
+        next[stages.length] = stage;
+        boolean[] nextMapping = Arrays.copyOf(mapping, mapping.length + 1);
+        nextMapping[mapping.length] = map;
+        return new DoublePipe(array, from, to, next, nextMapping, null);
+    }
+
+    /**
+     * 合并为before, predicate, after三段, 作为循环类的构造参数
+     *
+     * @param specialize 合成函数是否各自复制一个类
+     */
+    private Object[] fold(boolean specialize) {
+        DoubleUnaryOperator before = null;
+        DoublePredicate predicate = null;
+        DoubleUnaryOperator after = null;
+        for (int i = 0, j; i < stages.length; i = j) {
+            j = i + 1;
+            if (mapping[i]) {
+                DoubleUnaryOperator mapper = (DoubleUnaryOperator) stages[i];
+                for (; j < stages.length && mapping[j]; j++) {
+                    mapper = compose(mapper, (DoubleUnaryOperator) stages[j], specialize);
+                }
+                if (predicate == null) {
+                    before = mapper;
+                } else {
+                    after = after == null ? mapper : compose(after, mapper, specialize);
+                }
+            } else {
+                DoublePredicate filter = (DoublePredicate) stages[i];
+                for (; j < stages.length && !mapping[j]; j++) {
+                    filter = and(filter, (DoublePredicate) stages[j], specialize);
+                }
+                // 两组filter之间一定有map, 此时after不为null
+                predicate = predicate == null ? filter : and(predicate, mapThenTest(after, filter, specialize), specialize);
+            }
+        }
+        return new Object[]{before == null ? IDENTITY : before, predicate == null ? ALWAYS : predicate,
+                after == null ? IDENTITY : after};
+    }
+
+    private static DoubleUnaryOperator compose(DoubleUnaryOperator first, DoubleUnaryOperator second, boolean specialize) {
+        return specialize
+                ? LoopSpecializer.specialize(FusedDoubleLoop.Compose.class, DoubleUnaryOperator.class, COMPOSE_PARAMETERS, first, second)
+                : new FusedDoubleLoop.Compose(first, second);
+    }
+
+    private static DoublePredicate and(DoublePredicate first, DoublePredicate second, boolean specialize) {
+        return specialize
+                ? LoopSpecializer.specialize(FusedDoubleLoop.And.class, DoublePredicate.class, AND_PARAMETERS, first, second)
+                : new FusedDoubleLoop.And(first, second);
+    }
+
+    private static DoublePredicate mapThenTest(DoubleUnaryOperator mapper, DoublePredicate predicate, boolean specialize) {
+        return specialize
+                ? LoopSpecializer.specialize(FusedDoubleLoop.MapThenTest.class, DoublePredicate.class, MAP_THEN_TEST_PARAMETERS, mapper, predicate)
+                : new FusedDoubleLoop.MapThenTest(mapper, predicate);
+    }
+
+    private Loop loop() {
+        Loop current = loop;
+        if (current == null) {
+            Object[] folded = fold(false);
+            current = new FusedDoubleLoop((DoubleUnaryOperator) folded[0], (DoublePredicate) folded[1], (DoubleUnaryOperator) folded[2]);
+            loop = current;
+        }
+        return current;
+    }
+
+    private boolean hasFilter() {
+        for (boolean map : mapping) {
+            if (!map) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 同DoubleStream.sum(), Kahan补偿求和, 有无穷大时以普通求和为准
+     */
+    public double sum() {
+        return loop().sum(array, from, to);
+    }
+
+    /**
+     * 没有filter时直接返回数据源大小, 不执行map
+     */
+    public long count() {
+        return hasFilter() ? loop().count(array, from, to) : (long) to - from;
+    }
+
+    public OptionalDouble min() {
+        return loop().min(array, from, to);
+    }
+
+    public OptionalDouble max() {
+        return loop().max(array, from, to);
+    }
+
+    /**
+     * 平均值, 同DoubleStream.average(), 求和方式同sum()
+     */
+    public OptionalDouble average() {
+        return loop().average(array, from, to);
+    }
+
+    public double reduce(double identity, DoubleBinaryOperator op) {
+        return loop().reduce(array, from, to, identity, Objects.requireNonNull(op));
+    }
+
+    public boolean anyMatch(DoublePredicate predicate) {
+        return loop().anyMatch(array, from, to, Objects.requireNonNull(predicate));
+    }
+
+    public boolean allMatch(DoublePredicate predicate) {
+        return !anyMatch(predicate.negate());
+    }
+
+    public boolean noneMatch(DoublePredicate predicate) {
+        return !anyMatch(predicate);
+    }
+
+    public void forEach(DoubleConsumer action) {
+        loop().forEach(array, from, to, Objects.requireNonNull(action));
+    }
+
+    public double[] toArray() {
+        return loop().toArray(array, from, to, !hasFilter());
+    }
+
+    /**
+     * 终结操作的循环, 由FusedDoubleLoop实现; 复制出的循环类在另一个类加载器中, 只能通过public接口访问
+     */
+    public interface Loop {
+
+        double sum(double[] array, int from, int to);
+
+        long count(double[] array, int from, int to);
+
+        OptionalDouble min(double[] array, int from, int to);
+
+        OptionalDouble max(double[] array, int from, int to);
+
+        OptionalDouble average(double[] array, int from, int to);
+
+        double reduce(double[] array, int from, int to, double identity, DoubleBinaryOperator op);
+
+        boolean anyMatch(double[] array, int from, int to, DoublePredicate match);
+
+        void forEach(double[] array, int from, int to, DoubleConsumer action);
+
+        /**
+         * @param exact 结果个数是否等于数据源大小
+         */
+        double[] toArray(double[] array, int from, int to, boolean exact);
+    }
+}
@@ -1,8 +1,8 @@
 package com.example.stream.common;
 
-import lombok.AllArgsConstructor;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.ToString;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -10,17 +10,30 @@ import java.util.Objects;
 import java.util.UUID;
 
 /**
+ * 员工, 不可变
+ * 哈希值在构造时计算好, 放入HashMap/HashSet, groupingBy, toMap, distinct时不再重复计算, 也不分配可变参数数组;
+ * 构造时不登记姓名, 需要共享姓名实例时由数据的持有者维护NameDictionary(如EmployeeTable),
+ * 同一个字典取出的员工姓名是同一个String, equals比较引用即可返回, 其他情况按String.equals比较
+ * <p>
+ * equals/hashCode只比较姓名: 先比较构造时缓存的哈希值, 相同时再按String.equals比较姓名; 需要按其他字段判断相同时使用key(Identity)得到的EmployeeKey
+ * 需要修改字段时使用withName/withAge/withSalary生成新对象
+ *
  * @Auther: Akang
  * @Date: 2019/1/5 15:21
  * @Description:
  */
-@Data
-@NoArgsConstructor
-@AllArgsConstructor
+@Getter
+@ToString(exclude = "hash")
 public class Employee {
-    private String name;
-    private Integer age;
-    private Double salary;
+    private final String name;
+    private final Integer age;
+    private final Double salary;
+
+    /**
+     * 预先计算的哈希值
+     */
+    @Getter(AccessLevel.NONE)
+    private final int hash;
 
     /**
      * 数据列表
@@ -36,6 +49,17 @@ public class Employee {
         add(new Employee("李九", 55, 8000D));
     }};
 
+    public Employee() {
+        this(null, null, null);
+    }
+
+    public Employee(String name, Integer age, Double salary) {
+        this.name = name;
+        this.age = age;
+        this.salary = salary;
+        this.hash = name == null ? 0 : name.hashCode();
+    }
+
     /**
      * 静态方法, 生成唯一字符串
      */
@@ -43,8 +67,27 @@ public class Employee {
         return UUID.randomUUID().toString();
     }
 
+    public Employee withName(String name) {
+        return new Employee(name, getAge(), getSalary());
+    }
+
+    public Employee withAge(Integer age) {
+        return new Employee(getName(), age, getSalary());
+    }
+
+    public Employee withSalary(Double salary) {
+        return new Employee(getName(), getAge(), salary);
+    }
+
     /**
-     * 重写equals, 姓名相同认为对象相同
+     * 按identity指定字段的身份键
+     */
+    public EmployeeKey key(EmployeeKey.Identity identity) {
+        return EmployeeKey.of(this, identity);
+    }
+
+    /**
+     * 重写equals, 姓名相同认为对象相同, 先比较预先计算的哈希值, 姓名为同一个实例时不再逐字符比较
      */
     @Override
     public boolean equals(Object o) {
@@ -54,15 +97,12 @@ public class Employee {
         if (o == null || getClass() != o.getClass()) {
             return false;
         }
-        if (!super.equals(o)) {
-            return false;
-        }
         Employee employee = (Employee) o;
-        return Objects.equals(name, employee.name);
+        return hash == employee.hash && Objects.equals(name, employee.name);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(super.hashCode(), name, age, salary);
+        return hash;
     }
 }
@@ -0,0 +1,435 @@
+package com.example.stream.common;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 定长二进制员工文件
+ * 员工数据一次写入文件, 之后通过MappedByteBuffer内存映射读取, 数据位于堆外(操作系统页缓存), 数据量不受-Xmx限制, 读取时无需反序列化
+ * <p>
+ * 文件格式(小端序):
+ * 文件头16字节: magic(int) version(short) recordSize(short) count(long)
+ * 每条记录48字节: salary(double) age(int) nameLength(short) name(UTF-8, 最多34字节)
+ * <p>
+ * 记录定长, 第i条记录的位置可直接计算, 因此Spliterator按记录边界二分拆分, parallel()可以充分利用多核
+ * 单个MappedByteBuffer最大2GB, 文件按段映射, 每段包含整数条记录
+ *
+ * @Auther: Akang
+ * @Date: 2026/10/18 11:05
+ * @Description:
+ */
+public class EmployeeFile {
+
+    private static final int MAGIC = 0x454D5031;
+    private static final short VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+
+    /**
+     * 单条记录字节数
+     */
+    public static final int RECORD_SIZE = 48;
+
+    private static final int SALARY_OFFSET = 0;
+    private static final int AGE_OFFSET = 8;
+    private static final int NAME_LENGTH_OFFSET = 12;
+    private static final int NAME_OFFSET = 14;
+
+    /**
+     * 姓名UTF-8编码后的最大字节数
+     */
+    public static final int MAX_NAME_BYTES = RECORD_SIZE - NAME_OFFSET;
+
+    /**
+     * 每个映射段包含的记录数, 保证单段不超过Integer.MAX_VALUE字节
+     */
+    private static final long SEGMENT_RECORDS = Integer.MAX_VALUE / RECORD_SIZE;
+
+    /**
+     * 写文件时的缓冲记录数
+     */
+    private static final int WRITE_BATCH_RECORDS = 1024;
+
+    private final Path path;
+    private final long count;
+    private final MappedByteBuffer[] segments;
+
+    private EmployeeFile(Path path, long count, MappedByteBuffer[] segments) {
+        this.path = path;
+        this.count = count;
+        this.segments = segments;
+    }
+
+    /**
+     * 将员工写入文件, 文件已存在则覆盖
+     *
+     * @param path      文件路径
+     * @param employees 员工
+     * @return 写入的记录数
+     */
+    public static long write(Path path, Iterable<Employee> employees) throws IOException {
+        return write(path, employees.iterator());
+    }
+
+    /**
+     * 将流中的员工写入文件, 文件已存在则覆盖
+     *
+     * @param path      文件路径
+     * @param employees 员工流
+     * @return 写入的记录数
+     */
+    public static long write(Path path, Stream<Employee> employees) throws IOException {
+        return write(path, employees.iterator());
+    }
+
+    /**
+     * 将员工写入文件, 文件已存在则覆盖
+     *
+     * @param path      文件路径
+     * @param employees 员工迭代器
+     * @return 写入的记录数
+     */
+    public static long write(Path path, Iterator<Employee> employees) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(RECORD_SIZE * WRITE_BATCH_RECORDS).order(ByteOrder.LITTLE_ENDIAN);
+            // 先写入count为0的文件头, 写完记录后回填
+            writeHeader(channel, buffer, 0L);
+            long count = 0L;
+            while (employees.hasNext()) {
+                if (!buffer.hasRemaining()) {
+                    flush(channel, buffer);
+                }
+                writeRecord(buffer, employees.next());
+                count++;
+            }
+            flush(channel, buffer);
+            channel.position(0L);
+            writeHeader(channel, buffer, count);
+            return count;
+        }
+    }
+
+    private static void writeHeader(FileChannel channel, ByteBuffer buffer, long count) throws IOException {
+        buffer.putInt(MAGIC).putShort(VERSION).putShort((short) RECORD_SIZE).putLong(count);
+        flush(channel, buffer);
+    }
+
+    private static void writeRecord(ByteBuffer buffer, Employee employee) {
+        String name = employee.getName();
+        Integer age = employee.getAge();
+        Double salary = employee.getSalary();
+        if (name == null || age == null || salary == null) {
+            throw new IllegalArgumentException("Employee fields must not be null: " + employee);
+        }
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        if (nameBytes.length > MAX_NAME_BYTES) {
+            throw new IllegalArgumentException("Employee name exceeds " + MAX_NAME_BYTES + " UTF-8 bytes: " + name);
+        }
+        int start = buffer.position();
+        buffer.putDouble(salary).putInt(age).putShort((short) nameBytes.length).put(nameBytes);
+        // 记录定长, 未用完的姓名字节补0
+        while (buffer.position() < start + RECORD_SIZE) {
+            buffer.put((byte) 0);
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * 以只读方式内存映射员工文件
+     * 映射完成后即关闭文件通道, 映射区域在MappedByteBuffer被回收前一直有效
+     *
+     * @param path 文件路径
+     * @return 员工文件
+     */
+    public static EmployeeFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    throw new IOException("Truncated employee file header: " + path);
+                }
+            }
+            header.flip();
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not an employee file: " + path);
+            }
+            short version = header.getShort();
+            short recordSize = header.getShort();
+            if (version != VERSION || recordSize != RECORD_SIZE) {
+                throw new IOException("Unsupported employee file version " + version + " with record size " + recordSize + ": " + path);
+            }
+            long count = header.getLong();
+            if (count < 0L) {
+                throw new IOException("Corrupt employee file header, record count " + count + ": " + path);
+            }
+            // 用除法比较, count * RECORD_SIZE可能溢出
+            if (count > (channel.size() - HEADER_SIZE) / RECORD_SIZE) {
+                throw new IOException("Truncated employee file, expected " + count + " records: " + path);
+            }
+            int segmentCount = (int) ((count + SEGMENT_RECORDS - 1) / SEGMENT_RECORDS);
+            MappedByteBuffer[] segments = new MappedByteBuffer[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                long first = i * SEGMENT_RECORDS;
+                long records = Math.min(SEGMENT_RECORDS, count - first);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + first * RECORD_SIZE, records * RECORD_SIZE);
+                segments[i].order(ByteOrder.LITTLE_ENDIAN);
+            }
+            return new EmployeeFile(path, count, segments);
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * 记录数
+     */
+    public long size() {
+        return count;
+    }
+
+    /**
+     * 读取第index条记录并生成Employee对象
+     */
+    public Employee get(long index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + count);
+        }
+        return readEmployee(index, new byte[MAX_NAME_BYTES]);
+    }
+
+    /**
+     * 第index条记录的薪资, 直接从映射内存读取, 不创建对象
+     */
+    public double salaryAt(long index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + count);
+        }
+        return readSalary(index);
+    }
+
+    /**
+     * 第index条记录的年龄, 直接从映射内存读取, 不创建对象
+     */
+    public int ageAt(long index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + count);
+        }
+        return readAge(index);
+    }
+
+    /**
+     * 员工构成的顺序流, 每条记录生成一个新的Employee对象
+     */
+    public Stream<Employee> stream() {
+        return StreamSupport.stream(new EmployeeSpliterator(0L, count), false);
+    }
+
+    /**
+     * 员工构成的并行流, 按记录边界拆分
+     */
+    public Stream<Employee> parallelStream() {
+        return StreamSupport.stream(new EmployeeSpliterator(0L, count), true);
+    }
+
+    /**
+     * 薪资构成的DoubleStream, 直接读取映射内存, 遍历过程不创建对象
+     */
+    public DoubleStream salaries() {
+        return StreamSupport.doubleStream(new SalarySpliterator(0L, count), false);
+    }
+
+    /**
+     * 年龄构成的IntStream, 直接读取映射内存, 遍历过程不创建对象
+     */
+    public IntStream ages() {
+        return StreamSupport.intStream(new AgeSpliterator(0L, count), false);
+    }
+
+    private ByteBuffer segment(long index) {
+        return segments[(int) (index / SEGMENT_RECORDS)];
+    }
+
+    private int offset(long index) {
+        return (int) (index % SEGMENT_RECORDS) * RECORD_SIZE;
+    }
+
+    /**
+     * 绝对位置读取不修改ByteBuffer的position, 多个Spliterator可以并发读取同一个映射段
+     */
+    private double readSalary(long index) {
+        return segment(index).getDouble(offset(index) + SALARY_OFFSET);
+    }
+
+    private int readAge(long index) {
+        return segment(index).getInt(offset(index) + AGE_OFFSET);
+    }
+
+    private Employee readEmployee(long index, byte[] nameBuffer) {
+        ByteBuffer segment = segment(index);
+        int offset = offset(index);
+        int nameLength = segment.getShort(offset + NAME_LENGTH_OFFSET);
+        if (nameLength < 0 || nameLength > MAX_NAME_BYTES) {
+            throw new UncheckedIOException(new IOException(
+                    "Corrupt employee record " + index + ", name length " + nameLength + ": " + path));
+        }
+        for (int i = 0; i < nameLength; i++) {
+            nameBuffer[i] = segment.get(offset + NAME_OFFSET + i);
+        }
+        return new Employee(new String(nameBuffer, 0, nameLength, StandardCharsets.UTF_8),
+                segment.getInt(offset + AGE_OFFSET), segment.getDouble(offset + SALARY_OFFSET));
+    }
+
+    /**
+     * 按记录区间[index, fence)遍历的Spliterator基类, 二分拆分
+     */
+    private abstract static class RecordSpliterator<T extends Spliterator<?>> {
+
+        long index;
+        final long fence;
+
+        RecordSpliterator(long origin, long fence) {
+            this.index = origin;
+            this.fence = fence;
+        }
+
+        abstract T split(long origin, long fence);
+
+        public T trySplit() {
+            long lo = index, mid = (lo + fence) >>> 1;
+            if (lo >= mid) {
+                return null;
+            }
+            index = mid;
+            return split(lo, mid);
+        }
+
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.NONNULL | Spliterator.IMMUTABLE;
+        }
+    }
+
+    private final class EmployeeSpliterator extends RecordSpliterator<EmployeeSpliterator> implements Spliterator<Employee> {
+
+        private final byte[] nameBuffer = new byte[MAX_NAME_BYTES];
+
+        EmployeeSpliterator(long origin, long fence) {
+            super(origin, fence);
+        }
+
+        @Override
+        EmployeeSpliterator split(long origin, long fence) {
+            return new EmployeeSpliterator(origin, fence);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Employee> action) {
+            Objects.requireNonNull(action);
+            if (index >= fence) {
+                return false;
+            }
+            action.accept(readEmployee(index++, nameBuffer));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Employee> action) {
+            Objects.requireNonNull(action);
+            for (long i = index, hi = fence; i < hi; i++) {
+                action.accept(readEmployee(i, nameBuffer));
+            }
+            index = fence;
+        }
+    }
+
+    private final class SalarySpliterator extends RecordSpliterator<SalarySpliterator> implements Spliterator.OfDouble {
+
+        SalarySpliterator(long origin, long fence) {
+            super(origin, fence);
+        }
+
+        @Override
+        SalarySpliterator split(long origin, long fence) {
+            return new SalarySpliterator(origin, fence);
+        }
+
+        @Override
+        public boolean tryAdvance(DoubleConsumer action) {
+            Objects.requireNonNull(action);
+            if (index >= fence) {
+                return false;
+            }
+            action.accept(readSalary(index++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(DoubleConsumer action) {
+            Objects.requireNonNull(action);
+            for (long i = index, hi = fence; i < hi; i++) {
+                action.accept(readSalary(i));
+            }
+            index = fence;
+        }
+    }
+
+    private final class AgeSpliterator extends RecordSpliterator<AgeSpliterator> implements Spliterator.OfInt {
+
+        AgeSpliterator(long origin, long fence) {
+            super(origin, fence);
+        }
+
+        @Override
+        AgeSpliterator split(long origin, long fence) {
+            return new AgeSpliterator(origin, fence);
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            Objects.requireNonNull(action);
+            if (index >= fence) {
+                return false;
+            }
+            action.accept(readAge(index++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            Objects.requireNonNull(action);
+            for (long i = index, hi = fence; i < hi; i++) {
+                action.accept(readAge(i));
+            }
+            index = fence;
+        }
+    }
+}
@@ -0,0 +1,486 @@
+package com.example.stream.common;
+
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * 员工过滤条件
+ * p1.and(p2).or(p3.negate())组合出的Predicate逐行执行, 每一行都要经过多层lambda的test调用;
+ * EmployeeFilter同样可以组合, 但组合结果是一棵条件树, 交给IndexedEmployeeStore/EmployeeTable的select时按集合整体计算:
+ * <p>
+ * 简单条件(年龄/薪资范围, 姓名相等, 位图索引的键)由索引或列式数组批量得到行号集合(RoaringBitmap压缩位图)
+ * and/or/negate为位图的AND/OR/ANDNOT, 不需要逐行调用test
+ * where(Predicate)包装的任意lambda无法批量计算, 只对其他条件筛选后剩下的候选行逐行执行:
+ * and中后面的条件只检查满足前面条件的行, or中后面的分支只检查尚未满足前面分支的行
+ * <p>
+ * test同Predicate.and/or, 按书写顺序短路, 前面的条件可以作为后面条件的保护(如先判断非null);
+ * 批量计算时只把不会抛出异常的年龄/薪资范围和姓名条件提前, 其余条件保持书写顺序, 每个条件检查的行不会多于按书写顺序时
+ * <p>
+ * EmployeeFilter ageBetween / ageGreaterThan / ageLessThan / salaryBetween / salaryGreaterThan / salaryLessThan / nameEquals; 简单条件
+ * EmployeeFilter keyEquals(Function<? super Employee, ?> classifier, Object key); classifier已通过bitmapIndex注册时使用位图索引
+ * EmployeeFilter where(Predicate<? super Employee> predicate); 任意条件
+ * EmployeeFilter and / or / negate; 组合, 参数为普通Predicate时按where包装
+ * <p>
+ * EmployeeFilter本身也是Predicate<Employee>, 可以直接用于stream.filter(), 逐行的结果与select一致; 年龄/薪资为null的员工不满足范围条件
+ *
+ * @Auther: Akang
+ * @Date: 2026/10/19 02:15
+ * @Description:
+ */
+public abstract class EmployeeFilter implements Predicate<Employee> {
+
+    EmployeeFilter() {
+    }
+
+    /**
+     * 年龄在[min, max]之间
+     */
+    public static EmployeeFilter ageBetween(int min, int max) {
+        return new AgeBetween(min, max);
+    }
+
+    public static EmployeeFilter ageGreaterThan(int age) {
+        return age == Integer.MAX_VALUE ? new AgeBetween(1, 0) : new AgeBetween(age + 1, Integer.MAX_VALUE);
+    }
+
+    public static EmployeeFilter ageLessThan(int age) {
+        return age == Integer.MIN_VALUE ? new AgeBetween(1, 0) : new AgeBetween(Integer.MIN_VALUE, age - 1);
+    }
+
+    /**
+     * 薪资在[min, max]之间
+     */
+    public static EmployeeFilter salaryBetween(double min, double max) {
+        return new SalaryBetween(min, max);
+    }
+
+    public static EmployeeFilter salaryGreaterThan(double salary) {
+        return salary == Double.POSITIVE_INFINITY ? new SalaryBetween(1D, 0D)
+                : new SalaryBetween(Math.nextUp(salary), Double.POSITIVE_INFINITY);
+    }
+
+    public static EmployeeFilter salaryLessThan(double salary) {
+        return salary == Double.NEGATIVE_INFINITY ? new SalaryBetween(1D, 0D)
+                : new SalaryBetween(Double.NEGATIVE_INFINITY, Math.nextDown(salary));
+    }
+
+    public static EmployeeFilter nameEquals(String name) {
+        return new NameEquals(name);
+    }
+
+    /**
+     * classifier(employee)等于key, classifier需为注册位图索引时的同一个对象才能使用索引
+     */
+    public static EmployeeFilter keyEquals(Function<? super Employee, ?> classifier, Object key) {
+        return new KeyEquals(Objects.requireNonNull(classifier), key);
+    }
+
+    /**
+     * 无法批量计算的任意条件
+     */
+    public static EmployeeFilter where(Predicate<? super Employee> predicate) {
+        return predicate instanceof EmployeeFilter ? (EmployeeFilter) predicate : new Where(Objects.requireNonNull(predicate));
+    }
+
+    @Override
+    public EmployeeFilter and(Predicate<? super Employee> other) {
+        return new And(flatten(this, And.class, where(other)));
+    }
+
+    @Override
+    public EmployeeFilter or(Predicate<? super Employee> other) {
+        return new Or(flatten(this, Or.class, where(other)));
+    }
+
+    @Override
+    public EmployeeFilter negate() {
+        return new Not(this);
+    }
+
+    /**
+     * 合并相同类型的相邻组合, a.and(b).and(c)为一个And(a, b, c)
+     */
+    private static List<EmployeeFilter> flatten(EmployeeFilter left, Class<? extends Composite> type, EmployeeFilter right) {
+        List<EmployeeFilter> children = new ArrayList<>();
+        for (EmployeeFilter filter : Arrays.asList(left, right)) {
+            if (filter.getClass() == type) {
+                children.addAll(((Composite) filter).children);
+            } else {
+                children.add(filter);
+            }
+        }
+        return children;
+    }
+
+    /**
+     * 在candidates中计算满足条件的行, 返回新的位图, 不修改candidates
+     */
+    abstract RoaringBitmap evaluate(Source source, RoaringBitmap candidates);
+
+    /**
+     * 是否不会抛出异常, 批量计算时可以提前到书写顺序之前
+     */
+    abstract boolean safe();
+
+    /**
+     * 在全部行中计算满足条件的行
+     */
+    RoaringBitmap evaluate(Source source) {
+        return evaluate(source, source.all());
+    }
+
+    /**
+     * 条件的计算对象, 由IndexedEmployeeStore和EmployeeTable实现
+     * 简单条件的方法返回满足条件的行, 无法由索引回答时返回null, 此时对候选行逐行执行test
+     */
+    interface Source {
+
+        /**
+         * 所有行
+         */
+        RoaringBitmap all();
+
+        RoaringBitmap ageBetween(int min, int max);
+
+        RoaringBitmap salaryBetween(double min, double max);
+
+        RoaringBitmap nameEquals(String name);
+
+        RoaringBitmap keyEquals(Function<? super Employee, ?> classifier, Object key);
+
+        Employee row(int row);
+    }
+
+    /**
+     * 由Source回答的简单条件
+     */
+    private abstract static class Simple extends EmployeeFilter {
+
+        abstract RoaringBitmap lookup(Source source);
+
+        @Override
+        RoaringBitmap evaluate(Source source, RoaringBitmap candidates) {
+            RoaringBitmap rows = lookup(source);
+            return rows == null ? scan(this, source, candidates) : RoaringBitmap.and(rows, candidates);
+        }
+
+        @Override
+        boolean safe() {
+            return true;
+        }
+    }
+
+    /**
+     * 对候选行逐行执行predicate
+     */
+    private static RoaringBitmap scan(Predicate<? super Employee> predicate, Source source, RoaringBitmap candidates) {
+        RoaringBitmap result = new RoaringBitmap();
+        IntIterator iterator = candidates.getIntIterator();
+        while (iterator.hasNext()) {
+            int row = iterator.next();
+            if (predicate.test(source.row(row))) {
+                result.add(row);
+            }
+        }
+        return result;
+    }
+
+    private static final class AgeBetween extends Simple {
+
+        private final int min;
+        private final int max;
+
+        AgeBetween(int min, int max) {
+            this.min = min;
+            this.max = max;
+        }
+
+        @Override
+        public boolean test(Employee employee) {
+            Integer age = employee.getAge();
+            return age != null && age >= min && age <= max;
+        }
+
+        @Override
+        RoaringBitmap lookup(Source source) {
+            return source.ageBetween(min, max);
+        }
+
+        @Override
+        public String toString() {
+            return "age in [" + min + ", " + max + "]";
+        }
+    }
+
+    private static final class SalaryBetween extends Simple {
+
+        private final double min;
+        private final double max;
+
+        SalaryBetween(double min, double max) {
+            this.min = min;
+            this.max = max;
+        }
+
+        @Override
+        public boolean test(Employee employee) {
+            Double salary = employee.getSalary();
+            return salary != null && salary >= min && salary <= max;
+        }
+
+        @Override
+        RoaringBitmap lookup(Source source) {
+            return source.salaryBetween(min, max);
+        }
+
+        @Override
+        public String toString() {
+            return "salary in [" + min + ", " + max + "]";
+        }
+    }
+
+    private static final class NameEquals extends Simple {
+
+        private final String name;
+
+        NameEquals(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public boolean test(Employee employee) {
+            return Objects.equals(employee.getName(), name);
+        }
+
+        @Override
+        RoaringBitmap lookup(Source source) {
+            return source.nameEquals(name);
+        }
+
+        @Override
+        public String toString() {
+            return "name = " + name;
+        }
+    }
+
+    private static final class KeyEquals extends Simple {
+
+        private final Function<? super Employee, ?> classifier;
+        private final Object key;
+
+        KeyEquals(Function<? super Employee, ?> classifier, Object key) {
+            this.classifier = classifier;
+            this.key = key;
+        }
+
+        @Override
+        public boolean test(Employee employee) {
+            return Objects.equals(classifier.apply(employee), key);
+        }
+
+        @Override
+        RoaringBitmap lookup(Source source) {
+            return source.keyEquals(classifier, key);
+        }
+
+        /**
+         * 没有位图索引时逐行执行classifier
+         */
+        @Override
+        boolean safe() {
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            return "key = " + key;
+        }
+    }
+
+    private static final class Where extends EmployeeFilter {
+
+        private final Predicate<? super Employee> predicate;
+
+        Where(Predicate<? super Employee> predicate) {
+            this.predicate = predicate;
+        }
+
+        @Override
+        public boolean test(Employee employee) {
+            return predicate.test(employee);
+        }
+
+        @Override
+        RoaringBitmap evaluate(Source source, RoaringBitmap candidates) {
+            return scan(predicate, source, candidates);
+        }
+
+        @Override
+        boolean safe() {
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            return "where " + predicate;
+        }
+    }
+
+    private abstract static class Composite extends EmployeeFilter {
+
+        /**
+         * 书写顺序, test按此顺序短路
+         */
+        final List<EmployeeFilter> children;
+
+        /**
+         * evaluate的顺序: 不会抛出异常的条件在前, 其余条件保持书写顺序
+         */
+        final List<EmployeeFilter> plan;
+        private final boolean safe;
+
+        Composite(List<EmployeeFilter> children) {
+            List<EmployeeFilter> ordered = new ArrayList<>(children);
+            // 稳定排序
+            ordered.sort((a, b) -> Boolean.compare(b.safe(), a.safe()));
+            this.children = Collections.unmodifiableList(new ArrayList<>(children));
+            this.plan = Collections.unmodifiableList(ordered);
+            this.safe = ordered.get(ordered.size() - 1).safe();
+        }
+
+        @Override
+        boolean safe() {
+            return safe;
+        }
+
+        String toString(String operator) {
+            StringBuilder builder = new StringBuilder("(");
+            for (EmployeeFilter child : children) {
+                if (builder.length() > 1) {
+                    builder.append(operator);
+                }
+                builder.append(child);
+            }
+            return builder.append(')').toString();
+        }
+    }
+
+    private static final class And extends Composite {
+
+        And(List<EmployeeFilter> children) {
+            super(children);
+        }
+
+        @Override
+        public boolean test(Employee employee) {
+            for (EmployeeFilter child : children) {
+                if (!child.test(employee)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * 依次缩小候选行, 后面的条件只在前面条件的结果中计算
+         */
+        @Override
+        RoaringBitmap evaluate(Source source, RoaringBitmap candidates) {
+            RoaringBitmap result = candidates;
+            for (EmployeeFilter child : plan) {
+                if (result.isEmpty()) {
+                    break;
+                }
+                result = child.evaluate(source, result);
+            }
+            return result == candidates ? candidates.clone() : result;
+        }
+
+        @Override
+        public String toString() {
+            return toString(" and ");
+        }
+    }
+
+    private static final class Or extends Composite {
+
+        Or(List<EmployeeFilter> children) {
+            super(children);
+        }
+
+        @Override
+        public boolean test(Employee employee) {
+            for (EmployeeFilter child : children) {
+                if (child.test(employee)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * 每个分支只检查尚未满足其他分支的行
+         */
+        @Override
+        RoaringBitmap evaluate(Source source, RoaringBitmap candidates) {
+            RoaringBitmap result = new RoaringBitmap();
+            RoaringBitmap remaining = candidates;
+            for (EmployeeFilter child : plan) {
+                if (remaining.isEmpty()) {
+                    break;
+                }
+                RoaringBitmap matched = child.evaluate(source, remaining);
+                result.or(matched);
+                remaining = RoaringBitmap.andNot(remaining, matched);
+            }
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return toString(" or ");
+        }
+    }
+
+    private static final class Not extends EmployeeFilter {
+
+        private final EmployeeFilter filter;
+
+        Not(EmployeeFilter filter) {
+            this.filter = filter;
+        }
+
+        @Override
+        public boolean test(Employee employee) {
+            return !filter.test(employee);
+        }
+
+        @Override
+        public EmployeeFilter negate() {
+            return filter;
+        }
+
+        @Override
+        RoaringBitmap evaluate(Source source, RoaringBitmap candidates) {
+            return RoaringBitmap.andNot(candidates, filter.evaluate(source, candidates));
+        }
+
+        @Override
+        boolean safe() {
+            return filter.safe();
+        }
+
+        @Override
+        public String toString() {
+            return "not " + filter;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.stream.common;
+
+import java.util.Objects;
+
+/**
+ * 员工身份键
+ * 按Identity指定的字段判断两个员工是否相同, equals和hashCode基于同样的字段, 哈希值在创建时计算好,
+ * 可以直接作为HashMap/HashSet/groupingBy/toMap的键
+ * <p>
+ * NAME 姓名相同即相同, 同Employee.equals
+ * NAME_AGE 姓名和年龄都相同
+ * NAME_AGE_SALARY 姓名, 年龄和薪资都相同
+ * <p>
+ * EmployeeKey.of(employee, Identity.NAME_AGE); employee.key(Identity.NAME_AGE);
+ *
+ * @Auther: Akang
+ * @Date: 2026/10/18 23:00
+ * @Description:
+ */
+public final class EmployeeKey {
+
+    /**
+     * 身份字段
+     */
+    public enum Identity {
+        NAME, NAME_AGE, NAME_AGE_SALARY
+    }
+
+    private final Identity identity;
+    private final String name;
+    private final Integer age;
+    private final Double salary;
+    private final int hash;
+
+    private EmployeeKey(Identity identity, String name, Integer age, Double salary) {
+        this.identity = identity;
+        this.name = name;
+        this.age = age;
+        this.salary = salary;
+        int h = identity.ordinal() * 31 + Objects.hashCode(name);
+        if (identity != Identity.NAME) {
+            h = h * 31 + Objects.hashCode(age);
+        }
+        if (identity == Identity.NAME_AGE_SALARY) {
+            h = h * 31 + Objects.hashCode(salary);
+        }
+        this.hash = h;
+    }
+
+    /**
+     * employee按identity指定字段的身份键
+     */
+    public static EmployeeKey of(Employee employee, Identity identity) {
+        Objects.requireNonNull(identity);
+        Integer age = identity == Identity.NAME ? null : employee.getAge();
+        Double salary = identity == Identity.NAME_AGE_SALARY ? employee.getSalary() : null;
+        return new EmployeeKey(identity, employee.getName(), age, salary);
+    }
+
+    public Identity getIdentity() {
+        return identity;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * identity为NAME时返回null
+     */
+    public Integer getAge() {
+        return age;
+    }
+
+    /**
+     * identity不为NAME_AGE_SALARY时返回null
+     */
+    public Double getSalary() {
+        return salary;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof EmployeeKey)) {
+            return false;
+        }
+        EmployeeKey key = (EmployeeKey) o;
+        return hash == key.hash
+                && Objects.equals(name, key.name)
+                && identity == key.identity
+                && Objects.equals(age, key.age)
+                && Objects.equals(salary, key.salary);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("EmployeeKey(name=").append(getName());
+        if (identity != Identity.NAME) {
+            sb.append(", age=").append(age);
+        }
+        if (identity == Identity.NAME_AGE_SALARY) {
+            sb.append(", salary=").append(salary);
+        }
+        return sb.append(')').toString();
+    }
+}
@@ -0,0 +1,448 @@
+package com.example.stream.common;
+
+import org.roaringbitmap.RoaringBitmap;
+import org.roaringbitmap.RoaringBitmapWriter;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 列式存储的员工表
+ * 与Employee.EMPLOYEE_LIST逐个对象存储不同, 按列存储员工数据: name字典编码为int[], age存为int[], salary存为double[]
+ * 对age/salary做聚合时直接遍历基本类型数组, 无需逐个对象取值再拆箱, 适合千万级数据的统计
+ * <p>
+ * IntStream ages(); 年龄列构成的IntStream
+ * DoubleStream salaries(); 薪资列构成的DoubleStream
+ * IntStream nameIds(); 姓名字典编号构成的IntStream, 通过name(int nameId)还原姓名
+ * Stream<Employee> stream(); 每行生成新的Employee对象, 兼容原有Stream<Employee>的写法, 元素可以保留(collect, sorted, distinct)
+ * Stream<Row> rows(); 游标视图, 每个Spliterator复用一个Row对象, 只能在当前回调中读取, 不能保留; 只做过滤/聚合时不创建对象
+ * Stream<Employee> select(EmployeeFilter filter); 简单条件直接扫描age/salary/姓名编号列得到位图, 组合条件为位图运算
+ * <p>
+ * 非线程安全: 写入(add)需在读取前完成, 写入完成后可并发读取
+ *
+ * @Auther: Akang
+ * @Date: 2026/10/18 10:12
+ * @Description:
+ */
+public class EmployeeTable {
+
+    /**
+     * 默认初始容量
+     */
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * 姓名字典, 表内的姓名编号, 同名的行共享同一个String
+     */
+    private final NameDictionary dictionary;
+
+    /**
+     * 姓名编号列
+     */
+    private int[] nameIds;
+
+    /**
+     * 年龄列
+     */
+    private int[] ages;
+
+    /**
+     * 薪资列
+     */
+    private double[] salaries;
+
+    /**
+     * 行数
+     */
+    private int size;
+
+    public EmployeeTable() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public EmployeeTable(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Illegal capacity: " + initialCapacity);
+        }
+        this.dictionary = new NameDictionary();
+        this.nameIds = new int[initialCapacity];
+        this.ages = new int[initialCapacity];
+        this.salaries = new double[initialCapacity];
+    }
+
+    /**
+     * 由员工集合构建列式表
+     *
+     * @param employees 员工集合
+     * @return 列式表
+     */
+    public static EmployeeTable of(Collection<Employee> employees) {
+        EmployeeTable table = new EmployeeTable(employees.size());
+        employees.forEach(table::add);
+        return table;
+    }
+
+    /**
+     * 追加一行
+     *
+     * @param employee 员工
+     */
+    public void add(Employee employee) {
+        add(employee.getName(), employee.getAge(), employee.getSalary());
+    }
+
+    /**
+     * 追加一行
+     *
+     * @param name   姓名
+     * @param age    年龄
+     * @param salary 薪资
+     */
+    public void add(String name, int age, double salary) {
+        if (size == ages.length) {
+            int newCapacity = Math.max(DEFAULT_CAPACITY, size + (size >> 1));
+            nameIds = Arrays.copyOf(nameIds, newCapacity);
+            ages = Arrays.copyOf(ages, newCapacity);
+            salaries = Arrays.copyOf(salaries, newCapacity);
+        }
+        nameIds[size] = dictionary.intern(name);
+        ages[size] = age;
+        salaries[size] = salary;
+        size++;
+    }
+
+    /**
+     * 行数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 字典中不同姓名的个数
+     */
+    public int distinctNames() {
+        return dictionary.size();
+    }
+
+    /**
+     * 根据姓名编号获取姓名
+     */
+    public String name(int nameId) {
+        return dictionary.name(nameId);
+    }
+
+    /**
+     * 第row行的姓名编号
+     */
+    public int nameIdAt(int row) {
+        checkRow(row);
+        return nameIds[row];
+    }
+
+    /**
+     * 第row行的姓名
+     */
+    public String nameAt(int row) {
+        checkRow(row);
+        return dictionary.name(nameIds[row]);
+    }
+
+    /**
+     * 第row行的年龄
+     */
+    public int ageAt(int row) {
+        checkRow(row);
+        return ages[row];
+    }
+
+    /**
+     * 第row行的薪资
+     */
+    public double salaryAt(int row) {
+        checkRow(row);
+        return salaries[row];
+    }
+
+    /**
+     * 取出第row行并生成新的Employee对象, 需要保留行数据时使用
+     */
+    public Employee get(int row) {
+        checkRow(row);
+        return new Employee(dictionary.name(nameIds[row]), ages[row], salaries[row]);
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("row: " + row + ", size: " + size);
+        }
+    }
+
+    /**
+     * 年龄列构成的IntStream, 不装箱
+     */
+    public IntStream ages() {
+        return Arrays.stream(ages, 0, size);
+    }
+
+    /**
+     * 薪资列构成的DoubleStream, 不装箱
+     */
+    public DoubleStream salaries() {
+        return Arrays.stream(salaries, 0, size);
+    }
+
+    /**
+     * 姓名编号列构成的IntStream, 不装箱
+     */
+    public IntStream nameIds() {
+        return Arrays.stream(nameIds, 0, size);
+    }
+
+    /**
+     * 薪资统计值, 等价于stream().collect(Collectors.summarizingDouble(Employee::getSalary))
+     */
+    public DoubleSummaryStatistics salaryStatistics() {
+        return salaries().summaryStatistics();
+    }
+
+    /**
+     * 年龄统计值, 等价于stream().collect(Collectors.summarizingInt(Employee::getAge))
+     */
+    public IntSummaryStatistics ageStatistics() {
+        return ages().summaryStatistics();
+    }
+
+    /**
+     * 每行生成新的Employee对象构成的顺序流, 同get(int row)
+     */
+    public Stream<Employee> stream() {
+        return IntStream.range(0, size).mapToObj(this::get);
+    }
+
+    /**
+     * 每行生成新的Employee对象构成的并行流
+     */
+    public Stream<Employee> parallelStream() {
+        return stream().parallel();
+    }
+
+    /**
+     * 游标视图构成的顺序流
+     * 每个Spliterator只持有一个Row对象, 遍历时移动游标而不是创建新对象; 流中的元素只在当前回调中有效,
+     * 下一个元素到来时内容随之改变, 不能被保留: 不能用于collect, sorted, distinct, 或在peek/forEach中保存引用,
+     * 需要保留时先map(Row::toEmployee); 适合filter之后直接mapToInt/mapToDouble聚合
+     */
+    public Stream<Row> rows() {
+        return StreamSupport.stream(new RowSpliterator(0, size), false);
+    }
+
+    /**
+     * 游标视图构成的并行流, 按行号二分拆分, 每个子任务持有自己的Row对象, 限制同rows()
+     */
+    public Stream<Row> parallelRows() {
+        return StreamSupport.stream(new RowSpliterator(0, size), true);
+    }
+
+    /**
+     * 满足filter的行生成的Employee对象, 按行号升序
+     */
+    public Stream<Employee> select(EmployeeFilter filter) {
+        int[] selected = filter.evaluate(new FilterSource()).toArray();
+        return Arrays.stream(selected).mapToObj(this::get);
+    }
+
+    /**
+     * EmployeeFilter的计算对象, 简单条件按列批量扫描, 循环中只有基本类型比较
+     */
+    private final class FilterSource implements EmployeeFilter.Source {
+
+        @Override
+        public RoaringBitmap all() {
+            RoaringBitmap all = new RoaringBitmap();
+            all.add(0L, size);
+            return all;
+        }
+
+        @Override
+        public RoaringBitmap ageBetween(int min, int max) {
+            RoaringBitmapWriter<RoaringBitmap> writer = RoaringBitmapWriter.writer().get();
+            for (int row = 0; row < size; row++) {
+                int age = ages[row];
+                if (age >= min && age <= max) {
+                    writer.add(row);
+                }
+            }
+            return writer.get();
+        }
+
+        @Override
+        public RoaringBitmap salaryBetween(double min, double max) {
+            RoaringBitmapWriter<RoaringBitmap> writer = RoaringBitmapWriter.writer().get();
+            for (int row = 0; row < size; row++) {
+                double salary = salaries[row];
+                if (salary >= min && salary <= max) {
+                    writer.add(row);
+                }
+            }
+            return writer.get();
+        }
+
+        @Override
+        public RoaringBitmap nameEquals(String name) {
+            RoaringBitmapWriter<RoaringBitmap> writer = RoaringBitmapWriter.writer().get();
+            int id = dictionary.idOf(name);
+            if (id >= 0) {
+                for (int row = 0; row < size; row++) {
+                    if (nameIds[row] == id) {
+                        writer.add(row);
+                    }
+                }
+            }
+            return writer.get();
+        }
+
+        /**
+         * 表中没有位图索引, 由EmployeeFilter逐行计算
+         */
+        @Override
+        public RoaringBitmap keyEquals(Function<? super Employee, ?> classifier, Object key) {
+            return null;
+        }
+
+        /**
+         * 每次一个新的行视图, 条件中保留引用也不受影响
+         */
+        @Override
+        public Employee row(int row) {
+            return new Row(row);
+        }
+    }
+
+    /**
+     * 游标视图: 继承Employee的享元对象, getter直接读取游标所在行的列数据; equals/hashCode为对象本身
+     */
+    public final class Row extends Employee {
+
+        private int row;
+
+        private Row(int row) {
+            this.row = row;
+        }
+
+        /**
+         * 当前行号
+         */
+        public int row() {
+            return row;
+        }
+
+        @Override
+        public String getName() {
+            return dictionary.name(nameIds[row]);
+        }
+
+        @Override
+        public Integer getAge() {
+            return ages[row];
+        }
+
+        @Override
+        public Double getSalary() {
+            return salaries[row];
+        }
+
+        /**
+         * 当前行复制为新的Employee对象
+         */
+        public Employee toEmployee() {
+            return get(row);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+
+        @Override
+        public String toString() {
+            return "EmployeeTable.Row(row=" + row + ", name=" + getName() + ", age=" + ages[row] + ", salary=" + salaries[row] + ")";
+        }
+    }
+
+    /**
+     * 按行号区间[index, fence)遍历的Spliterator
+     */
+    private final class RowSpliterator implements Spliterator<Row> {
+
+        private int index;
+        private final int fence;
+        private Row cursor;
+
+        RowSpliterator(int origin, int fence) {
+            this.index = origin;
+            this.fence = fence;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Row> action) {
+            Objects.requireNonNull(action);
+            if (index >= fence) {
+                return false;
+            }
+            action.accept(moveTo(index++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Row> action) {
+            Objects.requireNonNull(action);
+            for (int i = index, hi = fence; i < hi; i++) {
+                action.accept(moveTo(i));
+            }
+            index = fence;
+        }
+
+        private Row moveTo(int row) {
+            if (cursor == null) {
+                cursor = new Row(row);
+            } else {
+                cursor.row = row;
+            }
+            return cursor;
+        }
+
+        @Override
+        public Spliterator<Row> trySplit() {
+            int lo = index, mid = (lo + fence) >>> 1;
+            if (lo >= mid) {
+                return null;
+            }
+            index = mid;
+            return new RowSpliterator(lo, mid);
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        /**
+         * add()可以继续追加行, 不是IMMUTABLE
+         */
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL;
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package com.example.stream.common;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Objects;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 数值键排序
+ * sorted(Comparator.comparing(Employee::getSalary).reversed())每次比较都要调用两次getSalary并拆箱, TimSort在对象引用上移动, 缓存不友好;
+ * FastSort先把每个元素的数值键提取到long[]中(每个元素只提取一次), 键编码为无符号可比较的位串(降序取反),
+ * 在下标排列上做LSD基数排序(每轮按8位分桶, 所有元素该位相同的轮次跳过), 最后按排列重排元素
+ * <p>
+ * SortKey<T> comparingInt(ToIntFunction<? super T> key); int键, 如Employee::getAge
+ * SortKey<T> comparingLong(ToLongFunction<? super T> key); long键
+ * SortKey<T> comparingDouble(ToDoubleFunction<? super T> key); double键, 如Employee::getSalary, 与Double.compare顺序一致
+ * SortKey.reversed() / thenComparingInt / thenComparingLong / thenComparingDouble 与Comparator的同名方法含义相同
+ * <p>
+ * void sort(List<T> list, SortKey<? super T> key); 原地排序, 同list.sort(key.comparator())
+ * Stream<T> sorted(Stream<T> stream, SortKey<? super T> key); 同stream.sorted(key.comparator())
+ * int[] order(List<? extends T> list, SortKey<? super T> key); 排序后的下标排列, 可用于同时重排多个列
+ * <p>
+ * 排序是稳定的, 键相等的元素保持原有顺序; 只有一个int键时把键和下标打包为long后使用Arrays.parallelSort
+ *
+ * @Auther: Akang
+ * @Date: 2026/10/18 21:00
+ * @Description:
+ */
+public final class FastSort {
+
+    private static final int RADIX_BITS = 8;
+    private static final int RADIX = 1 << RADIX_BITS;
+
+    private FastSort() {
+    }
+
+    public static <T> SortKey<T> comparingInt(ToIntFunction<? super T> key) {
+        return new SortKey<T>(Collections.<Column<T>>emptyList()).thenComparingInt(key);
+    }
+
+    public static <T> SortKey<T> comparingLong(ToLongFunction<? super T> key) {
+        return new SortKey<T>(Collections.<Column<T>>emptyList()).thenComparingLong(key);
+    }
+
+    public static <T> SortKey<T> comparingDouble(ToDoubleFunction<? super T> key) {
+        return new SortKey<T>(Collections.<Column<T>>emptyList()).thenComparingDouble(key);
+    }
+
+    /**
+     * 按key原地排序, 同list.sort(key.comparator())
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> void sort(List<T> list, SortKey<? super T> key) {
+        Object[] values = list.toArray();
+        int[] order = order(values, key);
+        ListIterator<T> iterator = list.listIterator();
+        for (int index : order) {
+            iterator.next();
+            iterator.set((T) values[index]);
+        }
+    }
+
+    /**
+     * 按key排序后的流, 同stream.sorted(key.comparator()), 返回的流与stream的并行设置相同
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Stream<T> sorted(Stream<T> stream, SortKey<? super T> key) {
+        Objects.requireNonNull(key);
+        Object[] values = stream.toArray();
+        int[] order = order(values, key);
+        List<T> sorted = new ArrayList<>(values.length);
+        for (int index : order) {
+            sorted.add((T) values[index]);
+        }
+        return StreamSupport.stream(sorted.spliterator(), stream.isParallel()).onClose(stream::close);
+    }
+
+    /**
+     * 按key排序后的下标排列, 即排序结果的第i个元素为list.get(order[i])
+     */
+    public static <T> int[] order(List<? extends T> list, SortKey<? super T> key) {
+        return order(list.toArray(), key);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> int[] order(Object[] values, SortKey<T> key) {
+        Objects.requireNonNull(key);
+        int n = values.length;
+        List<Column<T>> columns = key.columns;
+        if (n <= 1) {
+            return new int[n];
+        }
+        if (columns.size() == 1 && columns.get(0).bits == Integer.SIZE) {
+            return packedOrder((T[]) values, columns.get(0));
+        }
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        int[] orderBuffer = new int[n];
+        long[] keys = new long[n];
+        long[] keyBuffer = new long[n];
+        // LSD: 从最次要的列开始, 每列内部从最低位开始, 每一轮都是稳定的分桶
+        for (int c = columns.size() - 1; c >= 0; c--) {
+            Column<T> column = columns.get(c);
+            for (int i = 0; i < n; i++) {
+                keys[i] = column.encode((T) values[order[i]]);
+            }
+            int passes = column.bits / RADIX_BITS;
+            int[][] counts = histogram(keys, passes);
+            for (int pass = 0; pass < passes; pass++) {
+                int[] count = counts[pass];
+                int shift = pass * RADIX_BITS;
+                if (count[(int) ((keys[0] >>> shift) & (RADIX - 1))] == n) {
+                    // 所有元素在这一位上相同
+                    continue;
+                }
+                for (int b = 0, sum = 0; b < RADIX; b++) {
+                    int c0 = count[b];
+                    count[b] = sum;
+                    sum += c0;
+                }
+                for (int i = 0; i < n; i++) {
+                    int target = count[(int) ((keys[i] >>> shift) & (RADIX - 1))]++;
+                    keyBuffer[target] = keys[i];
+                    orderBuffer[target] = order[i];
+                }
+                long[] k = keys;
+                keys = keyBuffer;
+                keyBuffer = k;
+                int[] o = order;
+                order = orderBuffer;
+                orderBuffer = o;
+            }
+        }
+        return order;
+    }
+
+    /**
+     * 一次遍历统计所有轮次每个桶的元素个数, 与排列顺序无关
+     */
+    private static int[][] histogram(long[] keys, int passes) {
+        int[][] counts = new int[passes][RADIX];
+        for (long key : keys) {
+            for (int pass = 0; pass < passes; pass++) {
+                counts[pass][(int) ((key >>> (pass * RADIX_BITS)) & (RADIX - 1))]++;
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * 高32位为键(翻转符号位使有符号比较等价于无符号比较), 低32位为下标, 下标保证稳定
+     */
+    private static <T> int[] packedOrder(T[] values, Column<T> column) {
+        int n = values.length;
+        long[] packed = new long[n];
+        for (int i = 0; i < n; i++) {
+            packed[i] = ((column.encode(values[i]) ^ 0x8000_0000L) << 32) | i;
+        }
+        Arrays.parallelSort(packed);
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = (int) packed[i];
+        }
+        return order;
+    }
+
+    /**
+     * 由一个或多个数值列组成的排序键, 不可变
+     */
+    public static final class SortKey<T> {
+
+        private final List<Column<T>> columns;
+
+        private SortKey(List<Column<T>> columns) {
+            this.columns = columns;
+        }
+
+        private SortKey<T> then(Column<T> column) {
+            List<Column<T>> list = new ArrayList<>(columns.size() + 1);
+            list.addAll(columns);
+            list.add(column);
+            return new SortKey<>(Collections.unmodifiableList(list));
+        }
+
+        public SortKey<T> thenComparingInt(ToIntFunction<? super T> key) {
+            Objects.requireNonNull(key);
+            return then(new Column<T>(Integer.SIZE, false) {
+                @Override
+                long ascending(T t) {
+                    return (key.applyAsInt(t) ^ Integer.MIN_VALUE) & 0xFFFF_FFFFL;
+                }
+            });
+        }
+
+        public SortKey<T> thenComparingLong(ToLongFunction<? super T> key) {
+            Objects.requireNonNull(key);
+            return then(new Column<T>(Long.SIZE, false) {
+                @Override
+                long ascending(T t) {
+                    return key.applyAsLong(t) ^ Long.MIN_VALUE;
+                }
+            });
+        }
+
+        public SortKey<T> thenComparingDouble(ToDoubleFunction<? super T> key) {
+            Objects.requireNonNull(key);
+            return then(new Column<T>(Long.SIZE, false) {
+                @Override
+                long ascending(T t) {
+                    // 与Double.compare一致: -0.0 < 0.0, NaN最大; 负数取反全部位, 非负数只翻转符号位
+                    long bits = Double.doubleToLongBits(key.applyAsDouble(t));
+                    return bits ^ ((bits >> 63) | Long.MIN_VALUE);
+                }
+            });
+        }
+
+        /**
+         * 所有列反序, 同Comparator.reversed()
+         */
+        public SortKey<T> reversed() {
+            List<Column<T>> list = new ArrayList<>(columns.size());
+            for (Column<T> column : columns) {
+                list.add(column.reversed());
+            }
+            return new SortKey<>(Collections.unmodifiableList(list));
+        }
+
+        /**
+         * 与本排序键顺序相同的比较器
+         */
+        public Comparator<T> comparator() {
+            return (a, b) -> {
+                for (Column<T> column : columns) {
+                    int c = Long.compareUnsigned(column.encode(a), column.encode(b));
+                    if (c != 0) {
+                        return c;
+                    }
+                }
+                return 0;
+            };
+        }
+    }
+
+    /**
+     * 一个数值列, 编码为bits位的无符号可比较位串
+     */
+    private abstract static class Column<T> {
+
+        final int bits;
+        final boolean descending;
+
+        Column(int bits, boolean descending) {
+            this.bits = bits;
+            this.descending = descending;
+        }
+
+        /**
+         * 升序编码
+         */
+        abstract long ascending(T t);
+
+        long encode(T t) {
+            long key = ascending(t);
+            return descending ? ~key & mask() : key;
+        }
+
+        private long mask() {
+            return bits == Long.SIZE ? -1L : (1L << bits) - 1;
+        }
+
+        Column<T> reversed() {
+            Column<T> self = this;
+            return new Column<T>(bits, !descending) {
+                @Override
+                long ascending(T t) {
+                    return self.ascending(t);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,356 @@
+package com.example.stream.common;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 基于内存映射的文件行/单词流
+ * Files.readAllBytes需要把整个文件读入堆中, Files.lines的Spliterator不知道行边界, 并行时拆分效果差;
+ * FileStreams按字节区间内存映射文件, 拆分时从区间中点向后找到换行符作为拆分点, 每个子任务只映射自己负责的区间, parallel()可以充分利用多核
+ * <p>
+ * Stream<String> lines(Path path); 文件中所有行构成的流, 以'\n'或"\r\n"分行
+ * Stream<String> words(Path path); 文件中所有单词构成的流, 以非字母分割, 等价于Pattern.compile("\\PL+").splitAsStream但不产生空字符串
+ * <p>
+ * 返回的流持有打开的文件通道, 需要在try-with-resources中使用或调用close()
+ *
+ * @Auther: Akang
+ * @Date: 2026/10/18 14:20
+ * @Description:
+ */
+public final class FileStreams {
+
+    /**
+     * 每次映射的最大字节数
+     */
+    private static final long WINDOW_SIZE = 64L << 20;
+
+    /**
+     * 小于该字节数的区间不再拆分
+     */
+    private static final long MIN_SPLIT_SIZE = 1L << 16;
+
+    /**
+     * 查找拆分点时每次读取的字节数
+     */
+    private static final int PROBE_SIZE = 8192;
+
+    private static final byte LF = '\n';
+    private static final byte CR = '\r';
+
+    private FileStreams() {
+    }
+
+    /**
+     * 以UTF-8编码返回文件中所有行构成的流
+     *
+     * @param path 文件路径
+     */
+    public static Stream<String> lines(Path path) throws IOException {
+        return lines(path, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 以cs编码返回文件中所有行构成的流
+     * cs中换行符必须编码为单字节'\n'(UTF-8, GBK, ISO-8859-1等), 否则无法按字节查找行边界
+     *
+     * @param path 文件路径
+     * @param cs   文件编码
+     */
+    public static Stream<String> lines(Path path, Charset cs) throws IOException {
+        checkCharset(cs);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            LineSpliterator lines = new LineSpliterator(channel, cs, 0L, channel.size());
+            return StreamSupport.stream(lines, false).onClose(() -> closeChannel(channel));
+        } catch (IOException | RuntimeException e) {
+            closeChannel(channel);
+            throw e;
+        }
+    }
+
+    /**
+     * 以UTF-8编码返回文件中所有单词构成的流
+     *
+     * @param path 文件路径
+     */
+    public static Stream<String> words(Path path) throws IOException {
+        return words(path, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 以cs编码返回文件中所有单词构成的流, 单词即连续的字母(Character.isLetter), 逐个码点扫描, 没有正则回溯
+     *
+     * @param path 文件路径
+     * @param cs   文件编码, 要求同lines(Path, Charset)
+     */
+    public static Stream<String> words(Path path, Charset cs) throws IOException {
+        checkCharset(cs);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            WordSpliterator words = new WordSpliterator(new LineSpliterator(channel, cs, 0L, channel.size()));
+            return StreamSupport.stream(words, false).onClose(() -> closeChannel(channel));
+        } catch (IOException | RuntimeException e) {
+            closeChannel(channel);
+            throw e;
+        }
+    }
+
+    private static void checkCharset(Charset cs) {
+        Objects.requireNonNull(cs);
+        if (!Arrays.equals("\n".getBytes(cs), new byte[]{LF})) {
+            throw new IllegalArgumentException("Line feed is not a single byte in charset " + cs);
+        }
+    }
+
+    private static void closeChannel(FileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 按字节区间[position, end)遍历行的Spliterator, 区间起点总是行首
+     */
+    private static final class LineSpliterator implements Spliterator<String> {
+
+        private final FileChannel channel;
+        private final Charset cs;
+        private long position;
+        private long end;
+
+        /**
+         * 当前映射窗口及其覆盖的字节区间[windowStart, windowEnd)
+         */
+        private MappedByteBuffer window;
+        private long windowStart;
+        private long windowEnd;
+
+        /**
+         * 当前行的字节缓冲, 行可能跨越两个映射窗口
+         */
+        private byte[] lineBuffer = new byte[256];
+
+        LineSpliterator(FileChannel channel, Charset cs, long position, long end) {
+            this.channel = channel;
+            this.cs = cs;
+            this.position = position;
+            this.end = end;
+        }
+
+        /**
+         * 读取下一行, 没有剩余行时返回null
+         */
+        String readLine() {
+            if (position >= end) {
+                return null;
+            }
+            int length = 0;
+            while (position < end) {
+                byte b = byteAt(position++);
+                if (b == LF) {
+                    break;
+                }
+                if (length == lineBuffer.length) {
+                    lineBuffer = Arrays.copyOf(lineBuffer, length << 1);
+                }
+                lineBuffer[length++] = b;
+            }
+            if (length > 0 && lineBuffer[length - 1] == CR) {
+                length--;
+            }
+            return new String(lineBuffer, 0, length, cs);
+        }
+
+        private byte byteAt(long index) {
+            if (index < windowStart || index >= windowEnd) {
+                long size = Math.min(WINDOW_SIZE, end - index);
+                try {
+                    window = channel.map(FileChannel.MapMode.READ_ONLY, index, size);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                windowStart = index;
+                windowEnd = index + size;
+            }
+            return window.get((int) (index - windowStart));
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super String> action) {
+            Objects.requireNonNull(action);
+            String line = readLine();
+            if (line == null) {
+                return false;
+            }
+            action.accept(line);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super String> action) {
+            Objects.requireNonNull(action);
+            String line;
+            while ((line = readLine()) != null) {
+                action.accept(line);
+            }
+        }
+
+        /**
+         * 从区间中点向后查找换行符, 换行符之后即为拆分点, 前半部分交给新的Spliterator
+         */
+        @Override
+        public LineSpliterator trySplit() {
+            long remaining = end - position;
+            if (remaining < MIN_SPLIT_SIZE << 1) {
+                return null;
+            }
+            long split = nextLineStart(position + (remaining >>> 1));
+            if (split <= position || split >= end) {
+                return null;
+            }
+            LineSpliterator prefix = new LineSpliterator(channel, cs, position, split);
+            position = split;
+            return prefix;
+        }
+
+        /**
+         * 使用按位置读取查找from之后的第一个行首, 不改变当前映射窗口, 找不到时返回-1
+         */
+        private long nextLineStart(long from) {
+            ByteBuffer probe = ByteBuffer.allocate(PROBE_SIZE);
+            try {
+                for (long offset = from; offset < end; ) {
+                    probe.clear();
+                    probe.limit((int) Math.min(PROBE_SIZE, end - offset));
+                    int read = channel.read(probe, offset);
+                    if (read <= 0) {
+                        return -1L;
+                    }
+                    for (int i = 0; i < read; i++) {
+                        if (probe.get(i) == LF) {
+                            return offset + i + 1;
+                        }
+                    }
+                    offset += read;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return -1L;
+        }
+
+        /**
+         * 剩余字节数, 作为剩余行数的上界估计
+         */
+        @Override
+        public long estimateSize() {
+            return end - position;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL | IMMUTABLE;
+        }
+    }
+
+    /**
+     * 在行的基础上切分单词的Spliterator, 只在行边界处拆分
+     */
+    private static final class WordSpliterator implements Spliterator<String> {
+
+        private final LineSpliterator lines;
+        private String line;
+        private int cursor;
+
+        WordSpliterator(LineSpliterator lines) {
+            this.lines = lines;
+        }
+
+        /**
+         * 读取下一个单词, 没有剩余单词时返回null
+         */
+        private String nextWord() {
+            while (true) {
+                if (line == null) {
+                    line = lines.readLine();
+                    cursor = 0;
+                    if (line == null) {
+                        return null;
+                    }
+                }
+                int length = line.length();
+                int start = cursor;
+                while (start < length && !Character.isLetter(line.codePointAt(start))) {
+                    start += Character.charCount(line.codePointAt(start));
+                }
+                if (start >= length) {
+                    line = null;
+                    continue;
+                }
+                int stop = start;
+                while (stop < length && Character.isLetter(line.codePointAt(stop))) {
+                    stop += Character.charCount(line.codePointAt(stop));
+                }
+                cursor = stop;
+                return line.substring(start, stop);
+            }
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super String> action) {
+            Objects.requireNonNull(action);
+            String word = nextWord();
+            if (word == null) {
+                return false;
+            }
+            action.accept(word);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super String> action) {
+            Objects.requireNonNull(action);
+            String word;
+            while ((word = nextWord()) != null) {
+                action.accept(word);
+            }
+        }
+
+        /**
+         * 当前行尚未处理完时不拆分, 否则前半部分的单词会排在当前行剩余单词之前
+         */
+        @Override
+        public Spliterator<String> trySplit() {
+            if (line != null) {
+                return null;
+            }
+            LineSpliterator prefix = lines.trySplit();
+            return prefix == null ? null : new WordSpliterator(prefix);
+        }
+
+        @Override
+        public long estimateSize() {
+            return lines.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL | IMMUTABLE;
+        }
+    }
+}
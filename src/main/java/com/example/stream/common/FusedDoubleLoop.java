@@ -0,0 +1,226 @@
+package com.example.stream.common;
+
+import java.util.Arrays;
+import java.util.OptionalDouble;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleConsumer;
+import java.util.function.DoublePredicate;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * DoublePipe的终结操作循环, 每个元素依次执行before, predicate, after, 没有其他间接调用
+ * DoublePipe.compile()在独立的类加载器中复制本类, 复制出的类只服务一条流水线, 循环中的调用点只见过一种lambda, 可以被JIT内联;
+ * 复制出的类与DoublePipe不在同一个运行时包中, 只能访问public成员, 因此本类只依赖JDK的public类型和DoublePipe.Loop
+ * <p>
+ * 嵌套的Compose, And, MapThenTest是合成相邻阶段用的函数, compile()时同样每个实例复制一个类, 内部的调用点不与其他流水线共用
+ *
+ * @Auther: Akang
+ * @Date: 2026/10/19 01:40
+ * @Description:
+ */
+final class FusedDoubleLoop implements DoublePipe.Loop {
+
+    private final DoubleUnaryOperator before;
+    private final DoublePredicate predicate;
+    private final DoubleUnaryOperator after;
+
+    public FusedDoubleLoop(DoubleUnaryOperator before, DoublePredicate predicate, DoubleUnaryOperator after) {
+        this.before = before;
+        this.predicate = predicate;
+        this.after = after;
+    }
+
+    @Override
+    public double sum(double[] array, int from, int to) {
+        // Kahan补偿求和, 同时保留普通求和
+        double sum = 0D;
+        double compensation = 0D;
+        double simpleSum = 0D;
+        for (int i = from; i < to; i++) {
+            double v = before.applyAsDouble(array[i]);
+            if (predicate.test(v)) {
+                double value = after.applyAsDouble(v);
+                simpleSum += value;
+                double y = value - compensation;
+                double t = sum + y;
+                compensation = (t - sum) - y;
+                sum = t;
+            }
+        }
+        return finalSum(sum - compensation, simpleSum);
+    }
+
+    /**
+     * 输入或部分和为无穷大时补偿项为NaN, 此时以普通求和为准, 同Collectors.computeFinalSum
+     */
+    private static double finalSum(double compensated, double simpleSum) {
+        return Double.isNaN(compensated) && Double.isInfinite(simpleSum) ? simpleSum : compensated;
+    }
+
+    @Override
+    public long count(double[] array, int from, int to) {
+        long count = 0L;
+        for (int i = from; i < to; i++) {
+            if (predicate.test(before.applyAsDouble(array[i]))) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public OptionalDouble min(double[] array, int from, int to) {
+        boolean found = false;
+        double min = Double.POSITIVE_INFINITY;
+        for (int i = from; i < to; i++) {
+            double v = before.applyAsDouble(array[i]);
+            if (predicate.test(v)) {
+                found = true;
+                min = Math.min(min, after.applyAsDouble(v));
+            }
+        }
+        return found ? OptionalDouble.of(min) : OptionalDouble.empty();
+    }
+
+    @Override
+    public OptionalDouble max(double[] array, int from, int to) {
+        boolean found = false;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = from; i < to; i++) {
+            double v = before.applyAsDouble(array[i]);
+            if (predicate.test(v)) {
+                found = true;
+                max = Math.max(max, after.applyAsDouble(v));
+            }
+        }
+        return found ? OptionalDouble.of(max) : OptionalDouble.empty();
+    }
+
+    @Override
+    public OptionalDouble average(double[] array, int from, int to) {
+        long count = 0L;
+        double sum = 0D;
+        double compensation = 0D;
+        double simpleSum = 0D;
+        for (int i = from; i < to; i++) {
+            double v = before.applyAsDouble(array[i]);
+            if (predicate.test(v)) {
+                count++;
+                double value = after.applyAsDouble(v);
+                simpleSum += value;
+                double y = value - compensation;
+                double t = sum + y;
+                compensation = (t - sum) - y;
+                sum = t;
+            }
+        }
+        return count > 0 ? OptionalDouble.of(finalSum(sum - compensation, simpleSum) / count) : OptionalDouble.empty();
+    }
+
+    @Override
+    public double reduce(double[] array, int from, int to, double identity, DoubleBinaryOperator op) {
+        double result = identity;
+        for (int i = from; i < to; i++) {
+            double v = before.applyAsDouble(array[i]);
+            if (predicate.test(v)) {
+                result = op.applyAsDouble(result, after.applyAsDouble(v));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean anyMatch(double[] array, int from, int to, DoublePredicate match) {
+        for (int i = from; i < to; i++) {
+            double v = before.applyAsDouble(array[i]);
+            if (predicate.test(v) && match.test(after.applyAsDouble(v))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void forEach(double[] array, int from, int to, DoubleConsumer action) {
+        for (int i = from; i < to; i++) {
+            double v = before.applyAsDouble(array[i]);
+            if (predicate.test(v)) {
+                action.accept(after.applyAsDouble(v));
+            }
+        }
+    }
+
+    @Override
+    public double[] toArray(double[] array, int from, int to, boolean exact) {
+        // 结果个数已知时一次分配, 否则按2倍扩容
+        double[] result = new double[exact ? to - from : Math.min(to - from, 16)];
+        int length = 0;
+        for (int i = from; i < to; i++) {
+            double v = before.applyAsDouble(array[i]);
+            if (predicate.test(v)) {
+                if (length == result.length) {
+                    result = Arrays.copyOf(result, Math.min(to - from, length << 1));
+                }
+                result[length++] = after.applyAsDouble(v);
+            }
+        }
+        return length == result.length ? result : Arrays.copyOf(result, length);
+    }
+
+    /**
+     * 合成的map: second(first(x))
+     */
+    static final class Compose implements DoubleUnaryOperator {
+
+        private final DoubleUnaryOperator first;
+        private final DoubleUnaryOperator second;
+
+        public Compose(DoubleUnaryOperator first, DoubleUnaryOperator second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public double applyAsDouble(double x) {
+            return second.applyAsDouble(first.applyAsDouble(x));
+        }
+    }
+
+    /**
+     * 合成的filter: first(x) && second(x)
+     */
+    static final class And implements DoublePredicate {
+
+        private final DoublePredicate first;
+        private final DoublePredicate second;
+
+        public And(DoublePredicate first, DoublePredicate second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public boolean test(double x) {
+            return first.test(x) && second.test(x);
+        }
+    }
+
+    /**
+     * after之后的filter: predicate(mapper(x))
+     */
+    static final class MapThenTest implements DoublePredicate {
+
+        private final DoubleUnaryOperator mapper;
+        private final DoublePredicate predicate;
+
+        public MapThenTest(DoubleUnaryOperator mapper, DoublePredicate predicate) {
+            this.mapper = mapper;
+            this.predicate = predicate;
+        }
+
+        @Override
+        public boolean test(double x) {
+            return predicate.test(mapper.applyAsDouble(x));
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.stream.common;
+
+import java.util.Arrays;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * IntPipe的终结操作循环, 每个元素依次执行before, predicate, after, 没有其他间接调用
+ * IntPipe.compile()在独立的类加载器中复制本类, 复制出的类只服务一条流水线, 循环中的调用点只见过一种lambda, 可以被JIT内联;
+ * 复制出的类与IntPipe不在同一个运行时包中, 只能访问public成员, 因此本类只依赖JDK的public类型和IntPipe.Loop
+ * <p>
+ * 嵌套的Compose, And, MapThenTest是合成相邻阶段用的函数, compile()时同样每个实例复制一个类, 内部的调用点不与其他流水线共用
+ *
+ * @Auther: Akang
+ * @Date: 2026/10/19 01:25
+ * @Description:
+ */
+final class FusedIntLoop implements IntPipe.Loop {
+
+    private final IntUnaryOperator before;
+    private final IntPredicate predicate;
+    private final IntUnaryOperator after;
+
+    public FusedIntLoop(IntUnaryOperator before, IntPredicate predicate, IntUnaryOperator after) {
+        this.before = before;
+        this.predicate = predicate;
+        this.after = after;
+    }
+
+    @Override
+    public int sum(int[] array, int from, int to) {
+        int sum = 0;
+        for (int i = from; i < to; i++) {
+            int v = before.applyAsInt(array == null ? i : array[i]);
+            if (predicate.test(v)) {
+                sum += after.applyAsInt(v);
+            }
+        }
+        return sum;
+    }
+
+    @Override
+    public long count(int[] array, int from, int to) {
+        long count = 0L;
+        for (int i = from; i < to; i++) {
+            if (predicate.test(before.applyAsInt(array == null ? i : array[i]))) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public OptionalInt min(int[] array, int from, int to) {
+        boolean found = false;
+        int min = Integer.MAX_VALUE;
+        for (int i = from; i < to; i++) {
+            int v = before.applyAsInt(array == null ? i : array[i]);
+            if (predicate.test(v)) {
+                found = true;
+                min = Math.min(min, after.applyAsInt(v));
+            }
+        }
+        return found ? OptionalInt.of(min) : OptionalInt.empty();
+    }
+
+    @Override
+    public OptionalInt max(int[] array, int from, int to) {
+        boolean found = false;
+        int max = Integer.MIN_VALUE;
+        for (int i = from; i < to; i++) {
+            int v = before.applyAsInt(array == null ? i : array[i]);
+            if (predicate.test(v)) {
+                found = true;
+                max = Math.max(max, after.applyAsInt(v));
+            }
+        }
+        return found ? OptionalInt.of(max) : OptionalInt.empty();
+    }
+
+    @Override
+    public OptionalDouble average(int[] array, int from, int to) {
+        long count = 0L;
+        long sum = 0L;
+        for (int i = from; i < to; i++) {
+            int v = before.applyAsInt(array == null ? i : array[i]);
+            if (predicate.test(v)) {
+                count++;
+                sum += after.applyAsInt(v);
+            }
+        }
+        return count > 0 ? OptionalDouble.of((double) sum / count) : OptionalDouble.empty();
+    }
+
+    @Override
+    public int reduce(int[] array, int from, int to, int identity, IntBinaryOperator op) {
+        int result = identity;
+        for (int i = from; i < to; i++) {
+            int v = before.applyAsInt(array == null ? i : array[i]);
+            if (predicate.test(v)) {
+                result = op.applyAsInt(result, after.applyAsInt(v));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean anyMatch(int[] array, int from, int to, IntPredicate match) {
+        for (int i = from; i < to; i++) {
+            int v = before.applyAsInt(array == null ? i : array[i]);
+            if (predicate.test(v) && match.test(after.applyAsInt(v))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void forEach(int[] array, int from, int to, IntConsumer action) {
+        for (int i = from; i < to; i++) {
+            int v = before.applyAsInt(array == null ? i : array[i]);
+            if (predicate.test(v)) {
+                action.accept(after.applyAsInt(v));
+            }
+        }
+    }
+
+    @Override
+    public int[] toArray(int[] array, int from, int to, boolean exact) {
+        // 结果个数已知时一次分配, 否则按2倍扩容
+        int[] result = new int[exact ? to - from : Math.min(to - from, 16)];
+        int length = 0;
+        for (int i = from; i < to; i++) {
+            int v = before.applyAsInt(array == null ? i : array[i]);
+            if (predicate.test(v)) {
+                if (length == result.length) {
+                    result = Arrays.copyOf(result, Math.min(to - from, length << 1));
+                }
+                result[length++] = after.applyAsInt(v);
+            }
+        }
+        return length == result.length ? result : Arrays.copyOf(result, length);
+    }
+
+    /**
+     * 合成的map: second(first(x))
+     */
+    static final class Compose implements IntUnaryOperator {
+
+        private final IntUnaryOperator first;
+        private final IntUnaryOperator second;
+
+        public Compose(IntUnaryOperator first, IntUnaryOperator second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public int applyAsInt(int x) {
+            return second.applyAsInt(first.applyAsInt(x));
+        }
+    }
+
+    /**
+     * 合成的filter: first(x) && second(x)
+     */
+    static final class And implements IntPredicate {
+
+        private final IntPredicate first;
+        private final IntPredicate second;
+
+        public And(IntPredicate first, IntPredicate second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public boolean test(int x) {
+            return first.test(x) && second.test(x);
+        }
+    }
+
+    /**
+     * after之后的filter: predicate(mapper(x))
+     */
+    static final class MapThenTest implements IntPredicate {
+
+        private final IntUnaryOperator mapper;
+        private final IntPredicate predicate;
+
+        public MapThenTest(IntUnaryOperator mapper, IntPredicate predicate) {
+            this.mapper = mapper;
+            this.predicate = predicate;
+        }
+
+        @Override
+        public boolean test(int x) {
+            return predicate.test(mapper.applyAsInt(x));
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.stream.common;
+
+import java.util.Arrays;
+import java.util.OptionalDouble;
+import java.util.OptionalLong;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongConsumer;
+import java.util.function.LongPredicate;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * LongPipe的终结操作循环, 每个元素依次执行before, predicate, after, 没有其他间接调用
+ * LongPipe.compile()在独立的类加载器中复制本类, 复制出的类只服务一条流水线, 循环中的调用点只见过一种lambda, 可以被JIT内联;
+ * 复制出的类与LongPipe不在同一个运行时包中, 只能访问public成员, 因此本类只依赖JDK的public类型和LongPipe.Loop
+ * <p>
+ * 嵌套的Compose, And, MapThenTest是合成相邻阶段用的函数, compile()时同样每个实例复制一个类, 内部的调用点不与其他流水线共用
+ *
+ * @Auther: Akang
+ * @Date: 2026/10/19 01:35
+ * @Description:
+ */
+final class FusedLongLoop implements LongPipe.Loop {
+
+    private final LongUnaryOperator before;
+    private final LongPredicate predicate;
+    private final LongUnaryOperator after;
+
+    public FusedLongLoop(LongUnaryOperator before, LongPredicate predicate, LongUnaryOperator after) {
+        this.before = before;
+        this.predicate = predicate;
+        this.after = after;
+    }
+
+    @Override
+    public long sum(long[] array, long from, long to) {
+        long sum = 0L;
+        for (long i = from; i < to; i++) {
+            long v = before.applyAsLong(array == null ? i : array[(int) i]);
+            if (predicate.test(v)) {
+                sum += after.applyAsLong(v);
+            }
+        }
+        return sum;
+    }
+
+    @Override
+    public long count(long[] array, long from, long to) {
+        long count = 0L;
+        for (long i = from; i < to; i++) {
+            if (predicate.test(before.applyAsLong(array == null ? i : array[(int) i]))) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public OptionalLong min(long[] array, long from, long to) {
+        boolean found = false;
+        long min = Long.MAX_VALUE;
+        for (long i = from; i < to; i++) {
+            long v = before.applyAsLong(array == null ? i : array[(int) i]);
+            if (predicate.test(v)) {
+                found = true;
+                min = Math.min(min, after.applyAsLong(v));
+            }
+        }
+        return found ? OptionalLong.of(min) : OptionalLong.empty();
+    }
+
+    @Override
+    public OptionalLong max(long[] array, long from, long to) {
+        boolean found = false;
+        long max = Long.MIN_VALUE;
+        for (long i = from; i < to; i++) {
+            long v = before.applyAsLong(array == null ? i : array[(int) i]);
+            if (predicate.test(v)) {
+                found = true;
+                max = Math.max(max, after.applyAsLong(v));
+            }
+        }
+        return found ? OptionalLong.of(max) : OptionalLong.empty();
+    }
+
+    @Override
+    public OptionalDouble average(long[] array, long from, long to) {
+        long count = 0L;
+        long sum = 0L;
+        for (long i = from; i < to; i++) {
+            long v = before.applyAsLong(array == null ? i : array[(int) i]);
+            if (predicate.test(v)) {
+                count++;
+                sum += after.applyAsLong(v);
+            }
+        }
+        return count > 0 ? OptionalDouble.of((double) sum / count) : OptionalDouble.empty();
+    }
+
+    @Override
+    public long reduce(long[] array, long from, long to, long identity, LongBinaryOperator op) {
+        long result = identity;
+        for (long i = from; i < to; i++) {
+            long v = before.applyAsLong(array == null ? i : array[(int) i]);
+            if (predicate.test(v)) {
+                result = op.applyAsLong(result, after.applyAsLong(v));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean anyMatch(long[] array, long from, long to, LongPredicate match) {
+        for (long i = from; i < to; i++) {
+            long v = before.applyAsLong(array == null ? i : array[(int) i]);
+            if (predicate.test(v) && match.test(after.applyAsLong(v))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void forEach(long[] array, long from, long to, LongConsumer action) {
+        for (long i = from; i < to; i++) {
+            long v = before.applyAsLong(array == null ? i : array[(int) i]);
+            if (predicate.test(v)) {
+                action.accept(after.applyAsLong(v));
+            }
+        }
+    }
+
+    @Override
+    public long[] toArray(long[] array, long from, long to, boolean exact) {
+        long size = to - from;
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Pipe size exceeds max array size");
+        }
+        int capacity = (int) size;
+        // 结果个数已知时一次分配, 否则按2倍扩容
+        long[] result = new long[exact ? capacity : Math.min(capacity, 16)];
+        int length = 0;
+        for (long i = from; i < to; i++) {
+            long v = before.applyAsLong(array == null ? i : array[(int) i]);
+            if (predicate.test(v)) {
+                if (length == result.length) {
+                    result = Arrays.copyOf(result, Math.min(capacity, length << 1));
+                }
+                result[length++] = after.applyAsLong(v);
+            }
+        }
+        return length == result.length ? result : Arrays.copyOf(result, length);
+    }
+
+    /**
+     * 合成的map: second(first(x))
+     */
+    static final class Compose implements LongUnaryOperator {
+
+        private final LongUnaryOperator first;
+        private final LongUnaryOperator second;
+
+        public Compose(LongUnaryOperator first, LongUnaryOperator second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public long applyAsLong(long x) {
+            return second.applyAsLong(first.applyAsLong(x));
+        }
+    }
+
+    /**
+     * 合成的filter: first(x) && second(x)
+     */
+    static final class And implements LongPredicate {
+
+        private final LongPredicate first;
+        private final LongPredicate second;
+
+        public And(LongPredicate first, LongPredicate second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public boolean test(long x) {
+            return first.test(x) && second.test(x);
+        }
+    }
+
+    /**
+     * after之后的filter: predicate(mapper(x))
+     */
+    static final class MapThenTest implements LongPredicate {
+
+        private final LongUnaryOperator mapper;
+        private final LongPredicate predicate;
+
+        public MapThenTest(LongUnaryOperator mapper, LongPredicate predicate) {
+            this.mapper = mapper;
+            this.predicate = predicate;
+        }
+
+        @Override
+        public boolean test(long x) {
+            return predicate.test(mapper.applyAsLong(x));
+        }
+    }
+}
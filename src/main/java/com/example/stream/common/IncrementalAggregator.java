@@ -0,0 +1,411 @@
+package com.example.stream.common;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Stream;
+
+/**
+ * 增量分组聚合
+ * Collectors.groupingBy(classifier, Collectors.summarizingDouble(mapper))是一次性的终结操作, 数据变化后只能对全量数据重新collect;
+ * IncrementalAggregator按记录id保存每条记录当前所属的分组和值, 每个分组维护计数, 和(Kahan补偿), 以及值的有序多重集合(用于最小/最大值),
+ * NaN和正负无穷大只计数, 不参与求和, 删除后和恢复为剩余值的和,
+ * 新增, 修改(先撤回旧值再加入新值)和删除都只更新受影响的分组, 查询直接读取分组状态, 不重新扫描数据
+ * <p>
+ * void upsert(T t); 新增或修改一条记录
+ * boolean delete(ID id); 删除一条记录
+ * void upsertAll(Stream<? extends T> batch) / upsertAll(Iterator<? extends T> batch); 批量新增或修改,
+ * 先在锁外遍历整批并计算每条记录的id, 分组和值, 全部成功后在一次加锁内写入; 遍历或计算抛出异常时整批都不写入
+ * Statistics get(K key); 分组的统计, 计数, 和, 平均, 最小, 最大
+ * Map<K, Statistics> snapshot(); 所有分组的统计快照, O(分组数)
+ * <p>
+ * 线程安全: 写操作互斥, 查询可以并发
+ *
+ * @Auther: Akang
+ * @Date: 2026/10/18 23:20
+ * @Description:
+ */
+public class IncrementalAggregator<T, ID, K> {
+
+    private final Function<? super T, ? extends ID> idExtractor;
+    private final Function<? super T, ? extends K> classifier;
+    private final ToDoubleFunction<? super T> mapper;
+
+    /**
+     * 记录id -> 记录当前的分组和值, 修改和删除时据此撤回
+     */
+    private final Map<ID, Contribution<K>> contributions = new HashMap<>();
+    private final Map<K, Group> groups = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * @param idExtractor 记录id, 相同id的记录视为同一条记录的新版本
+     * @param classifier  分组条件
+     * @param mapper      被聚合的值
+     */
+    public IncrementalAggregator(Function<? super T, ? extends ID> idExtractor,
+                                 Function<? super T, ? extends K> classifier,
+                                 ToDoubleFunction<? super T> mapper) {
+        this.idExtractor = Objects.requireNonNull(idExtractor);
+        this.classifier = Objects.requireNonNull(classifier);
+        this.mapper = Objects.requireNonNull(mapper);
+    }
+
+    /**
+     * 新增一条记录, id已存在时先撤回旧记录
+     */
+    public void upsert(T t) {
+        Update<ID, K> update = prepare(t);
+        lock.writeLock().lock();
+        try {
+            apply(update);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 批量新增或修改, 整批计算成功后在一次加锁内写入, 查询看不到半批的结果, 中途失败时不写入任何记录
+     */
+    public void upsertAll(Stream<? extends T> batch) {
+        upsertAll(batch.iterator());
+    }
+
+    /**
+     * 批量新增或修改, 整批计算成功后在一次加锁内写入, 查询看不到半批的结果, 中途失败时不写入任何记录
+     */
+    public void upsertAll(Iterator<? extends T> batch) {
+        Objects.requireNonNull(batch);
+        List<Update<ID, K>> updates = new ArrayList<>();
+        while (batch.hasNext()) {
+            updates.add(prepare(batch.next()));
+        }
+        lock.writeLock().lock();
+        try {
+            for (Update<ID, K> update : updates) {
+                apply(update);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 在锁外调用idExtractor, classifier, mapper, 异常在修改任何状态之前抛出
+     */
+    private Update<ID, K> prepare(T t) {
+        ID id = Objects.requireNonNull(idExtractor.apply(t), "element cannot be mapped to a null id");
+        K key = Objects.requireNonNull(classifier.apply(t), "element cannot be mapped to a null key");
+        return new Update<>(id, new Contribution<>(key, mapper.applyAsDouble(t)));
+    }
+
+    private void apply(Update<ID, K> update) {
+        Contribution<K> old = contributions.put(update.id, update.contribution);
+        if (old != null) {
+            retract(old);
+        }
+        groups.computeIfAbsent(update.contribution.key, k -> new Group()).add(update.contribution.value);
+    }
+
+    /**
+     * 删除id对应的记录
+     *
+     * @return 记录存在时返回true
+     */
+    public boolean delete(ID id) {
+        lock.writeLock().lock();
+        try {
+            Contribution<K> old = contributions.remove(id);
+            if (old == null) {
+                return false;
+            }
+            retract(old);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 批量删除, 先在锁外取出所有id, 遍历ids抛出异常时不删除任何记录
+     *
+     * @return 实际删除的记录数
+     */
+    public int deleteAll(Stream<? extends ID> ids) {
+        List<ID> batch = new ArrayList<>();
+        ids.forEachOrdered(batch::add);
+        int deleted = 0;
+        lock.writeLock().lock();
+        try {
+            for (ID id : batch) {
+                Contribution<K> old = contributions.remove(id);
+                if (old != null) {
+                    retract(old);
+                    deleted++;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return deleted;
+    }
+
+    private void retract(Contribution<K> old) {
+        Group group = groups.get(old.key);
+        group.remove(old.value);
+        if (group.count == 0) {
+            groups.remove(old.key);
+        }
+    }
+
+    /**
+     * 记录数
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return contributions.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 分组的统计, 分组不存在(没有记录)时返回null
+     */
+    public Statistics get(K key) {
+        lock.readLock().lock();
+        try {
+            Group group = groups.get(key);
+            return group == null ? null : group.toStatistics();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 所有分组的统计快照, 返回的Map与聚合器之后的变化无关
+     */
+    public Map<K, Statistics> snapshot() {
+        lock.readLock().lock();
+        try {
+            Map<K, Statistics> snapshot = new LinkedHashMap<>(groups.size() * 2);
+            groups.forEach((key, group) -> snapshot.put(key, group.toStatistics()));
+            return snapshot;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 所有分组合计的统计
+     */
+    public Statistics total() {
+        lock.readLock().lock();
+        try {
+            long count = 0L;
+            double sum = 0D;
+            double compensation = 0D;
+            double simpleSum = 0D;
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (Group group : groups.values()) {
+                count += group.count;
+                // Kahan求和合并各分组, 有无穷大时补偿项为NaN, 以普通求和为准
+                double groupSum = group.sum();
+                simpleSum += groupSum;
+                double y = groupSum - compensation;
+                double t = sum + y;
+                compensation = (t - sum) - y;
+                sum = t;
+                min = Math.min(min, group.values.firstKey());
+                max = Math.max(max, group.values.lastKey());
+            }
+            sum -= compensation;
+            return new Statistics(count, Double.isNaN(sum) && Double.isInfinite(simpleSum) ? simpleSum : sum, min, max);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            contributions.clear();
+            groups.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 计算完成, 等待写入的一条记录
+     */
+    private static final class Update<ID, K> {
+
+        final ID id;
+        final Contribution<K> contribution;
+
+        Update(ID id, Contribution<K> contribution) {
+            this.id = id;
+            this.contribution = contribution;
+        }
+    }
+
+    /**
+     * 一条记录对分组的贡献
+     */
+    private static final class Contribution<K> {
+
+        final K key;
+        final double value;
+
+        Contribution(K key, double value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    /**
+     * 分组状态, 有限值的和使用Kahan补偿求和, 撤回时加上相反数; NaN和正负无穷大一旦加入和就不能再减去, 因此只计数, 由计数得到和;
+     * 值 -> 出现次数的有序映射用于在撤回后仍能得到最小/最大值
+     */
+    private static final class Group {
+
+        long count;
+        private double sum;
+        private double compensation;
+        private long nanCount;
+        private long positiveInfinityCount;
+        private long negativeInfinityCount;
+        final TreeMap<Double, int[]> values = new TreeMap<>();
+
+        void add(double value) {
+            count++;
+            if (Double.isNaN(value)) {
+                nanCount++;
+            } else if (value == Double.POSITIVE_INFINITY) {
+                positiveInfinityCount++;
+            } else if (value == Double.NEGATIVE_INFINITY) {
+                negativeInfinityCount++;
+            } else {
+                accumulate(value);
+            }
+            int[] occurrences = values.get(value);
+            if (occurrences == null) {
+                values.put(value, new int[]{1});
+            } else {
+                occurrences[0]++;
+            }
+        }
+
+        void remove(double value) {
+            count--;
+            int[] occurrences = values.get(value);
+            if (--occurrences[0] == 0) {
+                values.remove(value);
+            }
+            if (Double.isNaN(value)) {
+                nanCount--;
+            } else if (value == Double.POSITIVE_INFINITY) {
+                positiveInfinityCount--;
+            } else if (value == Double.NEGATIVE_INFINITY) {
+                negativeInfinityCount--;
+            } else if (count == 0) {
+                // 分组清空时归零, 不留下累计误差
+                sum = 0D;
+                compensation = 0D;
+            } else if (Double.isFinite(sum)) {
+                accumulate(-value);
+            } else {
+                // 有限值的和溢出后无法再减去, 由剩余的值重新求和
+                recompute();
+            }
+        }
+
+        private void accumulate(double value) {
+            if (!Double.isFinite(sum)) {
+                // 有限值的和已经溢出, 补偿项没有意义, 直到撤回时重新求和
+                sum += value;
+                return;
+            }
+            double y = value - compensation;
+            double t = sum + y;
+            compensation = (t - sum) - y;
+            sum = t;
+        }
+
+        private void recompute() {
+            sum = 0D;
+            compensation = 0D;
+            values.forEach((value, occurrences) -> {
+                if (Double.isFinite(value)) {
+                    for (int i = 0; i < occurrences[0]; i++) {
+                        accumulate(value);
+                    }
+                }
+            });
+        }
+
+        /**
+         * 同DoubleSummaryStatistics.getSum(): 有NaN或同时有正负无穷大时为NaN, 有一种无穷大时为该无穷大
+         */
+        double sum() {
+            if (nanCount > 0 || (positiveInfinityCount > 0 && negativeInfinityCount > 0)) {
+                return Double.NaN;
+            }
+            if (positiveInfinityCount > 0) {
+                return Double.POSITIVE_INFINITY;
+            }
+            if (negativeInfinityCount > 0) {
+                return Double.NEGATIVE_INFINITY;
+            }
+            double result = sum - compensation;
+            // 溢出时补偿项为NaN
+            return Double.isNaN(result) ? sum : result;
+        }
+
+        Statistics toStatistics() {
+            return new Statistics(count, sum(), values.firstKey(), values.lastKey());
+        }
+    }
+
+    /**
+     * 分组统计快照, 不可变
+     */
+    @Getter
+    @ToString
+    public static final class Statistics {
+
+        private final long count;
+        private final double sum;
+        private final double min;
+        private final double max;
+
+        Statistics(long count, double sum, double min, double max) {
+            this.count = count;
+            this.sum = sum;
+            this.min = min;
+            this.max = max;
+        }
+
+        /**
+         * 平均值, 没有记录时返回0, 同DoubleSummaryStatistics
+         */
+        public double getAverage() {
+            return count > 0 ? sum / count : 0D;
+        }
+    }
+}
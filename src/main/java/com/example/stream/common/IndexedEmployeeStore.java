@@ -0,0 +1,600 @@
+package com.example.stream.common;
+
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * 带二级索引的员工集合
+ * filter(employee -> employee.getAge() > 30)每次查询都遍历所有员工; 数据变化慢, 同样形式的查询反复执行时, 维护索引后按索引直接定位:
+ * <p>
+ * 年龄, 薪资: 有序的基本类型数组(键, 行号), 范围和等值查询为两次二分查找
+ * 姓名: 哈希索引, 姓名 -> 行号数组
+ * 低基数的字段(年龄段, 薪资等级等): 位图索引, 通过bitmapIndex(index, classifier)注册, 每个取值一个RoaringBitmap压缩位图
+ * <p>
+ * int insert(Employee employee); 插入, 返回行号; void update(int row, Employee employee); Employee delete(int row);
+ * 增删改只修改受影响的索引项, 不重建索引; 删除后行号可能被之后插入的员工复用
+ * IndexedEmployeeStore of(Collection<Employee> employees); 批量加载, 先放入所有行, 每个索引只排序一次, O(n log n)
+ * Stream<Employee> ageBetween(int min, int max) / salaryBetween(double min, double max); 范围查询(闭区间), 按年龄/薪资升序
+ * Stream<Employee> nameEquals(String name) / keyEquals(String index, Object key); 等值查询, 按行号升序
+ * Stream<Employee> select(EmployeeFilter filter); 组合条件, 简单条件由索引得到位图后做位图运算, 按行号升序
+ * <p>
+ * 线程安全: 读写锁, 查询在读锁内取出匹配的员工, 返回的流是该时刻的快照, 之后的修改不影响已返回的流;
+ * select中EmployeeFilter.where包装的lambda也在读锁内执行, 不能修改本集合
+ * 年龄/薪资为null的员工不在对应的索引中, 不会被范围查询返回
+ *
+ * @Auther: Akang
+ * @Date: 2026/10/19 02:10
+ * @Description:
+ */
+public class IndexedEmployeeStore {
+
+    private static final int[] NO_ROWS = new int[0];
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 行号 -> 员工, 已删除的行为null
+     */
+    private Employee[] rows = new Employee[DEFAULT_CAPACITY];
+    private int rowCount;
+    private int size;
+
+    /**
+     * 未删除的行
+     */
+    private final RoaringBitmap live = new RoaringBitmap();
+
+    /**
+     * 被删除的行号, 插入时优先复用
+     */
+    private int[] freeRows = new int[DEFAULT_CAPACITY];
+    private int freeCount;
+
+    private final SortedIndex ageIndex = new SortedIndex();
+    private final SortedIndex salaryIndex = new SortedIndex();
+    private final Map<String, int[]> nameIndex = new HashMap<>();
+    private final Map<String, BitmapIndex> bitmapIndexes = new LinkedHashMap<>();
+    private final EmployeeFilter.Source filterSource = new FilterSource();
+
+    public static IndexedEmployeeStore of(Collection<Employee> employees) {
+        IndexedEmployeeStore store = new IndexedEmployeeStore();
+        store.load(employees.toArray(new Employee[0]));
+        return store;
+    }
+
+    /**
+     * 空集合的批量加载, 行号即下标; 逐行insert每次都要移动有序数组, 整体为O(n^2)
+     */
+    private void load(Employee[] employees) {
+        int count = employees.length;
+        long[] ages = new long[count];
+        int[] ageRows = new int[count];
+        int ageCount = 0;
+        long[] salaries = new long[count];
+        int[] salaryRows = new int[count];
+        int salaryCount = 0;
+        // 姓名 -> 尚未填入的行数
+        Map<String, int[]> remaining = new HashMap<>();
+        for (int row = 0; row < count; row++) {
+            Employee employee = Objects.requireNonNull(employees[row]);
+            if (employee.getAge() != null) {
+                ages[ageCount] = employee.getAge();
+                ageRows[ageCount++] = row;
+            }
+            if (employee.getSalary() != null) {
+                salaries[salaryCount] = SortedIndex.key(employee.getSalary());
+                salaryRows[salaryCount++] = row;
+            }
+            remaining.computeIfAbsent(employee.getName(), name -> new int[1])[0]++;
+        }
+        for (int row = 0; row < count; row++) {
+            String name = employees[row].getName();
+            int[] left = remaining.get(name);
+            int[] nameRows = nameIndex.computeIfAbsent(name, k -> new int[left[0]]);
+            nameRows[nameRows.length - left[0]--] = row;
+        }
+        ageIndex.load(ages, ageRows, ageCount);
+        salaryIndex.load(salaries, salaryRows, salaryCount);
+        rows = Arrays.copyOf(employees, Math.max(DEFAULT_CAPACITY, count));
+        rowCount = count;
+        size = count;
+        live.add(0L, (long) count);
+    }
+
+    /**
+     * 注册位图索引, 对已有的员工建立索引
+     *
+     * @param index      索引名称
+     * @param classifier 员工 -> 低基数的键, 返回null时不加入索引
+     */
+    public IndexedEmployeeStore bitmapIndex(String index, Function<? super Employee, ?> classifier) {
+        Objects.requireNonNull(index);
+        BitmapIndex bitmapIndex = new BitmapIndex(Objects.requireNonNull(classifier));
+        lock.writeLock().lock();
+        try {
+            if (bitmapIndexes.containsKey(index)) {
+                throw new IllegalStateException("Duplicate bitmap index: " + index);
+            }
+            for (int row = 0; row < rowCount; row++) {
+                if (rows[row] != null) {
+                    bitmapIndex.add(rows[row], row);
+                }
+            }
+            bitmapIndexes.put(index, bitmapIndex);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return this;
+    }
+
+    /**
+     * 插入员工
+     *
+     * @return 行号
+     */
+    public int insert(Employee employee) {
+        Objects.requireNonNull(employee);
+        lock.writeLock().lock();
+        try {
+            int row;
+            if (freeCount > 0) {
+                row = freeRows[--freeCount];
+            } else {
+                if (rowCount == rows.length) {
+                    rows = Arrays.copyOf(rows, rowCount + (rowCount >> 1));
+                }
+                row = rowCount++;
+            }
+            rows[row] = employee;
+            size++;
+            live.add(row);
+            index(employee, row);
+            return row;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 替换row行的员工, 只更新值发生变化的索引
+     */
+    public void update(int row, Employee employee) {
+        Objects.requireNonNull(employee);
+        lock.writeLock().lock();
+        try {
+            Employee old = live(row);
+            rows[row] = employee;
+            if (!Objects.equals(old.getAge(), employee.getAge())) {
+                removeAge(old, row);
+                addAge(employee, row);
+            }
+            if (!Objects.equals(old.getSalary(), employee.getSalary())) {
+                removeSalary(old, row);
+                addSalary(employee, row);
+            }
+            if (!Objects.equals(old.getName(), employee.getName())) {
+                removeName(old, row);
+                addName(employee, row);
+            }
+            for (BitmapIndex bitmapIndex : bitmapIndexes.values()) {
+                bitmapIndex.update(old, employee, row);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 删除row行的员工
+     *
+     * @return 被删除的员工
+     */
+    public Employee delete(int row) {
+        lock.writeLock().lock();
+        try {
+            Employee old = live(row);
+            removeAge(old, row);
+            removeSalary(old, row);
+            removeName(old, row);
+            for (BitmapIndex bitmapIndex : bitmapIndexes.values()) {
+                bitmapIndex.remove(old, row);
+            }
+            rows[row] = null;
+            size--;
+            live.remove(row);
+            if (freeCount == freeRows.length) {
+                freeRows = Arrays.copyOf(freeRows, freeCount << 1);
+            }
+            freeRows[freeCount++] = row;
+            return old;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * row行的员工, 不存在时返回null
+     */
+    public Employee get(int row) {
+        lock.readLock().lock();
+        try {
+            return row >= 0 && row < rowCount ? rows[row] : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 所有员工, 按行号升序
+     */
+    public Stream<Employee> stream() {
+        lock.readLock().lock();
+        try {
+            Employee[] result = new Employee[size];
+            int n = 0;
+            for (int row = 0; row < rowCount; row++) {
+                if (rows[row] != null) {
+                    result[n++] = rows[row];
+                }
+            }
+            return Arrays.stream(result);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 年龄在[min, max]之间的员工, 按年龄升序
+     */
+    public Stream<Employee> ageBetween(int min, int max) {
+        return range(() -> ageIndex.rows(min, max));
+    }
+
+    /**
+     * 薪资在[min, max]之间的员工, 按薪资升序
+     */
+    public Stream<Employee> salaryBetween(double min, double max) {
+        return range(() -> salaryIndex.rows(min, max));
+    }
+
+    /**
+     * 姓名为name的员工
+     */
+    public Stream<Employee> nameEquals(String name) {
+        lock.readLock().lock();
+        try {
+            return select(nameIndex.getOrDefault(name, NO_ROWS));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 位图索引index中键为key的员工
+     */
+    public Stream<Employee> keyEquals(String index, Object key) {
+        lock.readLock().lock();
+        try {
+            BitmapIndex bitmapIndex = bitmapIndexes.get(index);
+            if (bitmapIndex == null) {
+                throw new IllegalArgumentException("No bitmap index: " + index);
+            }
+            RoaringBitmap bitmap = bitmapIndex.bitmaps.get(key);
+            return bitmap == null ? Stream.empty() : select(bitmap.toArray());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 满足filter的员工, 按行号升序
+     */
+    public Stream<Employee> select(EmployeeFilter filter) {
+        Objects.requireNonNull(filter);
+        lock.readLock().lock();
+        try {
+            return select(filter.evaluate(filterSource).toArray());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Stream<Employee> range(Supplier<int[]> lookup) {
+        lock.readLock().lock();
+        try {
+            return select(lookup.get());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 在读锁内取出行号对应的员工
+     */
+    private Stream<Employee> select(int[] selected) {
+        Employee[] result = new Employee[selected.length];
+        for (int i = 0; i < selected.length; i++) {
+            result[i] = rows[selected[i]];
+        }
+        return Arrays.stream(result);
+    }
+
+    private Employee live(int row) {
+        Employee employee = row >= 0 && row < rowCount ? rows[row] : null;
+        if (employee == null) {
+            throw new IllegalArgumentException("No employee at row " + row);
+        }
+        return employee;
+    }
+
+    private void index(Employee employee, int row) {
+        addAge(employee, row);
+        addSalary(employee, row);
+        addName(employee, row);
+        for (BitmapIndex bitmapIndex : bitmapIndexes.values()) {
+            bitmapIndex.add(employee, row);
+        }
+    }
+
+    private void addAge(Employee employee, int row) {
+        if (employee.getAge() != null) {
+            ageIndex.add(employee.getAge(), row);
+        }
+    }
+
+    private void removeAge(Employee employee, int row) {
+        if (employee.getAge() != null) {
+            ageIndex.remove(employee.getAge(), row);
+        }
+    }
+
+    private void addSalary(Employee employee, int row) {
+        if (employee.getSalary() != null) {
+            salaryIndex.add(SortedIndex.key(employee.getSalary()), row);
+        }
+    }
+
+    private void removeSalary(Employee employee, int row) {
+        if (employee.getSalary() != null) {
+            salaryIndex.remove(SortedIndex.key(employee.getSalary()), row);
+        }
+    }
+
+    private void addName(Employee employee, int row) {
+        int[] current = nameIndex.getOrDefault(employee.getName(), NO_ROWS);
+        // 复用的行号可能小于已有的行号, 插入到升序的位置
+        int i = -(Arrays.binarySearch(current, row) + 1);
+        int[] next = new int[current.length + 1];
+        System.arraycopy(current, 0, next, 0, i);
+        next[i] = row;
+        System.arraycopy(current, i, next, i + 1, current.length - i);
+        nameIndex.put(employee.getName(), next);
+    }
+
+    private void removeName(Employee employee, int row) {
+        int[] current = nameIndex.get(employee.getName());
+        int i = Arrays.binarySearch(current, row);
+        if (current.length == 1) {
+            nameIndex.remove(employee.getName());
+            return;
+        }
+        int[] next = new int[current.length - 1];
+        System.arraycopy(current, 0, next, 0, i);
+        System.arraycopy(current, i + 1, next, i, next.length - i);
+        nameIndex.put(employee.getName(), next);
+    }
+
+    /**
+     * EmployeeFilter的计算对象, 在读锁内使用, 返回的位图可能是索引本身, 调用方不能修改
+     */
+    private final class FilterSource implements EmployeeFilter.Source {
+
+        @Override
+        public RoaringBitmap all() {
+            return live;
+        }
+
+        @Override
+        public RoaringBitmap ageBetween(int min, int max) {
+            return RoaringBitmap.bitmapOf(ageIndex.rows(min, max));
+        }
+
+        @Override
+        public RoaringBitmap salaryBetween(double min, double max) {
+            return RoaringBitmap.bitmapOf(salaryIndex.rows(min, max));
+        }
+
+        @Override
+        public RoaringBitmap nameEquals(String name) {
+            return RoaringBitmap.bitmapOf(nameIndex.getOrDefault(name, NO_ROWS));
+        }
+
+        /**
+         * 按classifier对象查找位图索引, 没有时返回null, 由EmployeeFilter逐行计算
+         */
+        @Override
+        public RoaringBitmap keyEquals(Function<? super Employee, ?> classifier, Object key) {
+            for (BitmapIndex bitmapIndex : bitmapIndexes.values()) {
+                if (bitmapIndex.classifier == classifier) {
+                    RoaringBitmap bitmap = bitmapIndex.bitmaps.get(key);
+                    return bitmap == null ? new RoaringBitmap() : bitmap;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public Employee row(int row) {
+            return rows[row];
+        }
+    }
+
+    /**
+     * 按(键, 行号)排序的两个平行数组, 插入和删除移动插入点之后的元素, 批量加载时排序一次
+     * 键为long, int直接扩展, double转换为与Double.compare顺序一致的long
+     */
+    private static final class SortedIndex {
+
+        private long[] keys = new long[DEFAULT_CAPACITY];
+        private int[] rows = new int[DEFAULT_CAPACITY];
+        private int size;
+
+        /**
+         * double -> 保持顺序的long: 非负数的位模式本身有序, 负数翻转除符号位以外的位
+         * -0.0与0.0为同一个键, 同EmployeeFilter.test中基本类型的比较(-0.0 == 0.0), 而不是Double.compare
+         */
+        static long key(double value) {
+            long bits = Double.doubleToLongBits(value == 0D ? 0D : value);
+            return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+        }
+
+        /**
+         * (key, row)的位置, 不存在时为-(插入点) - 1
+         */
+        private int search(long key, int row) {
+            int low = 0;
+            int high = size - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int c = keys[mid] != key ? Long.compare(keys[mid], key) : Integer.compare(rows[mid], row);
+                if (c < 0) {
+                    low = mid + 1;
+                } else if (c > 0) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        /**
+         * 替换为(keys[i], rows[i])共count项: 键排序去重后得到名次, (名次, 行号)打包为long排序, 不装箱
+         */
+        void load(long[] keys, int[] rows, int count) {
+            long[] distinct = Arrays.copyOf(keys, count);
+            Arrays.sort(distinct);
+            int distinctCount = 0;
+            for (int i = 0; i < count; i++) {
+                if (distinctCount == 0 || distinct[i] != distinct[distinctCount - 1]) {
+                    distinct[distinctCount++] = distinct[i];
+                }
+            }
+            long[] packed = new long[count];
+            for (int i = 0; i < count; i++) {
+                long rank = Arrays.binarySearch(distinct, 0, distinctCount, keys[i]);
+                packed[i] = rank << 32 | rows[i];
+            }
+            Arrays.sort(packed);
+            int capacity = Math.max(DEFAULT_CAPACITY, count);
+            this.keys = new long[capacity];
+            this.rows = new int[capacity];
+            for (int i = 0; i < count; i++) {
+                this.keys[i] = distinct[(int) (packed[i] >>> 32)];
+                this.rows[i] = (int) packed[i];
+            }
+            this.size = count;
+        }
+
+        void add(long key, int row) {
+            int i = -(search(key, row) + 1);
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size << 1);
+                rows = Arrays.copyOf(rows, size << 1);
+            }
+            System.arraycopy(keys, i, keys, i + 1, size - i);
+            System.arraycopy(rows, i, rows, i + 1, size - i);
+            keys[i] = key;
+            rows[i] = row;
+            size++;
+        }
+
+        void remove(long key, int row) {
+            int i = search(key, row);
+            System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+            System.arraycopy(rows, i + 1, rows, i, size - i - 1);
+            size--;
+        }
+
+        /**
+         * 键为double时, 值在[min, max]之间的行号, 按值升序; 同基本类型比较, 与NaN比较总是false
+         */
+        int[] rows(double min, double max) {
+            if (Double.isNaN(min) || Double.isNaN(max)) {
+                return NO_ROWS;
+            }
+            return rows(key(min), key(max));
+        }
+
+        /**
+         * 键在[min, max]之间的行号, 按键升序
+         */
+        int[] rows(long min, long max) {
+            if (min > max) {
+                return NO_ROWS;
+            }
+            int from = -(search(min, Integer.MIN_VALUE) + 1);
+            int to = max == Long.MAX_VALUE ? size : -(search(max + 1, Integer.MIN_VALUE) + 1);
+            return Arrays.copyOfRange(rows, from, to);
+        }
+    }
+
+    /**
+     * 键 -> 行号位图
+     */
+    private static final class BitmapIndex {
+
+        private final Function<? super Employee, ?> classifier;
+        private final Map<Object, RoaringBitmap> bitmaps = new HashMap<>();
+
+        BitmapIndex(Function<? super Employee, ?> classifier) {
+            this.classifier = classifier;
+        }
+
+        void add(Employee employee, int row) {
+            Object key = classifier.apply(employee);
+            if (key != null) {
+                bitmaps.computeIfAbsent(key, k -> new RoaringBitmap()).add(row);
+            }
+        }
+
+        void remove(Employee employee, int row) {
+            Object key = classifier.apply(employee);
+            RoaringBitmap bitmap = key == null ? null : bitmaps.get(key);
+            if (bitmap != null) {
+                bitmap.remove(row);
+                if (bitmap.isEmpty()) {
+                    bitmaps.remove(key);
+                }
+            }
+        }
+
+        void update(Employee old, Employee employee, int row) {
+            if (!Objects.equals(classifier.apply(old), classifier.apply(employee))) {
+                remove(old, row);
+                add(employee, row);
+            }
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.stream.common;
+
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+import java.util.function.LongToDoubleFunction;
+import java.util.function.LongToIntFunction;
+import java.util.function.LongUnaryOperator;
+import java.util.function.UnaryOperator;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 可拆分的序列流
+ * Stream.iterate(seed, f)的第i个元素依赖第i-1个, Spliterator只能按批顺序取出元素再拆分, 并行流基本只有一个线程在计算;
+ * 序列能写成下标的函数f(i), 或者能从某一项直接跳到后面第k项时, 第i项不必依赖前一项, 数据源可以像IntStream.range一样O(1)对半拆分
+ * <p>
+ * Stream<T> generate(long n, LongFunction<? extends T> f); 元素为f(0), f(1), ..., f(n - 1)
+ * IntStream generateInt / LongStream generateLong / DoubleStream generateDouble; 基本类型版本
+ * <p>
+ * Stream<T> iterate(T seed, UnaryOperator<T> next, SkipAhead<T> skipAhead, long n); 跳跃递推, 元素同Stream.iterate(seed, next).limit(n),
+ * skipAhead.skip(state, k)返回state之后第k项, 拆分时只记录右半部分的起点距离, 由处理它的线程调用一次skip, 之后用next逐项递推;
+ * skip为O(1)或O(log k)时(等比数列, 线性同余, 矩阵快速幂)拆分不增加计算量, skip的结果必须与连续调用k次next一致
+ * <p>
+ * 返回的流是顺序流, 特征为ORDERED | SIZED | SUBSIZED | IMMUTABLE, 调用parallel()后与IntStream.range一样均匀拆分;
+ * f, next, skipAhead需无状态(可能在多个线程中同时调用), 元素(递推的状态)需不可变
+ *
+ * @Auther: Akang
+ * @Date: 2026/10/19 01:50
+ * @Description:
+ */
+public final class IndexedStreams {
+
+    private IndexedStreams() {
+    }
+
+    /**
+     * 从某一项向后跳k项
+     */
+    @FunctionalInterface
+    public interface SkipAhead<T> {
+
+        /**
+         * @param steps 大于0
+         * @return state之后第steps项
+         */
+        T skip(T state, long steps);
+    }
+
+    /**
+     * 元素为f(0), f(1), ..., f(n - 1)
+     */
+    public static <T> Stream<T> generate(long n, LongFunction<? extends T> f) {
+        Objects.requireNonNull(f);
+        return LongStream.range(0L, checkSize(n)).mapToObj(f);
+    }
+
+    public static IntStream generateInt(long n, LongToIntFunction f) {
+        Objects.requireNonNull(f);
+        return LongStream.range(0L, checkSize(n)).mapToInt(f);
+    }
+
+    public static LongStream generateLong(long n, LongUnaryOperator f) {
+        Objects.requireNonNull(f);
+        return LongStream.range(0L, checkSize(n)).map(f);
+    }
+
+    public static DoubleStream generateDouble(long n, LongToDoubleFunction f) {
+        Objects.requireNonNull(f);
+        return LongStream.range(0L, checkSize(n)).mapToDouble(f);
+    }
+
+    /**
+     * 跳跃递推, 元素为seed, next(seed), next(next(seed)), ...共n个
+     *
+     * @param skipAhead 从某一项直接计算后面第k项, 拆分时使用
+     */
+    public static <T> Stream<T> iterate(T seed, UnaryOperator<T> next, SkipAhead<T> skipAhead, long n) {
+        Objects.requireNonNull(next);
+        Objects.requireNonNull(skipAhead);
+        return StreamSupport.stream(new RecurrenceSpliterator<>(next, skipAhead, seed, 0L, 0L, checkSize(n)), false);
+    }
+
+    private static long checkSize(long n) {
+        if (n < 0L) {
+            throw new IllegalArgumentException("Illegal size: " + n);
+        }
+        return n;
+    }
+
+    /**
+     * 下标[index, end)的元素, 当前元素为state向后pending项; pending在第一次取元素时由所在线程跳过
+     */
+    private static final class RecurrenceSpliterator<T> implements Spliterator<T> {
+
+        private final UnaryOperator<T> next;
+        private final SkipAhead<T> skipAhead;
+        private T state;
+        private long pending;
+        private long index;
+        private final long end;
+
+        RecurrenceSpliterator(UnaryOperator<T> next, SkipAhead<T> skipAhead, T state, long pending, long index, long end) {
+            this.next = next;
+            this.skipAhead = skipAhead;
+            this.state = state;
+            this.pending = pending;
+            this.index = index;
+            this.end = end;
+        }
+
+        private T current() {
+            if (pending > 0L) {
+                state = skipAhead.skip(state, pending);
+                pending = 0L;
+            }
+            return state;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            Objects.requireNonNull(action);
+            if (index >= end) {
+                return false;
+            }
+            T t = current();
+            // 最后一个元素之后不再递推
+            if (++index < end) {
+                state = next.apply(t);
+            }
+            action.accept(t);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            Objects.requireNonNull(action);
+            if (index >= end) {
+                return;
+            }
+            T t = current();
+            long remaining = end - index;
+            index = end;
+            action.accept(t);
+            for (long i = 1L; i < remaining; i++) {
+                t = next.apply(t);
+                action.accept(t);
+            }
+        }
+
+        /**
+         * 前一半沿用当前的起点, 自己的起点向后移动前一半的长度, 不调用skip
+         */
+        @Override
+        public Spliterator<T> trySplit() {
+            long half = (end - index) >>> 1;
+            if (half == 0L) {
+                return null;
+            }
+            RecurrenceSpliterator<T> prefix = new RecurrenceSpliterator<>(next, skipAhead, state, pending, index, index + half);
+            pending += half;
+            index += half;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | IMMUTABLE;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.stream.common;
+
+/**
+ * 函数式接口
+ * 接受一个int参数和一个对象参数, 无返回值, 类似ObjIntConsumer, 参数顺序相反, 避免int参数装箱
+ *
+ * @Auther: Akang
+ * @Date: 2026/10/18 15:10
+ * @Description:
+ */
+@FunctionalInterface
+public interface IntObjConsumer<T> {
+
+    /**
+     * Performs this operation on the given arguments.
+     *
+     * @param value the int input argument
+     * @param t     the object input argument
+     */
+    void accept(int value, T t);
+}
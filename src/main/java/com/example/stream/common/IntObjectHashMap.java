@@ -0,0 +1,178 @@
+package com.example.stream.common;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.BinaryOperator;
+
+/**
+ * 开放寻址(线性探测)的int->Object哈希表
+ * 键存放在int[]中不装箱, 用于替代Map<Integer, V>
+ * 不允许null值(null表示空槽位), 非线程安全
+ *
+ * @Auther: Akang
+ * @Date: 2026/10/18 15:06
+ * @Description:
+ */
+public class IntObjectHashMap<V> {
+
+    private int[] keys;
+    private Object[] values;
+    private int size;
+    private int threshold;
+
+    public IntObjectHashMap() {
+        this(OpenAddressing.DEFAULT_CAPACITY);
+    }
+
+    public IntObjectHashMap(int expectedSize) {
+        allocate(OpenAddressing.capacityFor(expectedSize));
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        threshold = OpenAddressing.threshold(capacity);
+    }
+
+    /**
+     * key所在的槽位, 不存在时返回 -(插入槽位 + 1)
+     */
+    private int slot(int key) {
+        int mask = keys.length - 1;
+        int i = OpenAddressing.mix(key) & mask;
+        while (values[i] != null) {
+            if (keys[i] == key) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -(i + 1);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(int key) {
+        return slot(key) >= 0;
+    }
+
+    /**
+     * 获取key对应的值, key不存在时返回null
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int i = slot(key);
+        return i >= 0 ? (V) values[i] : null;
+    }
+
+    /**
+     * 设置key对应的值
+     *
+     * @return 原值, key不存在时返回null
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        Objects.requireNonNull(value);
+        int i = slot(key);
+        if (i >= 0) {
+            V old = (V) values[i];
+            values[i] = value;
+            return old;
+        }
+        insert(-i - 1, key, value);
+        return null;
+    }
+
+    /**
+     * key不存在时设置为value, 否则设置为mergeFunction(原值, value)
+     *
+     * @return 合并后的值
+     */
+    @SuppressWarnings("unchecked")
+    public V merge(int key, V value, BinaryOperator<V> mergeFunction) {
+        Objects.requireNonNull(value);
+        int i = slot(key);
+        if (i >= 0) {
+            V merged = Objects.requireNonNull(mergeFunction.apply((V) values[i], value));
+            values[i] = merged;
+            return merged;
+        }
+        insert(-i - 1, key, value);
+        return value;
+    }
+
+    /**
+     * 将other中的键值对合并到当前表中, 用作并行收集时的combiner
+     */
+    @SuppressWarnings("unchecked")
+    public IntObjectHashMap<V> mergeAll(IntObjectHashMap<? extends V> other, BinaryOperator<V> mergeFunction) {
+        int[] otherKeys = other.keys;
+        Object[] otherValues = other.values;
+        for (int i = 0; i < otherKeys.length; i++) {
+            if (otherValues[i] != null) {
+                merge(otherKeys[i], (V) otherValues[i], mergeFunction);
+            }
+        }
+        return this;
+    }
+
+    private void insert(int i, int key, Object value) {
+        keys[i] = key;
+        values[i] = value;
+        if (++size > threshold) {
+            rehash(keys.length << 1);
+        }
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldValues[j] != null) {
+                int i = OpenAddressing.mix(oldKeys[j]) & mask;
+                while (values[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    /**
+     * 遍历所有键值对, 顺序不确定
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(IntObjConsumer<? super V> action) {
+        Objects.requireNonNull(action);
+        for (int i = 0; i < keys.length; i++) {
+            if (values[i] != null) {
+                action.accept(keys[i], (V) values[i]);
+            }
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        forEach((key, value) -> {
+            if (sb.length() > 1) {
+                sb.append(", ");
+            }
+            sb.append(key).append('=').append(value);
+        });
+        return sb.append('}').toString();
+    }
+}
@@ -0,0 +1,285 @@
+package com.example.stream.common;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * 融合的int流水线
+ * IntStream.range(...).map(...).filter(...).sum()的每个中间操作是一个Sink, 每个元素逐级调用accept;
+ * 多条流水线使用不同的lambda时, Sink中调用mapper/predicate的位置见到多种类型(megamorphic), JIT无法内联, 每个元素每一级都是一次接口分派
+ * <p>
+ * IntPipe把中间操作合并为before(map) -> predicate(filter) -> after(map)三段, 终结操作是直接遍历数据源的一个循环(FusedIntLoop);
+ * 相邻的map合成一个函数, 相邻的filter合成一个条件, map-filter-map之外更长的形式把后面的filter并入predicate,
+ * 此时predicate和after会对同一元素各执行一次中间的map, 与Stream一样要求行为参数无状态
+ * <p>
+ * IntPipe compile(); 为这条流水线复制一个专属的循环类, 合成map/filter的函数类(FusedIntLoop.Compose, And, MapThenTest)也每个复制一份,
+ * 循环和合成函数中的调用点只见过这条流水线的lambda, 可以内联为与手写循环相当的代码;
+ * 复制会定义新类(循环类1个, 每个合成函数1个), 适用于反复执行的热点流水线, 编译后的IntPipe应保存复用;
+ * 未编译的IntPipe中合成函数的类被所有流水线共用, 多阶段的流水线与IntStream一样会遇到megamorphic的调用点
+ * <p>
+ * IntPipe range(int startInclusive, int endExclusive) / rangeClosed / of(int... values) / of(int[] array, int from, int to); 数据源
+ * IntPipe map(IntUnaryOperator mapper) / filter(IntPredicate predicate); 中间操作
+ * sum, count, min, max, average, reduce, anyMatch, allMatch, noneMatch, forEach, toArray; 终结操作, 结果同IntStream
+ * <p>
+ * IntPipe不可变, 同一个IntPipe可以反复执行终结操作, 也可以被多个线程同时使用; 只支持串行, 需要并行时使用IntStream
+ *
+ * @Auther: Akang
+ * @Date: 2026/10/19 01:10
+ * @Description:
+ */
+public final class IntPipe {
+
+    private static final IntUnaryOperator IDENTITY = x -> x;
+    private static final IntPredicate ALWAYS = x -> true;
+    private static final Class<?>[] LOOP_PARAMETERS = {IntUnaryOperator.class, IntPredicate.class, IntUnaryOperator.class};
+    private static final Class<?>[] COMPOSE_PARAMETERS = {IntUnaryOperator.class, IntUnaryOperator.class};
+    private static final Class<?>[] AND_PARAMETERS = {IntPredicate.class, IntPredicate.class};
+    private static final Class<?>[] MAP_THEN_TEST_PARAMETERS = {IntUnaryOperator.class, IntPredicate.class};
+
+    /**
+     * 数据源, array为null时为区间[from, to)
+     */
+    private final int[] array;
+    private final int from;
+    private final int to;
+
+    /**
+     * 中间操作, 按调用顺序保存, 在fold中合并; mapping[i]表示第i个阶段是否为map
+     */
+    private final Object[] stages;
+    private final boolean[] mapping;
+
+    /**
+     * 终结操作的循环, 第一次使用时创建
+     */
+    private volatile Loop loop;
+
+    private IntPipe(int[] array, int from, int to, Object[] stages, boolean[] mapping, Loop loop) {
+        this.array = array;
+        this.from = from;
+        this.to = to;
+        this.stages = stages;
+        this.mapping = mapping;
+        this.loop = loop;
+    }
+
+    /**
+     * 区间[startInclusive, endExclusive)
+     */
+    public static IntPipe range(int startInclusive, int endExclusive) {
+        return new IntPipe(null, startInclusive, Math.max(startInclusive, endExclusive), new Object[0], new boolean[0], null);
+    }
+
+    /**
+     * 区间[startInclusive, endInclusive], endInclusive不能为Integer.MAX_VALUE
+     */
+    public static IntPipe rangeClosed(int startInclusive, int endInclusive) {
+        if (endInclusive == Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("endInclusive must be less than Integer.MAX_VALUE");
+        }
+        return range(startInclusive, endInclusive + 1);
+    }
+
+    /**
+     * 数组元素, 不复制数组
+     */
+    public static IntPipe of(int... values) {
+        return of(values, 0, values.length);
+    }
+
+    /**
+     * 数组[from, to)范围的元素, 不复制数组
+     */
+    public static IntPipe of(int[] array, int from, int to) {
+        Objects.requireNonNull(array);
+        if (from < 0 || to > array.length || from > to) {
+            throw new ArrayIndexOutOfBoundsException("from: " + from + ", to: " + to + ", length: " + array.length);
+        }
+        return new IntPipe(array, from, to, new Object[0], new boolean[0], null);
+    }
+
+    public IntPipe map(IntUnaryOperator mapper) {
+        return append(Objects.requireNonNull(mapper), true);
+    }
+
+    public IntPipe filter(IntPredicate predicate) {
+        return append(Objects.requireNonNull(predicate), false);
+    }
+
+    /**
+     * 复制一个只属于这条流水线的循环类, 已编译时返回自身
+     */
+    public IntPipe compile() {
+        Loop current = loop;
+        if (current != null && current.getClass() != FusedIntLoop.class) {
+            return this;
+        }
+        Loop specialized = LoopSpecializer.specialize(FusedIntLoop.class, Loop.class, LOOP_PARAMETERS, fold(true));
+        return new IntPipe(array, from, to, stages, mapping, specialized);
+    }
+
+    private IntPipe append(Object stage, boolean map) {
+        Object[] next = Arrays.copyOf(stages, stages.length + 1);
+        next[stages.length] = stage;
+        boolean[] nextMapping = Arrays.copyOf(mapping, mapping.length + 1);
+        nextMapping[mapping.length] = map;
+        return new IntPipe(array, from, to, next, nextMapping, null);
+    }
+
+    /**
+     * 合并为before, predicate, after三段, 作为循环类的构造参数
+     *
+     * @param specialize 合成函数是否各自复制一个类
+     */
+    private Object[] fold(boolean specialize) {
+        IntUnaryOperator before = null;
+        IntPredicate predicate = null;
+        IntUnaryOperator after = null;
+        for (int i = 0, j; i < stages.length; i = j) {
+            j = i + 1;
+            if (mapping[i]) {
+                IntUnaryOperator mapper = (IntUnaryOperator) stages[i];
+                for (; j < stages.length && mapping[j]; j++) {
+                    mapper = compose(mapper, (IntUnaryOperator) stages[j], specialize);
+                }
+                if (predicate == null) {
+                    before = mapper;
+                } else {
+                    after = after == null ? mapper : compose(after, mapper, specialize);
+                }
+            } else {
+                IntPredicate filter = (IntPredicate) stages[i];
+                for (; j < stages.length && !mapping[j]; j++) {
+                    filter = and(filter, (IntPredicate) stages[j], specialize);
+                }
+                // 两组filter之间一定有map, 此时after不为null
+                predicate = predicate == null ? filter : and(predicate, mapThenTest(after, filter, specialize), specialize);
+            }
+        }
+        return new Object[]{before == null ? IDENTITY : before, predicate == null ? ALWAYS : predicate,
+                after == null ? IDENTITY : after};
+    }
+
+    private static IntUnaryOperator compose(IntUnaryOperator first, IntUnaryOperator second, boolean specialize) {
+        return specialize
+                ? LoopSpecializer.specialize(FusedIntLoop.Compose.class, IntUnaryOperator.class, COMPOSE_PARAMETERS, first, second)
+                : new FusedIntLoop.Compose(first, second);
+    }
+
+    private static IntPredicate and(IntPredicate first, IntPredicate second, boolean specialize) {
+        return specialize
+                ? LoopSpecializer.specialize(FusedIntLoop.And.class, IntPredicate.class, AND_PARAMETERS, first, second)
+                : new FusedIntLoop.And(first, second);
+    }
+
+    private static IntPredicate mapThenTest(IntUnaryOperator mapper, IntPredicate predicate, boolean specialize) {
+        return specialize
+                ? LoopSpecializer.specialize(FusedIntLoop.MapThenTest.class, IntPredicate.class, MAP_THEN_TEST_PARAMETERS, mapper, predicate)
+                : new FusedIntLoop.MapThenTest(mapper, predicate);
+    }
+
+    private Loop loop() {
+        Loop current = loop;
+        if (current == null) {
+            Object[] folded = fold(false);
+            current = new FusedIntLoop((IntUnaryOperator) folded[0], (IntPredicate) folded[1], (IntUnaryOperator) folded[2]);
+            loop = current;
+        }
+        return current;
+    }
+
+    private boolean hasFilter() {
+        for (boolean map : mapping) {
+            if (!map) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 同IntStream.sum(), 溢出时按int回绕
+     */
+    public int sum() {
+        return loop().sum(array, from, to);
+    }
+
+    /**
+     * 没有filter时直接返回数据源大小, 不执行map
+     */
+    public long count() {
+        return hasFilter() ? loop().count(array, from, to) : (long) to - from;
+    }
+
+    public OptionalInt min() {
+        return loop().min(array, from, to);
+    }
+
+    public OptionalInt max() {
+        return loop().max(array, from, to);
+    }
+
+    /**
+     * 平均值, 和按long累加不溢出
+     */
+    public OptionalDouble average() {
+        return loop().average(array, from, to);
+    }
+
+    public int reduce(int identity, IntBinaryOperator op) {
+        return loop().reduce(array, from, to, identity, Objects.requireNonNull(op));
+    }
+
+    public boolean anyMatch(IntPredicate predicate) {
+        return loop().anyMatch(array, from, to, Objects.requireNonNull(predicate));
+    }
+
+    public boolean allMatch(IntPredicate predicate) {
+        return !anyMatch(predicate.negate());
+    }
+
+    public boolean noneMatch(IntPredicate predicate) {
+        return !anyMatch(predicate);
+    }
+
+    public void forEach(IntConsumer action) {
+        loop().forEach(array, from, to, Objects.requireNonNull(action));
+    }
+
+    public int[] toArray() {
+        return loop().toArray(array, from, to, !hasFilter());
+    }
+
+    /**
+     * 终结操作的循环, 由FusedIntLoop实现; 复制出的循环类在另一个类加载器中, 只能通过public接口访问
+     */
+    public interface Loop {
+
+        int sum(int[] array, int from, int to);
+
+        long count(int[] array, int from, int to);
+
+        OptionalInt min(int[] array, int from, int to);
+
+        OptionalInt max(int[] array, int from, int to);
+
+        OptionalDouble average(int[] array, int from, int to);
+
+        int reduce(int[] array, int from, int to, int identity, IntBinaryOperator op);
+
+        boolean anyMatch(int[] array, int from, int to, IntPredicate match);
+
+        void forEach(int[] array, int from, int to, IntConsumer action);
+
+        /**
+         * @param exact 结果个数是否等于数据源大小
+         */
+        int[] toArray(int[] array, int from, int to, boolean exact);
+    }
+}
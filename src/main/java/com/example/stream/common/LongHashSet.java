@@ -0,0 +1,124 @@
+package com.example.stream.common;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.LongConsumer;
+
+/**
+ * 开放寻址(线性探测)的long集合
+ * 元素存放在long[]中不装箱, 0表示空槽位, 元素0单独记录
+ * 非线程安全
+ *
+ * @Auther: Akang
+ * @Date: 2026/10/18 22:12
+ * @Description:
+ */
+public class LongHashSet {
+
+    private long[] elements;
+    private boolean containsZero;
+    private int size;
+    private int threshold;
+
+    public LongHashSet() {
+        this(OpenAddressing.DEFAULT_CAPACITY);
+    }
+
+    public LongHashSet(int expectedSize) {
+        allocate(OpenAddressing.capacityFor(expectedSize));
+    }
+
+    private void allocate(int capacity) {
+        elements = new long[capacity];
+        threshold = OpenAddressing.threshold(capacity);
+    }
+
+    /**
+     * e所在的槽位, 不存在时返回 -(插入槽位 + 1), e不为0
+     */
+    private int slot(long e) {
+        int mask = elements.length - 1;
+        int i = OpenAddressing.mix(e) & mask;
+        long k;
+        while ((k = elements[i]) != 0L) {
+            if (k == e) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -(i + 1);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(long e) {
+        return e == 0L ? containsZero : slot(e) >= 0;
+    }
+
+    /**
+     * 添加元素
+     *
+     * @return 集合中原来没有e时返回true
+     */
+    public boolean add(long e) {
+        if (e == 0L) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+            size++;
+            return true;
+        }
+        int i = slot(e);
+        if (i >= 0) {
+            return false;
+        }
+        elements[-i - 1] = e;
+        if (++size > threshold) {
+            rehash(elements.length << 1);
+        }
+        return true;
+    }
+
+    private void rehash(int capacity) {
+        long[] old = elements;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (long e : old) {
+            if (e != 0L) {
+                int i = OpenAddressing.mix(e) & mask;
+                while (elements[i] != 0L) {
+                    i = (i + 1) & mask;
+                }
+                elements[i] = e;
+            }
+        }
+    }
+
+    /**
+     * 遍历所有元素, 顺序不确定
+     */
+    public void forEach(LongConsumer action) {
+        Objects.requireNonNull(action);
+        if (containsZero) {
+            action.accept(0L);
+        }
+        for (long e : elements) {
+            if (e != 0L) {
+                action.accept(e);
+            }
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(elements, 0L);
+        containsZero = false;
+        size = 0;
+    }
+}
@@ -0,0 +1,285 @@
+package com.example.stream.common;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.OptionalDouble;
+import java.util.OptionalLong;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongConsumer;
+import java.util.function.LongPredicate;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * 融合的long流水线
+ * LongStream.range(...).map(...).filter(...).sum()的每个中间操作是一个Sink, 每个元素逐级调用accept;
+ * 多条流水线使用不同的lambda时, Sink中调用mapper/predicate的位置见到多种类型(megamorphic), JIT无法内联, 每个元素每一级都是一次接口分派
+ * <p>
+ * LongPipe把中间操作合并为before(map) -> predicate(filter) -> after(map)三段, 终结操作是直接遍历数据源的一个循环(FusedLongLoop);
+ * 相邻的map合成一个函数, 相邻的filter合成一个条件, map-filter-map之外更长的形式把后面的filter并入predicate,
+ * 此时predicate和after会对同一元素各执行一次中间的map, 与Stream一样要求行为参数无状态
+ * <p>
+ * LongPipe compile(); 为这条流水线复制一个专属的循环类, 合成map/filter的函数类(FusedLongLoop.Compose, And, MapThenTest)也每个复制一份,
+ * 循环和合成函数中的调用点只见过这条流水线的lambda, 可以内联为与手写循环相当的代码;
+ * 复制会定义新类(循环类1个, 每个合成函数1个), 适用于反复执行的热点流水线, 编译后的LongPipe应保存复用;
+ * 未编译的LongPipe中合成函数的类被所有流水线共用, 多阶段的流水线与LongStream一样会遇到megamorphic的调用点
+ * <p>
+ * LongPipe range(long startInclusive, long endExclusive) / rangeClosed / of(long... values) / of(long[] array, int from, int to); 数据源
+ * LongPipe map(LongUnaryOperator mapper) / filter(LongPredicate predicate); 中间操作
+ * sum, count, min, max, average, reduce, anyMatch, allMatch, noneMatch, forEach, toArray; 终结操作, 结果同LongStream
+ * <p>
+ * LongPipe不可变, 同一个LongPipe可以反复执行终结操作, 也可以被多个线程同时使用; 只支持串行, 需要并行时使用LongStream
+ *
+ * @Auther: Akang
+ * @Date: 2026/10/19 01:35
+ * @Description:
+ */
+public final class LongPipe {
+
+    private static final LongUnaryOperator IDENTITY = x -> x;
+    private static final LongPredicate ALWAYS = x -> true;
+    private static final Class<?>[] LOOP_PARAMETERS = {LongUnaryOperator.class, LongPredicate.class, LongUnaryOperator.class};
+    private static final Class<?>[] COMPOSE_PARAMETERS = {LongUnaryOperator.class, LongUnaryOperator.class};
+    private static final Class<?>[] AND_PARAMETERS = {LongPredicate.class, LongPredicate.class};
+    private static final Class<?>[] MAP_THEN_TEST_PARAMETERS = {LongUnaryOperator.class, LongPredicate.class};
+
+    /**
+     * 数据源, array为null时为区间[from, to), 否则为数组下标[from, to)
+     */
+    private final long[] array;
+    private final long from;
+    private final long to;
+
+    /**
+     * 中间操作, 按调用顺序保存, 在fold中合并; mapping[i]表示第i个阶段是否为map
+     */
+    private final Object[] stages;
+    private final boolean[] mapping;
+
+    /**
+     * 终结操作的循环, 第一次使用时创建
+     */
+    private volatile Loop loop;
+
+    private LongPipe(long[] array, long from, long to, Object[] stages, boolean[] mapping, Loop loop) {
+        this.array = array;
+        this.from = from;
+        this.to = to;
+        this.stages = stages;
+        this.mapping = mapping;
+        this.loop = loop;
+    }
+
+    /**
+     * 区间[startInclusive, endExclusive)
+     */
+    public static LongPipe range(long startInclusive, long endExclusive) {
+        return new LongPipe(null, startInclusive, Math.max(startInclusive, endExclusive), new Object[0], new boolean[0], null);
+    }
+
+    /**
+     * 区间[startInclusive, endInclusive], endInclusive不能为Long.MAX_VALUE
+     */
+    public static LongPipe rangeClosed(long startInclusive, long endInclusive) {
+        if (endInclusive == Long.MAX_VALUE) {
+            throw new IllegalArgumentException("endInclusive must be less than Long.MAX_VALUE");
+        }
+        return range(startInclusive, endInclusive + 1);
+    }
+
+    /**
+     * 数组元素, 不复制数组
+     */
+    public static LongPipe of(long... values) {
+        return of(values, 0, values.length);
+    }
+
+    /**
+     * 数组[from, to)范围的元素, 不复制数组
+     */
+    public static LongPipe of(long[] array, int from, int to) {
+        Objects.requireNonNull(array);
+        if (from < 0 || to > array.length || from > to) {
+            throw new ArrayIndexOutOfBoundsException("from: " + from + ", to: " + to + ", length: " + array.length);
+        }
+        return new LongPipe(array, from, to, new Object[0], new boolean[0], null);
+    }
+
+    public LongPipe map(LongUnaryOperator mapper) {
+        return append(Objects.requireNonNull(mapper), true);
+    }
+
+    public LongPipe filter(LongPredicate predicate) {
+        return append(Objects.requireNonNull(predicate), false);
+    }
+
+    /**
+     * 复制一个只属于这条流水线的循环类, 已编译时返回自身
+     */
+    public LongPipe compile() {
+        Loop current = loop;
+        if (current != null && current.getClass() != FusedLongLoop.class) {
+            return this;
+        }
+        Loop specialized = LoopSpecializer.specialize(FusedLongLoop.class, Loop.class, LOOP_PARAMETERS, fold(true));
+        return new LongPipe(array, from, to, stages, mapping, specialized);
+    }
+
+    private LongPipe append(Object stage, boolean map) {
+        Object[] next = Arrays.copyOf(stages, stages.length + 1);
+        next[stages.length] = stage;
+        boolean[] nextMapping = Arrays.copyOf(mapping, mapping.length + 1);
+        nextMapping[mapping.length] = map;
+        return new LongPipe(array, from, to, next, nextMapping, null);
+    }
+
+    /**
+     * 合并为before, predicate, after三段, 作为循环类的构造参数
+     *
+     * @param specialize 合成函数是否各自复制一个类
+     */
+    private Object[] fold(boolean specialize) {
+        LongUnaryOperator before = null;
+        LongPredicate predicate = null;
+        LongUnaryOperator after = null;
+        for (int i = 0, j; i < stages.length; i = j) {
+            j = i + 1;
+            if (mapping[i]) {
+                LongUnaryOperator mapper = (LongUnaryOperator) stages[i];
+                for (; j < stages.length && mapping[j]; j++) {
+                    mapper = compose(mapper, (LongUnaryOperator) stages[j], specialize);
+                }
+                if (predicate == null) {
+                    before = mapper;
+                } else {
+                    after = after == null ? mapper : compose(after, mapper, specialize);
+                }
+            } else {
+                LongPredicate filter = (LongPredicate) stages[i];
+                for (; j < stages.length && !mapping[j]; j++) {
+                    filter = and(filter, (LongPredicate) stages[j], specialize);
+                }
+                // 两组filter之间一定有map, 此时after不为null
+                predicate = predicate == null ? filter : and(predicate, mapThenTest(after, filter, specialize), specialize);
+            }
+        }
+        return new Object[]{before == null ? IDENTITY : before, predicate == null ? ALWAYS : predicate,
+                after == null ? IDENTITY : after};
+    }
+
+    private static LongUnaryOperator compose(LongUnaryOperator first, LongUnaryOperator second, boolean specialize) {
+        return specialize
+                ? LoopSpecializer.specialize(FusedLongLoop.Compose.class, LongUnaryOperator.class, COMPOSE_PARAMETERS, first, second)
+                : new FusedLongLoop.Compose(first, second);
+    }
+
+    private static LongPredicate and(LongPredicate first, LongPredicate second, boolean specialize) {
+        return specialize
+                ? LoopSpecializer.specialize(FusedLongLoop.And.class, LongPredicate.class, AND_PARAMETERS, first, second)
+                : new FusedLongLoop.And(first, second);
+    }
+
+    private static LongPredicate mapThenTest(LongUnaryOperator mapper, LongPredicate predicate, boolean specialize) {
+        return specialize
+                ? LoopSpecializer.specialize(FusedLongLoop.MapThenTest.class, LongPredicate.class, MAP_THEN_TEST_PARAMETERS, mapper, predicate)
+                : new FusedLongLoop.MapThenTest(mapper, predicate);
+    }
+
+    private Loop loop() {
+        Loop current = loop;
+        if (current == null) {
+            Object[] folded = fold(false);
+            current = new FusedLongLoop((LongUnaryOperator) folded[0], (LongPredicate) folded[1], (LongUnaryOperator) folded[2]);
+            loop = current;
+        }
+        return current;
+    }
+
+    private boolean hasFilter() {
+        for (boolean map : mapping) {
+            if (!map) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 同LongStream.sum(), 溢出时按long回绕
+     */
+    public long sum() {
+        return loop().sum(array, from, to);
+    }
+
+    /**
+     * 没有filter时直接返回数据源大小, 不执行map
+     */
+    public long count() {
+        return hasFilter() ? loop().count(array, from, to) : to - from;
+    }
+
+    public OptionalLong min() {
+        return loop().min(array, from, to);
+    }
+
+    public OptionalLong max() {
+        return loop().max(array, from, to);
+    }
+
+    /**
+     * 平均值, 同LongStream.average(), 和按long累加
+     */
+    public OptionalDouble average() {
+        return loop().average(array, from, to);
+    }
+
+    public long reduce(long identity, LongBinaryOperator op) {
+        return loop().reduce(array, from, to, identity, Objects.requireNonNull(op));
+    }
+
+    public boolean anyMatch(LongPredicate predicate) {
+        return loop().anyMatch(array, from, to, Objects.requireNonNull(predicate));
+    }
+
+    public boolean allMatch(LongPredicate predicate) {
+        return !anyMatch(predicate.negate());
+    }
+
+    public boolean noneMatch(LongPredicate predicate) {
+        return !anyMatch(predicate);
+    }
+
+    public void forEach(LongConsumer action) {
+        loop().forEach(array, from, to, Objects.requireNonNull(action));
+    }
+
+    public long[] toArray() {
+        return loop().toArray(array, from, to, !hasFilter());
+    }
+
+    /**
+     * 终结操作的循环, 由FusedLongLoop实现; 复制出的循环类在另一个类加载器中, 只能通过public接口访问
+     */
+    public interface Loop {
+
+        long sum(long[] array, long from, long to);
+
+        long count(long[] array, long from, long to);
+
+        OptionalLong min(long[] array, long from, long to);
+
+        OptionalLong max(long[] array, long from, long to);
+
+        OptionalDouble average(long[] array, long from, long to);
+
+        long reduce(long[] array, long from, long to, long identity, LongBinaryOperator op);
+
+        boolean anyMatch(long[] array, long from, long to, LongPredicate match);
+
+        void forEach(long[] array, long from, long to, LongConsumer action);
+
+        /**
+         * @param exact 结果个数是否等于数据源大小
+         */
+        long[] toArray(long[] array, long from, long to, boolean exact);
+    }
+}
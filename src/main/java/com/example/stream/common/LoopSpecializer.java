@@ -0,0 +1,95 @@
+package com.example.stream.common;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Constructor;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 循环类的复制
+ * JIT按调用点收集类型信息, 同一个循环类被多条流水线使用时, 循环中的函数调用点会见到多种lambda而无法内联;
+ * 在新的类加载器中用同样的字节码再定义一次循环类, 得到一个只属于一条流水线的类, 它的调用点各自收集类型信息
+ * <p>
+ * 每次复制都会定义一个新类, 复制的结果应保存复用; 读取字节码或定义失败时退回使用原来的类
+ *
+ * @Auther: Akang
+ * @Date: 2026/10/19 01:30
+ * @Description:
+ */
+final class LoopSpecializer {
+
+    /**
+     * 模板类 -> 字节码
+     */
+    private static final ConcurrentMap<Class<?>, byte[]> BYTECODES = new ConcurrentHashMap<>();
+
+    private LoopSpecializer() {
+    }
+
+    /**
+     * 在新的类加载器中复制template并用args构造实例
+     *
+     * @param template       循环类, 只能依赖public类型, 构造方法参数为parameterTypes
+     * @param loopType       template实现的public接口
+     * @param parameterTypes 构造方法参数类型
+     */
+    static <L> L specialize(Class<? extends L> template, Class<L> loopType, Class<?>[] parameterTypes, Object... args) {
+        try {
+            byte[] bytecode = BYTECODES.computeIfAbsent(template, LoopSpecializer::read);
+            if (bytecode.length > 0) {
+                Class<?> copy = new CopyClassLoader(template.getClassLoader()).define(template.getName(), bytecode);
+                return loopType.cast(newInstance(copy, parameterTypes, args));
+            }
+        } catch (ReflectiveOperationException | LinkageError | SecurityException e) {
+            // 退回使用原来的类
+        }
+        try {
+            return loopType.cast(newInstance(template, parameterTypes, args));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot instantiate " + template.getName(), e);
+        }
+    }
+
+    private static Object newInstance(Class<?> type, Class<?>[] parameterTypes, Object[] args) throws ReflectiveOperationException {
+        Constructor<?> constructor = type.getDeclaredConstructor(parameterTypes);
+        constructor.setAccessible(true);
+        return constructor.newInstance(args);
+    }
+
+    /**
+     * 读取template的class文件, 读取不到时返回空数组
+     */
+    private static byte[] read(Class<?> template) {
+        String resource = template.getName().substring(template.getName().lastIndexOf('.') + 1) + ".class";
+        try (InputStream in = template.getResourceAsStream(resource)) {
+            if (in == null) {
+                return new byte[0];
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } catch (IOException e) {
+            return new byte[0];
+        }
+    }
+
+    /**
+     * 只定义一个复制类, 其他类委托给父加载器
+     */
+    private static final class CopyClassLoader extends ClassLoader {
+
+        CopyClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        Class<?> define(String name, byte[] bytecode) {
+            return defineClass(name, bytecode, 0, bytecode.length);
+        }
+    }
+}
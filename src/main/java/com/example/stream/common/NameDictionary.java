@@ -0,0 +1,76 @@
+package com.example.stream.common;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 姓名字典
+ * 每个不同的姓名分配一个从0开始的编号, 并保存第一次出现的String实例; 同一个字典编码的姓名共享同一个String和编号,
+ * 比较姓名时只比较int编号, 不再逐字符比较String
+ * <p>
+ * 字典由使用它的对象持有(如EmployeeTable的姓名列), 随持有者一起回收, 没有全局登记;
+ * 只增不减, 适用于姓名取值有限的场景
+ * <p>
+ * 非线程安全: 写入(intern)需在读取前完成, 写入完成后可并发读取
+ *
+ * @Auther: Akang
+ * @Date: 2026/10/18 22:55
+ * @Description:
+ */
+public final class NameDictionary {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * 姓名 -> 编号
+     */
+    private final Map<String, Integer> ids = new HashMap<>();
+
+    /**
+     * 编号 -> 姓名
+     */
+    private String[] names = new String[DEFAULT_CAPACITY];
+    private int size;
+
+    /**
+     * name的编号, 不存在时分配新编号
+     */
+    public int intern(String name) {
+        Integer id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+        if (size == names.length) {
+            names = Arrays.copyOf(names, size << 1);
+        }
+        names[size] = name;
+        ids.put(name, size);
+        return size++;
+    }
+
+    /**
+     * name的编号, 不在字典中时返回-1
+     */
+    public int idOf(String name) {
+        Integer id = ids.get(name);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * 编号对应的姓名实例
+     */
+    public String name(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("nameId: " + id + ", distinctNames: " + size);
+        }
+        return names[id];
+    }
+
+    /**
+     * 字典中姓名个数
+     */
+    public int size() {
+        return size;
+    }
+}
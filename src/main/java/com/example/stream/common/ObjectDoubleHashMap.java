@@ -0,0 +1,181 @@
+package com.example.stream.common;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.ObjDoubleConsumer;
+
+/**
+ * 开放寻址(线性探测)的Object->double哈希表
+ * 键存放在Object[]中, 值存放在double[]中, 不创建HashMap.Node, 值不装箱, 用于替代Map<K, Double>做分组统计
+ * 不允许null键, 非线程安全
+ *
+ * @Auther: Akang
+ * @Date: 2026/10/18 15:02
+ * @Description:
+ */
+public class ObjectDoubleHashMap<K> {
+
+    private Object[] keys;
+    private double[] values;
+    private int size;
+    private int threshold;
+
+    public ObjectDoubleHashMap() {
+        this(OpenAddressing.DEFAULT_CAPACITY);
+    }
+
+    public ObjectDoubleHashMap(int expectedSize) {
+        allocate(OpenAddressing.capacityFor(expectedSize));
+    }
+
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        values = new double[capacity];
+        threshold = OpenAddressing.threshold(capacity);
+    }
+
+    /**
+     * key所在的槽位, 不存在时返回 -(插入槽位 + 1)
+     */
+    private int slot(Object key) {
+        int mask = keys.length - 1;
+        int i = OpenAddressing.mix(key.hashCode()) & mask;
+        Object k;
+        while ((k = keys[i]) != null) {
+            if (k == key || k.equals(key)) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -(i + 1);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(K key) {
+        return slot(Objects.requireNonNull(key)) >= 0;
+    }
+
+    /**
+     * 获取key对应的值, key不存在时返回0
+     */
+    public double get(K key) {
+        return getOrDefault(key, 0);
+    }
+
+    /**
+     * 获取key对应的值, key不存在时返回defaultValue
+     */
+    public double getOrDefault(K key, double defaultValue) {
+        int i = slot(Objects.requireNonNull(key));
+        return i >= 0 ? values[i] : defaultValue;
+    }
+
+    /**
+     * 设置key对应的值
+     *
+     * @return 原值, key不存在时返回0
+     */
+    public double put(K key, double value) {
+        int i = slot(Objects.requireNonNull(key));
+        if (i >= 0) {
+            double old = values[i];
+            values[i] = value;
+            return old;
+        }
+        insert(-i - 1, key, value);
+        return 0;
+    }
+
+    /**
+     * key对应的值加上delta, key不存在时视为0
+     *
+     * @return 相加后的值
+     */
+    public double addTo(K key, double delta) {
+        int i = slot(Objects.requireNonNull(key));
+        if (i >= 0) {
+            return values[i] += delta;
+        }
+        insert(-i - 1, key, delta);
+        return delta;
+    }
+
+    /**
+     * 将other中每个键的值累加到当前表中, 用作并行收集时的combiner
+     */
+    public ObjectDoubleHashMap<K> addAll(ObjectDoubleHashMap<? extends K> other) {
+        Object[] otherKeys = other.keys;
+        double[] otherValues = other.values;
+        for (int i = 0; i < otherKeys.length; i++) {
+            if (otherKeys[i] != null) {
+                @SuppressWarnings("unchecked")
+                K key = (K) otherKeys[i];
+                addTo(key, otherValues[i]);
+            }
+        }
+        return this;
+    }
+
+    private void insert(int i, Object key, double value) {
+        keys[i] = key;
+        values[i] = value;
+        if (++size > threshold) {
+            rehash(keys.length << 1);
+        }
+    }
+
+    private void rehash(int capacity) {
+        Object[] oldKeys = keys;
+        double[] oldValues = values;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            Object key = oldKeys[j];
+            if (key != null) {
+                int i = OpenAddressing.mix(key.hashCode()) & mask;
+                while (keys[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = key;
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    /**
+     * 遍历所有键值对, 顺序不确定
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(ObjDoubleConsumer<? super K> action) {
+        Objects.requireNonNull(action);
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                action.accept((K) keys[i], values[i]);
+            }
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(keys, null);
+        size = 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        forEach((key, value) -> {
+            if (sb.length() > 1) {
+                sb.append(", ");
+            }
+            sb.append(key).append('=').append(value);
+        });
+        return sb.append('}').toString();
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.stream.common;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * 开放寻址(线性探测)的Object集合
+ * 元素直接存放在Object[]中, 不像HashSet那样为每个元素创建HashMap.Node, 用于去重
+ * 不允许null元素, 非线程安全
+ *
+ * @Auther: Akang
+ * @Date: 2026/10/18 22:10
+ * @Description:
+ */
+public class ObjectHashSet<E> {
+
+    private Object[] elements;
+    private int size;
+    private int threshold;
+
+    public ObjectHashSet() {
+        this(OpenAddressing.DEFAULT_CAPACITY);
+    }
+
+    public ObjectHashSet(int expectedSize) {
+        allocate(OpenAddressing.capacityFor(expectedSize));
+    }
+
+    private void allocate(int capacity) {
+        elements = new Object[capacity];
+        threshold = OpenAddressing.threshold(capacity);
+    }
+
+    /**
+     * e所在的槽位, 不存在时返回 -(插入槽位 + 1)
+     */
+    private int slot(Object e) {
+        int mask = elements.length - 1;
+        int i = OpenAddressing.mix(e.hashCode()) & mask;
+        Object k;
+        while ((k = elements[i]) != null) {
+            if (k == e || k.equals(e)) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -(i + 1);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(E e) {
+        return slot(Objects.requireNonNull(e)) >= 0;
+    }
+
+    /**
+     * 添加元素
+     *
+     * @return 集合中原来没有e时返回true
+     */
+    public boolean add(E e) {
+        int i = slot(Objects.requireNonNull(e));
+        if (i >= 0) {
+            return false;
+        }
+        elements[-i - 1] = e;
+        if (++size > threshold) {
+            rehash(elements.length << 1);
+        }
+        return true;
+    }
+
+    private void rehash(int capacity) {
+        Object[] old = elements;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (Object e : old) {
+            if (e != null) {
+                int i = OpenAddressing.mix(e.hashCode()) & mask;
+                while (elements[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                elements[i] = e;
+            }
+        }
+    }
+
+    /**
+     * 遍历所有元素, 顺序不确定
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<? super E> action) {
+        Objects.requireNonNull(action);
+        for (Object e : elements) {
+            if (e != null) {
+                action.accept((E) e);
+            }
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(elements, null);
+        size = 0;
+    }
+}
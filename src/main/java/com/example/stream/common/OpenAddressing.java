@@ -0,0 +1,62 @@
+package com.example.stream.common;
+
+/**
+ * 开放寻址(线性探测)哈希表共用的容量计算和扰动函数
+ * LongHashSet, ObjectHashSet, ObjectLongHashMap, ObjectDoubleHashMap, IntObjectHashMap只保留各自类型的探测和存储,
+ * 表长为2的幂, 槽位为mix(hash) & (表长 - 1)
+ *
+ * @Auther: Akang
+ * @Date: 2026/10/19 03:10
+ * @Description:
+ */
+final class OpenAddressing {
+
+    static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * 装载因子, 线性探测在装载因子较低时探测次数少
+     */
+    static final float LOAD_FACTOR = 0.5F;
+
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    private OpenAddressing() {
+    }
+
+    /**
+     * 放入expectedSize个元素不需要扩容的表长
+     */
+    static int capacityFor(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Illegal expected size: " + expectedSize);
+        }
+        int capacity = (int) Math.min(MAXIMUM_CAPACITY, (long) Math.ceil(expectedSize / LOAD_FACTOR));
+        int n = DEFAULT_CAPACITY;
+        while (n < capacity) {
+            n <<= 1;
+        }
+        return n;
+    }
+
+    /**
+     * 表长为capacity时, 元素个数超过该值即扩容
+     */
+    static int threshold(int capacity) {
+        return (int) (capacity * LOAD_FACTOR);
+    }
+
+    /**
+     * 扰动函数, 乘以黄金分割常数后高16位与低16位混合, 使低位也受高位影响
+     */
+    static int mix(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * 高32位与低32位混合后再扰动
+     */
+    static int mix(long value) {
+        return mix((int) (value ^ (value >>> 32)));
+    }
+}
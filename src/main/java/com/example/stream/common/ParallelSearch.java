@@ -0,0 +1,255 @@
+package com.example.stream.common;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+import java.util.function.Predicate;
+
+/**
+ * 并行查找
+ * 并行流的anyMatch/findAny找到结果后, 已经开始的兄弟任务要处理完自己的整段数据才结束, 谓词耗时较长时找到结果之后还要等很久;
+ * findFirst还必须等左侧所有任务完成, 而fork/join优先执行的往往是右侧被窃取的大任务
+ * <p>
+ * ParallelSearch把数据源按下标切成小块, 工作线程从共享的计数器按从左到右的顺序领取下一块:
+ * 1. 共享的结果下标作为取消标志, 每个元素执行谓词前检查一次, 找到后其他线程最多再执行一次谓词就停止
+ * 2. findFirst时只有结果左侧的元素需要继续检查, 块按下标顺序领取, 越靠左的块越早被处理(左偏调度)
+ * 3. 块的大小由每个元素的耗时提示决定, 每块约TARGET_CHUNK_NANOS, 预估总耗时不到一块时在调用线程中顺序查找
+ * <p>
+ * Source<T> of(List<T> list) / of(T... array) / of(long size, LongFunction<? extends T> element); 按下标访问的数据源
+ * Source<T> costPerElement(double nanos); 每个元素执行谓词的耗时提示, 默认DEFAULT_NANOS_PER_ELEMENT
+ * Source<T> pool(ForkJoinPool pool); 执行查找的线程池, 默认ForkJoinPool.commonPool()
+ * anyMatch, allMatch, noneMatch, findAny, findFirst, indexOfFirst; 结果同并行流, findAny/findFirst的结果为null时抛出NullPointerException
+ * <p>
+ * ParallelSearch.of(list).costPerElement(50_000).findFirst(this::expensiveCheck);
+ *
+ * @Auther: Akang
+ * @Date: 2026/10/19 02:00
+ * @Description:
+ */
+public final class ParallelSearch {
+
+    /**
+     * 每块的预估耗时(10微秒), 领取一块的开销(一次原子操作)相对可以忽略
+     */
+    public static final long TARGET_CHUNK_NANOS = 10_000L;
+
+    /**
+     * 没有提示时, 假定每个元素执行谓词的耗时(纳秒)
+     */
+    public static final double DEFAULT_NANOS_PER_ELEMENT = 100D;
+
+    private static final long NOT_FOUND = Long.MAX_VALUE;
+
+    private ParallelSearch() {
+    }
+
+    /**
+     * 以列表为数据源, 不支持随机访问的列表先复制为ArrayList
+     */
+    public static <T> Source<T> of(List<T> list) {
+        List<T> randomAccess = list instanceof RandomAccess ? list : new ArrayList<>(list);
+        return new Source<>(randomAccess.size(), i -> randomAccess.get((int) i));
+    }
+
+    /**
+     * 以数组为数据源, 不复制数组
+     */
+    @SafeVarargs
+    public static <T> Source<T> of(T... array) {
+        int length = array.length;
+        return new Source<>(length, i -> array[(int) i]);
+    }
+
+    /**
+     * 下标[0, size)的元素为element(i), 同IndexedStreams.generate; element需无状态, findAny/findFirst对结果下标再调用一次
+     */
+    public static <T> Source<T> of(long size, LongFunction<? extends T> element) {
+        if (size < 0L) {
+            throw new IllegalArgumentException("Illegal size: " + size);
+        }
+        return new Source<>(size, Objects.requireNonNull(element));
+    }
+
+    /**
+     * 查找的数据源
+     */
+    public static final class Source<T> {
+
+        private final long size;
+        private final LongFunction<? extends T> element;
+        private double nanosPerElement = DEFAULT_NANOS_PER_ELEMENT;
+        private ForkJoinPool pool = ForkJoinPool.commonPool();
+
+        private Source(long size, LongFunction<? extends T> element) {
+            this.size = size;
+            this.element = element;
+        }
+
+        /**
+         * 每个元素执行谓词的耗时提示(纳秒), 谓词越慢块越小, 找到结果后浪费的计算越少
+         */
+        public Source<T> costPerElement(double nanos) {
+            if (!(nanos > 0D)) {
+                throw new IllegalArgumentException("Illegal cost per element: " + nanos);
+            }
+            this.nanosPerElement = nanos;
+            return this;
+        }
+
+        /**
+         * 执行查找的线程池
+         */
+        public Source<T> pool(ForkJoinPool pool) {
+            this.pool = Objects.requireNonNull(pool);
+            return this;
+        }
+
+        public boolean anyMatch(Predicate<? super T> predicate) {
+            return search(predicate, false) != NOT_FOUND;
+        }
+
+        public boolean allMatch(Predicate<? super T> predicate) {
+            return !anyMatch(predicate.negate());
+        }
+
+        public boolean noneMatch(Predicate<? super T> predicate) {
+            return !anyMatch(predicate);
+        }
+
+        /**
+         * 任意一个满足条件的元素
+         */
+        public Optional<T> findAny(Predicate<? super T> predicate) {
+            long index = search(predicate, false);
+            return index == NOT_FOUND ? Optional.empty() : Optional.of(element.apply(index));
+        }
+
+        /**
+         * 下标最小的满足条件的元素
+         */
+        public Optional<T> findFirst(Predicate<? super T> predicate) {
+            long index = indexOfFirst(predicate);
+            return index < 0L ? Optional.empty() : Optional.of(element.apply(index));
+        }
+
+        /**
+         * 第一个满足条件的元素的下标, 没有时返回-1
+         */
+        public long indexOfFirst(Predicate<? super T> predicate) {
+            long index = search(predicate, true);
+            return index == NOT_FOUND ? -1L : index;
+        }
+
+        /**
+         * 没有找到时返回NOT_FOUND
+         */
+        private long search(Predicate<? super T> predicate, boolean first) {
+            Objects.requireNonNull(predicate);
+            long chunk = Math.max(1L, (long) (TARGET_CHUNK_NANOS / nanosPerElement));
+            long chunks = (size - 1L) / chunk + 1L;
+            Search<T> search = new Search<>(element, size, chunk, predicate, first);
+            int workers = (int) Math.min(pool.getParallelism(), chunks);
+            if (size == 0L || workers <= 1) {
+                search.scan();
+            } else {
+                Worker[] tasks = new Worker[workers];
+                for (int i = 0; i < workers; i++) {
+                    tasks[i] = new Worker(search);
+                }
+                pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+            }
+            return search.match.get();
+        }
+    }
+
+    /**
+     * 一次查找的共享状态
+     */
+    private static final class Search<T> {
+
+        private final LongFunction<? extends T> element;
+        private final long size;
+        private final long chunk;
+        private final Predicate<? super T> predicate;
+        private final boolean first;
+
+        /**
+         * 下一块的起始下标
+         */
+        private final AtomicLong next = new AtomicLong();
+
+        /**
+         * 结果下标, 同时作为取消标志
+         */
+        private final AtomicLong match = new AtomicLong(NOT_FOUND);
+        private volatile boolean failed;
+
+        Search(LongFunction<? extends T> element, long size, long chunk, Predicate<? super T> predicate, boolean first) {
+            this.element = element;
+            this.size = size;
+            this.chunk = chunk;
+            this.predicate = predicate;
+            this.first = first;
+        }
+
+        /**
+         * findFirst时只需检查结果左侧的元素, 否则找到任意一个即停止
+         */
+        private boolean stopped(long index) {
+            long found = match.get();
+            return failed || (first ? index >= found : found != NOT_FOUND);
+        }
+
+        void scan() {
+            try {
+                while (true) {
+                    long start = next.getAndAdd(chunk);
+                    if (start >= size || stopped(start)) {
+                        return;
+                    }
+                    long end = start + Math.min(chunk, size - start);
+                    for (long i = start; i < end; i++) {
+                        if (stopped(i)) {
+                            return;
+                        }
+                        if (predicate.test(element.apply(i))) {
+                            if (first) {
+                                match.accumulateAndGet(i, Math::min);
+                            } else {
+                                match.compareAndSet(NOT_FOUND, i);
+                            }
+                            return;
+                        }
+                    }
+                }
+            } catch (RuntimeException | Error e) {
+                // 其他线程随之停止
+                failed = true;
+                throw e;
+            }
+        }
+    }
+
+    private static final class Worker extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient Search<?> search;
+
+        Worker(Search<?> search) {
+            this.search = search;
+        }
+
+        @Override
+        protected void compute() {
+            search.scan();
+        }
+    }
+}
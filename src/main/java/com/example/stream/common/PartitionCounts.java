@@ -0,0 +1,54 @@
+package com.example.stream.common;
+
+/**
+ * 分区计数结果, 用两个long分别记录满足条件与不满足条件的元素个数, 替代Map<Boolean, Long>
+ *
+ * @Auther: Akang
+ * @Date: 2026/10/18 15:12
+ * @Description:
+ */
+public final class PartitionCounts {
+
+    private long trueCount;
+    private long falseCount;
+
+    void add(boolean matched) {
+        if (matched) {
+            trueCount++;
+        } else {
+            falseCount++;
+        }
+    }
+
+    PartitionCounts addAll(PartitionCounts other) {
+        trueCount += other.trueCount;
+        falseCount += other.falseCount;
+        return this;
+    }
+
+    /**
+     * 满足条件的元素个数
+     */
+    public long getTrueCount() {
+        return trueCount;
+    }
+
+    /**
+     * 不满足条件的元素个数
+     */
+    public long getFalseCount() {
+        return falseCount;
+    }
+
+    /**
+     * 对应Map<Boolean, Long>.get(Boolean key)
+     */
+    public long get(boolean key) {
+        return key ? trueCount : falseCount;
+    }
+
+    @Override
+    public String toString() {
+        return "{false=" + falseCount + ", true=" + trueCount + "}";
+    }
+}
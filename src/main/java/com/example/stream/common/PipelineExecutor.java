@@ -0,0 +1,235 @@
+package com.example.stream.common;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * 并行流水线执行器
+ * parallelStream()的终结操作默认在ForkJoinPool.commonPool()中执行, 一个耗时的流水线或流水线中的阻塞操作会拖慢整个JVM中的所有并行流;
+ * 在ForkJoinPool的工作线程中调用终结操作时, 并行流会使用该线程所属的线程池, PipelineExecutor利用这一点把流水线隔离到独立的, 有并行度上限的线程池中
+ * <p>
+ * <R> R execute(Supplier<R> terminal); 在独立线程池中执行终结操作并等待结果
+ * <T, R> R execute(Stream<T> stream, Function<? super Stream<T>, ? extends R> terminal); 将流转为并行流后在独立线程池中执行终结操作
+ * <R> ForkJoinTask<R> submit(Supplier<R> terminal); 异步提交
+ * Metrics metrics(); 线程池及排队情况
+ * <p>
+ * 同时提交(执行中和排队中)的流水线数超过maxPending时抛出RejectedExecutionException
+ *
+ * @Auther: Akang
+ * @Date: 2026/10/18 19:02
+ * @Description:
+ */
+public class PipelineExecutor implements AutoCloseable {
+
+    private final String name;
+    private final int maxPending;
+    private final ForkJoinPool pool;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * @param name        执行器名称, 工作线程名为pipeline-{name}-{index}
+     * @param parallelism 并行度, 即工作线程数上限
+     * @param maxPending  同时提交的流水线数上限
+     */
+    public PipelineExecutor(String name, int parallelism, int maxPending) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Illegal parallelism: " + parallelism);
+        }
+        if (maxPending <= 0) {
+            throw new IllegalArgumentException("Illegal max pending: " + maxPending);
+        }
+        this.name = Objects.requireNonNull(name);
+        this.maxPending = maxPending;
+        this.pool = new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("pipeline-" + name + "-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 并行度, 即工作线程数上限
+     */
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * 在独立线程池中执行终结操作并等待结果, terminal中创建的并行流都在该线程池中执行
+     *
+     * @param terminal 包含终结操作的流水线
+     * @return 终结操作的结果
+     * @throws RejectedExecutionException 同时提交的流水线数超过上限或执行器已关闭
+     */
+    public <R> R execute(Supplier<R> terminal) {
+        Objects.requireNonNull(terminal);
+        if (inPool()) {
+            // 已在本线程池中(流水线嵌套调用), 直接执行, 避免工作线程等待自己的线程池
+            return terminal.get();
+        }
+        return submit(terminal).join();
+    }
+
+    /**
+     * 将流转为并行流后在独立线程池中执行终结操作并等待结果
+     *
+     * @param stream   流
+     * @param terminal 终结操作
+     * @return 终结操作的结果
+     */
+    public <T, R> R execute(Stream<T> stream, Function<? super Stream<T>, ? extends R> terminal) {
+        Objects.requireNonNull(stream);
+        Objects.requireNonNull(terminal);
+        return execute(() -> terminal.apply(stream.parallel()));
+    }
+
+    /**
+     * 在独立线程池中执行无返回值的流水线并等待结束
+     */
+    public void run(Runnable terminal) {
+        Objects.requireNonNull(terminal);
+        execute(() -> {
+            terminal.run();
+            return null;
+        });
+    }
+
+    /**
+     * 异步提交流水线
+     *
+     * @param terminal 包含终结操作的流水线
+     * @return 可以join()获取结果的任务
+     * @throws RejectedExecutionException 同时提交的流水线数超过上限或执行器已关闭
+     */
+    public <R> ForkJoinTask<R> submit(Supplier<R> terminal) {
+        Objects.requireNonNull(terminal);
+        if (pending.incrementAndGet() > maxPending) {
+            pending.decrementAndGet();
+            rejected.increment();
+            throw new RejectedExecutionException("Pipeline executor " + name + " has " + maxPending + " pending pipelines");
+        }
+        try {
+            return pool.submit(() -> {
+                try {
+                    R result = terminal.get();
+                    completed.increment();
+                    return result;
+                } catch (RuntimeException | Error e) {
+                    failed.increment();
+                    throw e;
+                } finally {
+                    pending.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.decrementAndGet();
+            rejected.increment();
+            throw e;
+        }
+    }
+
+    private boolean inPool() {
+        Thread thread = Thread.currentThread();
+        return thread instanceof ForkJoinWorkerThread && ((ForkJoinWorkerThread) thread).getPool() == pool;
+    }
+
+    /**
+     * 当前线程池及排队情况的快照
+     */
+    public Metrics metrics() {
+        return new Metrics(this);
+    }
+
+    /**
+     * 不再接受新的流水线, 已提交的流水线继续执行
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * 关闭并等待已提交的流水线执行结束
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return pool.awaitTermination(timeout, unit);
+    }
+
+    @Override
+    public void close() {
+        shutdown();
+    }
+
+    @Override
+    public String toString() {
+        return "PipelineExecutor(" + name + ", parallelism=" + pool.getParallelism() + ", maxPending=" + maxPending + ")";
+    }
+
+    /**
+     * 执行器指标
+     */
+    @Getter
+    @ToString
+    public static final class Metrics {
+
+        private final String name;
+        private final int parallelism;
+        private final int poolSize;
+        private final int activeThreadCount;
+        private final int runningThreadCount;
+
+        /**
+         * 已提交但尚未开始执行的流水线数
+         */
+        private final int queuedSubmissionCount;
+
+        /**
+         * 工作线程队列中等待执行的子任务数
+         */
+        private final long queuedTaskCount;
+        private final long stealCount;
+
+        /**
+         * 执行中和排队中的流水线数
+         */
+        private final int pendingPipelines;
+        private final long completedPipelines;
+        private final long failedPipelines;
+        private final long rejectedPipelines;
+
+        private Metrics(PipelineExecutor executor) {
+            ForkJoinPool pool = executor.pool;
+            this.name = executor.name;
+            this.parallelism = pool.getParallelism();
+            this.poolSize = pool.getPoolSize();
+            this.activeThreadCount = pool.getActiveThreadCount();
+            this.runningThreadCount = pool.getRunningThreadCount();
+            this.queuedSubmissionCount = pool.getQueuedSubmissionCount();
+            this.queuedTaskCount = pool.getQueuedTaskCount();
+            this.stealCount = pool.getStealCount();
+            this.pendingPipelines = executor.pending.get();
+            this.completedPipelines = executor.completed.sum();
+            this.failedPipelines = executor.failed.sum();
+            this.rejectedPipelines = executor.rejected.sum();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.stream.common;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按名称管理多个并行流水线执行器, 不同业务(租户)使用不同的执行器, 互不影响
+ *
+ * @Auther: Akang
+ * @Date: 2026/10/18 19:25
+ * @Description:
+ */
+public class PipelineExecutorRegistry {
+
+    private final Map<String, PipelineExecutor> executors = new ConcurrentHashMap<>();
+
+    /**
+     * 创建并注册执行器
+     *
+     * @param name        执行器名称
+     * @param parallelism 并行度
+     * @param maxPending  同时提交的流水线数上限
+     * @return 新创建的执行器
+     */
+    public PipelineExecutor register(String name, int parallelism, int maxPending) {
+        PipelineExecutor executor = new PipelineExecutor(name, parallelism, maxPending);
+        if (executors.putIfAbsent(name, executor) != null) {
+            executor.shutdown();
+            throw new IllegalStateException("Duplicate pipeline executor: " + name);
+        }
+        return executor;
+    }
+
+    /**
+     * 根据名称获取执行器
+     *
+     * @throws IllegalArgumentException 执行器不存在
+     */
+    public PipelineExecutor get(String name) {
+        PipelineExecutor executor = executors.get(name);
+        if (executor == null) {
+            throw new IllegalArgumentException("Unknown pipeline executor: " + name);
+        }
+        return executor;
+    }
+
+    /**
+     * 所有执行器的指标
+     */
+    public List<PipelineExecutor.Metrics> metrics() {
+        List<PipelineExecutor.Metrics> metrics = new ArrayList<>(executors.size());
+        executors.values().forEach(executor -> metrics.add(executor.metrics()));
+        return metrics;
+    }
+
+    /**
+     * 关闭所有执行器
+     */
+    public void shutdown() {
+        executors.values().forEach(PipelineExecutor::shutdown);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.stream.common;
+
+import java.util.Objects;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+
+/**
+ * 基本类型收集器
+ * Collectors.groupingBy(classifier, Collectors.counting())等收集器的结果为Map<K, Long>, 每个计数都是装箱的Long, 每个键都对应一个HashMap.Node;
+ * PrimitiveCollectors的结果容器为开放寻址哈希表, 计数/求和直接存放在long[]/double[]中, 不装箱
+ * <p>
+ * Collector<T, ?, ObjectLongHashMap<K>> groupingByToLongCounts(Function<? super T, ? extends K> classifier) 分组计数
+ * Collector<T, ?, ObjectLongHashMap<K>> summingLongBy(Function<? super T, ? extends K> classifier, ToLongFunction<? super T> mapper) 分组求和
+ * Collector<T, ?, ObjectDoubleHashMap<K>> summingDoubleBy(Function<? super T, ? extends K> classifier, ToDoubleFunction<? super T> mapper) 分组求和
+ * Collector<T, ?, IntObjectHashMap<U>> toIntObjectMap(ToIntFunction<? super T> keyMapper, Function<? super T, ? extends U> valueMapper) 以int为键
+ * Collector<T, ?, PartitionCounts> partitioningByCounting(Predicate<? super T> predicate) 分区计数
+ * <p>
+ * 所有收集器都提供combiner, 可以用于并行流
+ *
+ * @Auther: Akang
+ * @Date: 2026/10/18 15:20
+ * @Description:
+ */
+public final class PrimitiveCollectors {
+
+    private PrimitiveCollectors() {
+    }
+
+    /**
+     * 根据分组条件classifier分组计数, 同Collectors.groupingBy(classifier, Collectors.counting())
+     */
+    public static <T, K> Collector<T, ?, ObjectLongHashMap<K>> groupingByToLongCounts(Function<? super T, ? extends K> classifier) {
+        Objects.requireNonNull(classifier);
+        return Collector.of(ObjectLongHashMap::new,
+                (map, t) -> map.addTo(classify(classifier, t), 1L),
+                ObjectLongHashMap::addAll);
+    }
+
+    /**
+     * 根据分组条件classifier分组, 对mapper的结果求和, 同Collectors.groupingBy(classifier, Collectors.summingLong(mapper))
+     */
+    public static <T, K> Collector<T, ?, ObjectLongHashMap<K>> summingLongBy(Function<? super T, ? extends K> classifier,
+                                                                            ToLongFunction<? super T> mapper) {
+        Objects.requireNonNull(classifier);
+        Objects.requireNonNull(mapper);
+        return Collector.of(ObjectLongHashMap::new,
+                (map, t) -> map.addTo(classify(classifier, t), mapper.applyAsLong(t)),
+                ObjectLongHashMap::addAll);
+    }
+
+    /**
+     * 根据分组条件classifier分组, 对mapper的结果求和, 同Collectors.groupingBy(classifier, Collectors.summingDouble(mapper))
+     * 与Collectors.summingDouble不同, 直接累加不做Kahan补偿
+     */
+    public static <T, K> Collector<T, ?, ObjectDoubleHashMap<K>> summingDoubleBy(Function<? super T, ? extends K> classifier,
+                                                                                ToDoubleFunction<? super T> mapper) {
+        Objects.requireNonNull(classifier);
+        Objects.requireNonNull(mapper);
+        return Collector.of(ObjectDoubleHashMap::new,
+                (map, t) -> map.addTo(classify(classifier, t), mapper.applyAsDouble(t)),
+                ObjectDoubleHashMap::addAll);
+    }
+
+    /**
+     * 以keyMapper的结果为键收集到IntObjectHashMap, 键重复时抛出IllegalStateException, 同Collectors.toMap(keyMapper, valueMapper)
+     */
+    public static <T, U> Collector<T, ?, IntObjectHashMap<U>> toIntObjectMap(ToIntFunction<? super T> keyMapper,
+                                                                          Function<? super T, ? extends U> valueMapper) {
+        return toIntObjectMap(keyMapper, valueMapper, (existingValue, newValue) -> {
+            throw new IllegalStateException(String.format("Duplicate key (attempted merging values %s and %s)", existingValue, newValue));
+        });
+    }
+
+    /**
+     * 以keyMapper的结果为键收集到IntObjectHashMap, 键重复时使用mergeFunction合并, 同Collectors.toMap(keyMapper, valueMapper, mergeFunction)
+     */
+    public static <T, U> Collector<T, ?, IntObjectHashMap<U>> toIntObjectMap(ToIntFunction<? super T> keyMapper,
+                                                                          Function<? super T, ? extends U> valueMapper,
+                                                                          BinaryOperator<U> mergeFunction) {
+        Objects.requireNonNull(keyMapper);
+        Objects.requireNonNull(valueMapper);
+        Objects.requireNonNull(mergeFunction);
+        return Collector.of(IntObjectHashMap::new,
+                (map, t) -> map.merge(keyMapper.applyAsInt(t), valueMapper.apply(t), mergeFunction),
+                (left, right) -> left.mergeAll(right, mergeFunction));
+    }
+
+    /**
+     * 根据predicate分区计数, 同Collectors.partitioningBy(predicate, Collectors.counting())
+     */
+    public static <T> Collector<T, ?, PartitionCounts> partitioningByCounting(Predicate<? super T> predicate) {
+        Objects.requireNonNull(predicate);
+        return Collector.of(PartitionCounts::new,
+                (counts, t) -> counts.add(predicate.test(t)),
+                PartitionCounts::addAll);
+    }
+
+    private static <T, K> K classify(Function<? super T, ? extends K> classifier, T t) {
+        return Objects.requireNonNull(classifier.apply(t), "element cannot be mapped to a null key");
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.stream.common;
+
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/**
+ * 可拆分的随机数流
+ * IntStream.generate(() -> new Random().nextInt())每个元素新建一个Random; 并行流中共用一个Random(Math::random)时所有线程竞争同一个种子(CAS);
+ * SplittableRandom.ints()可以并行, 但拆分方式随线程数变化, 同一个种子在不同机器上得到的序列不同
+ * <p>
+ * RandomStreams是计数器模式的SplitMix64: 第i个随机数只由(seed, i)决定, 不需要共享状态, 数据源为IndexedStreams.generate, SIZED且O(1)拆分,
+ * 无论串行还是并行, 多少个线程, 同一个种子输出的序列都相同
+ * <p>
+ * LongStream longs(long seed, long n); 同new SplittableRandom(seed)连续调用n次nextLong()
+ * IntStream ints(long seed, long n); 同new SplittableRandom(seed)连续调用n次nextInt()
+ * DoubleStream doubles(long seed, long n); [0, 1)之间, 同new SplittableRandom(seed)连续调用n次nextDouble()
+ * ints/longs/doubles(long seed, long n, origin, bound); [origin, bound)之间, 均匀分布, 与SplittableRandom的结果不同
+ * long longAt(long seed, long index); 第index个随机数, 一条记录需要多个随机字段时, 每个字段使用不同的种子
+ * <p>
+ * 不是密码学安全的随机数, 只适合模拟, 测试数据生成等场景
+ *
+ * @Auther: Akang
+ * @Date: 2026/10/19 01:55
+ * @Description:
+ */
+public final class RandomStreams {
+
+    /**
+     * SplittableRandom的默认步长(黄金分割)
+     */
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+    private RandomStreams() {
+    }
+
+    /**
+     * 第index个long随机数
+     */
+    public static long longAt(long seed, long index) {
+        return mix64(seed + (index + 1L) * GOLDEN_GAMMA);
+    }
+
+    public static LongStream longs(long seed, long n) {
+        return IndexedStreams.generateLong(n, i -> longAt(seed, i));
+    }
+
+    public static IntStream ints(long seed, long n) {
+        return IndexedStreams.generateInt(n, i -> mix32(seed + (i + 1L) * GOLDEN_GAMMA));
+    }
+
+    public static DoubleStream doubles(long seed, long n) {
+        return IndexedStreams.generateDouble(n, i -> (longAt(seed, i) >>> 11) * DOUBLE_UNIT);
+    }
+
+    /**
+     * [origin, bound)之间均匀分布的long随机数
+     */
+    public static LongStream longs(long seed, long n, long origin, long bound) {
+        checkRange(origin < bound);
+        return IndexedStreams.generateLong(n, i -> boundedLong(longAt(seed, i), origin, bound));
+    }
+
+    /**
+     * [origin, bound)之间均匀分布的int随机数
+     */
+    public static IntStream ints(long seed, long n, int origin, int bound) {
+        checkRange(origin < bound);
+        return IndexedStreams.generateInt(n, i -> boundedInt(longAt(seed, i), origin, bound));
+    }
+
+    /**
+     * [origin, bound)之间的double随机数
+     */
+    public static DoubleStream doubles(long seed, long n, double origin, double bound) {
+        checkRange(origin < bound && bound - origin < Double.POSITIVE_INFINITY);
+        return IndexedStreams.generateDouble(n, i -> {
+            double r = origin + (longAt(seed, i) >>> 11) * DOUBLE_UNIT * (bound - origin);
+            return r < bound ? r : Math.nextDown(bound);
+        });
+    }
+
+    private static void checkRange(boolean valid) {
+        if (!valid) {
+            throw new IllegalArgumentException("bound must be greater than origin");
+        }
+    }
+
+    /**
+     * 乘法映射到[0, range), 落入不均匀区域时对r再次混合, 结果仍只由r决定
+     */
+    private static int boundedInt(long r, int origin, int bound) {
+        long range = (long) bound - origin;
+        long threshold = (0x1_0000_0000L - range) % range;
+        while (true) {
+            long m = (r >>> 32) * range;
+            if ((m & 0xFFFF_FFFFL) >= threshold) {
+                return (int) (origin + (m >>> 32));
+            }
+            r = mix64(r + GOLDEN_GAMMA);
+        }
+    }
+
+    /**
+     * 同SplittableRandom.nextLong(origin, bound)的取舍方式, 不均匀时对r再次混合
+     */
+    private static long boundedLong(long r, long origin, long bound) {
+        long range = bound - origin;
+        long m = range - 1L;
+        if ((range & m) == 0L) {
+            return (r & m) + origin;
+        }
+        if (range > 0L) {
+            while (true) {
+                long u = r >>> 1;
+                long value = u % range;
+                if (u + m - value >= 0L) {
+                    return value + origin;
+                }
+                r = mix64(r + GOLDEN_GAMMA);
+            }
+        }
+        // 区间超过Long.MAX_VALUE, 直接取舍
+        while (r < origin || r >= bound) {
+            r = mix64(r + GOLDEN_GAMMA);
+        }
+        return r;
+    }
+
+    /**
+     * SplitMix64的输出函数
+     */
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static int mix32(long z) {
+        z = (z ^ (z >>> 33)) * 0x62a9d9ed799705f5L;
+        return (int) (((z ^ (z >>> 28)) * 0xcb24d0a5c88c35b3L) >>> 32);
+    }
+}
@@ -0,0 +1,439 @@
+package com.example.stream.common;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 流与Reactive Streams的桥接
+ * forEach/forEachOrdered一次推送完所有元素, 没有流量控制, 下游慢时只能全部缓存或阻塞fork/join工作线程;
+ * Publisher按订阅者request(n)的需求从流中拉取元素, 没有需求时不拉取, 生产者再快也不会堆积元素
+ * <p>
+ * Publisher<T> publisher(Supplier<? extends Stream<? extends T>> streamSupplier, Executor executor); 每个订阅者一个新的流
+ * Publisher<T> publisher(Stream<? extends T> stream, Executor executor); 只能订阅一次
+ * 元素在executor中按需拉取并发送, 每次最多连续发送BATCH个元素后重新提交任务, 不长期占用executor的线程;
+ * 取消订阅后不再拉取, 上游的惰性操作随之停止, 并关闭流(执行onClose); 流正常结束或出错时同样关闭流
+ * 需求恰好用完时预读一个元素检查流是否已经结束, 结束则立即发送onComplete(不需要需求), 否则暂存该元素, 下次有需求时先发送它;
+ * 不使用getExactSizeIfKnown, sorted等有状态操作之后的流仍为SIZED, 但报告的是源的剩余个数, 不是缓存的元素个数
+ * <p>
+ * Stream<T> toStream(Publisher<? extends T> publisher, int prefetch); 反向适配, 第一次拉取时订阅,
+ * 预取prefetch个元素放入有界队列, 每消费prefetch - prefetch / 4个再请求同样数量; 关闭流时取消订阅,
+ * limit/findFirst等短路操作不会通知上游, 需要用try-with-resources关闭流
+ * <p>
+ * Java 8没有java.util.concurrent.Flow, 这里使用与之等价的org.reactivestreams接口, 可以通过FlowAdapters(JDK 9+)互相转换
+ *
+ * @Auther: Akang
+ * @Date: 2026/10/19 00:30
+ * @Description:
+ */
+public final class ReactiveStreams {
+
+    /**
+     * 每次执行最多连续发送的元素个数
+     */
+    static final int BATCH = 1024;
+
+    private ReactiveStreams() {
+    }
+
+    /**
+     * 每个订阅者从streamSupplier获得一个新的流
+     *
+     * @param executor 拉取和发送元素的线程
+     */
+    public static <T> Publisher<T> publisher(Supplier<? extends Stream<? extends T>> streamSupplier, Executor executor) {
+        Objects.requireNonNull(streamSupplier);
+        Objects.requireNonNull(executor);
+        return subscriber -> {
+            Objects.requireNonNull(subscriber);
+            StreamSubscription<T> subscription = new StreamSubscription<>(subscriber, streamSupplier, executor);
+            subscriber.onSubscribe(subscription);
+        };
+    }
+
+    /**
+     * 只能订阅一次, 之后的订阅者收到IllegalStateException
+     *
+     * @param executor 拉取和发送元素的线程
+     */
+    public static <T> Publisher<T> publisher(Stream<? extends T> stream, Executor executor) {
+        Objects.requireNonNull(stream);
+        AtomicBoolean subscribed = new AtomicBoolean();
+        Publisher<T> publisher = publisher(() -> stream, executor);
+        return subscriber -> {
+            if (subscribed.compareAndSet(false, true)) {
+                publisher.subscribe(subscriber);
+            } else {
+                Objects.requireNonNull(subscriber);
+                subscriber.onSubscribe(EmptySubscription.INSTANCE);
+                subscriber.onError(new IllegalStateException("Publisher of a stream allows only one subscriber"));
+            }
+        };
+    }
+
+    /**
+     * 把Publisher适配为串行流
+     *
+     * @param prefetch 预取个数, 即缓存元素的上限
+     */
+    public static <T> Stream<T> toStream(Publisher<? extends T> publisher, int prefetch) {
+        Objects.requireNonNull(publisher);
+        if (prefetch <= 0) {
+            throw new IllegalArgumentException("Illegal prefetch: " + prefetch);
+        }
+        QueueSubscriber<T> subscriber = new QueueSubscriber<>(publisher, prefetch);
+        Spliterator<T> spliterator = Spliterators.spliteratorUnknownSize(subscriber,
+                Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(subscriber::cancel);
+    }
+
+    private static final class EmptySubscription implements Subscription {
+
+        static final EmptySubscription INSTANCE = new EmptySubscription();
+
+        @Override
+        public void request(long n) {
+        }
+
+        @Override
+        public void cancel() {
+        }
+    }
+
+    /**
+     * 一个订阅者的订阅, 需求累加在requested中(上限Long.MAX_VALUE, 表示不限),
+     * wip保证同一时刻只有一个drain在执行, 执行期间新增的需求由正在执行的drain处理
+     */
+    private static final class StreamSubscription<T> implements Subscription, Runnable, Consumer<T> {
+
+        private final Subscriber<? super T> subscriber;
+        private final Supplier<? extends Stream<? extends T>> streamSupplier;
+        private final Executor executor;
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private final AtomicReference<Throwable> invalidRequest = new AtomicReference<>();
+        private volatile boolean cancelled;
+        private boolean done;
+
+        /**
+         * 只在drain中访问
+         */
+        private Stream<? extends T> stream;
+        private Spliterator<? extends T> spliterator;
+
+        /**
+         * 需求用完时预读的元素
+         */
+        private T lookahead;
+        private boolean hasLookahead;
+        private final Consumer<T> buffer = t -> {
+            lookahead = t;
+            hasLookahead = true;
+        };
+
+        StreamSubscription(Subscriber<? super T> subscriber, Supplier<? extends Stream<? extends T>> streamSupplier,
+                           Executor executor) {
+            this.subscriber = subscriber;
+            this.streamSupplier = streamSupplier;
+            this.executor = executor;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                invalidRequest.compareAndSet(null,
+                        new IllegalArgumentException("Non-positive request signals are illegal: " + n));
+            } else {
+                requested.getAndUpdate(r -> r + n < 0 ? Long.MAX_VALUE : r + n);
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            // 由drain关闭流, 避免与正在执行的拉取并发
+            schedule();
+        }
+
+        private void schedule() {
+            if (wip.getAndIncrement() == 0) {
+                try {
+                    executor.execute(this);
+                } catch (RuntimeException e) {
+                    // executor拒绝任务, 就地终止
+                    cancelled = true;
+                    closeStream();
+                    subscriber.onError(e);
+                }
+            }
+        }
+
+        @Override
+        public void accept(T t) {
+            subscriber.onNext(Objects.requireNonNull(t, "Stream elements must not be null"));
+        }
+
+        @Override
+        public void run() {
+            int missed = wip.get();
+            int emitted = 0;
+            while (true) {
+                if (done) {
+                    return;
+                }
+                if (cancelled) {
+                    terminate(null, false);
+                    return;
+                }
+                Throwable invalid = invalidRequest.get();
+                if (invalid != null) {
+                    terminate(invalid, true);
+                    return;
+                }
+                long r = requested.get();
+                long e = 0L;
+                try {
+                    if (spliterator == null) {
+                        stream = streamSupplier.get();
+                        spliterator = stream.spliterator();
+                    }
+                    while (e != r && !cancelled) {
+                        if (emitted == BATCH) {
+                            // 让出线程, 剩余需求在下一次执行中处理
+                            consume(r, e);
+                            executor.execute(this);
+                            return;
+                        }
+                        if (hasLookahead) {
+                            T t = lookahead;
+                            lookahead = null;
+                            hasLookahead = false;
+                            accept(t);
+                        } else if (!spliterator.tryAdvance(this)) {
+                            terminate(null, true);
+                            return;
+                        }
+                        e++;
+                        emitted++;
+                    }
+                    if (e == r && !cancelled && !hasLookahead && exhausted()) {
+                        // 结束信号不需要需求, 不等下一次request
+                        terminate(null, true);
+                        return;
+                    }
+                } catch (Throwable t) {
+                    terminate(t, true);
+                    return;
+                }
+                consume(r, e);
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * 预读一个元素, 流是否已经没有元素
+         */
+        private boolean exhausted() {
+            return !spliterator.tryAdvance(buffer);
+        }
+
+        private void consume(long r, long e) {
+            if (e != 0L && r != Long.MAX_VALUE) {
+                requested.addAndGet(-e);
+            }
+        }
+
+        /**
+         * 关闭流, signal为true时通知订阅者结束或出错
+         */
+        private void terminate(Throwable error, boolean signal) {
+            done = true;
+            cancelled = true;
+            try {
+                closeStream();
+            } catch (Throwable t) {
+                if (error == null) {
+                    error = t;
+                } else {
+                    error.addSuppressed(t);
+                }
+            }
+            if (signal) {
+                if (error == null) {
+                    subscriber.onComplete();
+                } else {
+                    subscriber.onError(error);
+                }
+            }
+        }
+
+        private void closeStream() {
+            lookahead = null;
+            hasLookahead = false;
+            if (stream != null) {
+                stream.close();
+                stream = null;
+            }
+        }
+    }
+
+    /**
+     * 反向适配, 订阅者把元素放入有界队列, 流从队列中阻塞读取
+     */
+    private static final class QueueSubscriber<T> implements Subscriber<T>, Iterator<T> {
+
+        /**
+         * 结束信号, 错误时为Failure; 元素本身可以是Throwable, 不能用instanceof区分
+         */
+        private static final Object COMPLETE = new Object();
+
+        private final Publisher<? extends T> publisher;
+        private final int prefetch;
+        private final int limit;
+
+        /**
+         * 多留一个位置给结束信号
+         */
+        private final BlockingQueue<Object> queue;
+        private final AtomicReference<Subscription> subscription = new AtomicReference<>();
+        private volatile boolean cancelled;
+        private volatile boolean overflow;
+        private boolean subscribed;
+        private int consumed;
+        private Object next;
+
+        QueueSubscriber(Publisher<? extends T> publisher, int prefetch) {
+            this.publisher = publisher;
+            this.prefetch = prefetch;
+            this.limit = prefetch - (prefetch >> 2);
+            this.queue = new ArrayBlockingQueue<>(prefetch + 1);
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            Objects.requireNonNull(s);
+            if (!subscription.compareAndSet(null, s)) {
+                s.cancel();
+                return;
+            }
+            if (cancelled) {
+                s.cancel();
+            } else {
+                s.request(prefetch);
+            }
+        }
+
+        @Override
+        public void onNext(T t) {
+            Objects.requireNonNull(t);
+            if (!queue.offer(t)) {
+                // 发送超过了请求的数量
+                cancel();
+                overflow = true;
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            Objects.requireNonNull(t);
+            queue.offer(new Failure(t));
+        }
+
+        @Override
+        public void onComplete() {
+            queue.offer(COMPLETE);
+        }
+
+        void cancel() {
+            cancelled = true;
+            Subscription s = subscription.get();
+            if (s != null) {
+                s.cancel();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (overflow) {
+                throw new IllegalStateException("Publisher emitted more elements than requested");
+            }
+            if (next == null) {
+                if (!subscribed) {
+                    subscribed = true;
+                    publisher.subscribe(this);
+                }
+                try {
+                    next = queue.take();
+                } catch (InterruptedException e) {
+                    cancel();
+                    Thread.currentThread().interrupt();
+                    throw new CancellationException("Interrupted while waiting for the publisher");
+                }
+            }
+            if (next == COMPLETE) {
+                return false;
+            }
+            if (next instanceof Failure) {
+                Throwable error = ((Failure) next).error;
+                if (error instanceof RuntimeException) {
+                    throw (RuntimeException) error;
+                }
+                if (error instanceof Error) {
+                    throw (Error) error;
+                }
+                throw new CompletionException(error);
+            }
+            return true;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            @SuppressWarnings("unchecked")
+            T t = (T) next;
+            next = null;
+            if (++consumed == limit) {
+                consumed = 0;
+                subscription.get().request(limit);
+            }
+            return t;
+        }
+
+        /**
+         * 错误信号
+         */
+        private static final class Failure {
+
+            private final Throwable error;
+
+            Failure(Throwable error) {
+                this.error = error;
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.stream.common;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * 记录的二进制编解码, 用于把流中的元素写入临时文件后再读回
+ *
+ * @Auther: Akang
+ * @Date: 2026/10/18 22:25
+ * @Description:
+ */
+public interface RecordCodec<T> {
+
+    void write(DataOutput out, T t) throws IOException;
+
+    T read(DataInput in) throws IOException;
+
+    /**
+     * 员工记录: 姓名, 年龄, 薪资
+     */
+    RecordCodec<Employee> EMPLOYEE = new RecordCodec<Employee>() {
+        @Override
+        public void write(DataOutput out, Employee employee) throws IOException {
+            out.writeUTF(employee.getName());
+            out.writeInt(employee.getAge());
+            out.writeDouble(employee.getSalary());
+        }
+
+        @Override
+        public Employee read(DataInput in) throws IOException {
+            return new Employee(in.readUTF(), in.readInt(), in.readDouble());
+        }
+    };
+}
@@ -0,0 +1,96 @@
+package com.example.stream.common;
+
+import java.util.DoubleSummaryStatistics;
+import java.util.concurrent.atomic.DoubleAccumulator;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 可并发更新的double统计值, 同DoubleSummaryStatistics, 平均数,最值,和,个数
+ * 个数/和/最值分别使用LongAdder/DoubleAdder/DoubleAccumulator分段累加, 多线程同时更新同一个统计值时不会竞争同一个变量
+ * 更新过程中读取的结果不保证是同一时刻的快照
+ *
+ * @Auther: Akang
+ * @Date: 2026/10/18 16:05
+ * @Description:
+ */
+public class StripedDoubleStatistics {
+
+    private final LongAdder count = new LongAdder();
+    private final DoubleAdder sum = new DoubleAdder();
+    private final DoubleAccumulator min = new DoubleAccumulator(Math::min, Double.POSITIVE_INFINITY);
+    private final DoubleAccumulator max = new DoubleAccumulator(Math::max, Double.NEGATIVE_INFINITY);
+
+    /**
+     * 记录一个值
+     */
+    public void accept(double value) {
+        count.increment();
+        sum.add(value);
+        min.accumulate(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * 合并另一个统计值, 用于将线程本地的预聚合结果批量写入
+     */
+    public void combine(DoubleSummaryStatistics other) {
+        if (other.getCount() == 0) {
+            return;
+        }
+        count.add(other.getCount());
+        sum.add(other.getSum());
+        min.accumulate(other.getMin());
+        max.accumulate(other.getMax());
+    }
+
+    /**
+     * 合并另一个并发统计值
+     */
+    public void combine(StripedDoubleStatistics other) {
+        long n = other.getCount();
+        if (n == 0) {
+            return;
+        }
+        count.add(n);
+        sum.add(other.getSum());
+        min.accumulate(other.getMin());
+        max.accumulate(other.getMax());
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public double getSum() {
+        return sum.sum();
+    }
+
+    /**
+     * 最小值, 没有值时返回Double.POSITIVE_INFINITY
+     */
+    public double getMin() {
+        return min.get();
+    }
+
+    /**
+     * 最大值, 没有值时返回Double.NEGATIVE_INFINITY
+     */
+    public double getMax() {
+        return max.get();
+    }
+
+    /**
+     * 平均值, 没有值时返回0
+     */
+    public double getAverage() {
+        long n = getCount();
+        return n > 0 ? getSum() / n : 0.0D;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s{count=%d, sum=%f, min=%f, average=%f, max=%f}",
+                this.getClass().getSimpleName(), getCount(), getSum(), getMin(), getAverage(), getMax());
+    }
+}
@@ -0,0 +1,404 @@
+package com.example.stream.common;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Top-K收集器
+ * sorted(comparator).limit(k)需要缓存并排序全部元素, 时间O(n log n), 空间O(n);
+ * 这里每个叶子任务只维护一个容量为k的堆(堆顶为当前k个元素中最差的一个), 新元素优于堆顶时替换堆顶, 合并时把较小的堆逐个放入较大的堆,
+ * 时间O(n log k), 每个线程空间O(k)
+ * <p>
+ * Collector<T, ?, List<T>> topK(int k, Comparator<? super T> comparator); 按comparator排序的前k个, 同sorted(comparator).limit(k)
+ * Collector<T, ?, List<T>> largestByInt(int k, ToIntFunction<? super T> key); key最大的k个, 按key降序
+ * Collector<T, ?, List<T>> smallestByInt(int k, ToIntFunction<? super T> key); key最小的k个, 按key升序
+ * Collector<T, ?, List<T>> largestByDouble(int k, ToDoubleFunction<? super T> key); key最大的k个, 按key降序
+ * Collector<T, ?, List<T>> smallestByDouble(int k, ToDoubleFunction<? super T> key); key最小的k个, 按key升序
+ * Stream<T> topK(Stream<T> stream, int k, Comparator<? super T> comparator); 流操作形式, 同stream.sorted(comparator).limit(k)
+ * <p>
+ * int/double键的版本把键存放在int[]/double[]中与元素并列成堆, 比较时不调用comparator也不装箱;
+ * double键按Double.compare比较, NaN大于所有数
+ * <p>
+ * 顺序流中与堆顶相等的元素不会替换堆顶, 因此第k位有多个相等元素时保留先遇到的; 结果中相等元素之间的先后不保证
+ *
+ * @Auther: Akang
+ * @Date: 2026/10/18 20:25
+ * @Description:
+ */
+public final class TopKCollectors {
+
+    /**
+     * 堆的初始容量, k较大而元素较少时不必一次分配k个位置
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    private TopKCollectors() {
+    }
+
+    /**
+     * 按comparator排序的前k个元素, 同sorted(comparator).limit(k)
+     *
+     * @param k          个数
+     * @param comparator 排序规则, 越靠前越优先保留
+     * @return 按comparator排好序的列表, 元素不足k个时返回全部元素
+     */
+    public static <T> Collector<T, ?, List<T>> topK(int k, Comparator<? super T> comparator) {
+        checkK(k);
+        Objects.requireNonNull(comparator);
+        return Collector.of(() -> new ObjectHeap<T>(k, comparator),
+                ObjectHeap::accept,
+                ObjectHeap::merge,
+                ObjectHeap::toList);
+    }
+
+    /**
+     * 按comparator排序的前k个元素构成的流, 同stream.sorted(comparator).limit(k), 返回的流与stream的并行设置相同
+     */
+    public static <T> Stream<T> topK(Stream<T> stream, int k, Comparator<? super T> comparator) {
+        Objects.requireNonNull(stream);
+        List<T> top = stream.collect(topK(k, comparator));
+        return StreamSupport.stream(top.spliterator(), stream.isParallel()).onClose(stream::close);
+    }
+
+    /**
+     * key最大的k个元素, 按key降序
+     */
+    public static <T> Collector<T, ?, List<T>> largestByInt(int k, ToIntFunction<? super T> key) {
+        return byInt(k, key, true);
+    }
+
+    /**
+     * key最小的k个元素, 按key升序
+     */
+    public static <T> Collector<T, ?, List<T>> smallestByInt(int k, ToIntFunction<? super T> key) {
+        return byInt(k, key, false);
+    }
+
+    /**
+     * key最大的k个元素, 按key降序
+     */
+    public static <T> Collector<T, ?, List<T>> largestByDouble(int k, ToDoubleFunction<? super T> key) {
+        return byDouble(k, key, true);
+    }
+
+    /**
+     * key最小的k个元素, 按key升序
+     */
+    public static <T> Collector<T, ?, List<T>> smallestByDouble(int k, ToDoubleFunction<? super T> key) {
+        return byDouble(k, key, false);
+    }
+
+    private static <T> Collector<T, ?, List<T>> byInt(int k, ToIntFunction<? super T> key, boolean largest) {
+        checkK(k);
+        Objects.requireNonNull(key);
+        return Collector.of(() -> new IntKeyHeap<T>(k, largest),
+                (heap, t) -> heap.accept(key.applyAsInt(t), t),
+                IntKeyHeap::merge,
+                IntKeyHeap::toList);
+    }
+
+    private static <T> Collector<T, ?, List<T>> byDouble(int k, ToDoubleFunction<? super T> key, boolean largest) {
+        checkK(k);
+        Objects.requireNonNull(key);
+        return Collector.of(() -> new DoubleKeyHeap<T>(k, largest),
+                (heap, t) -> heap.accept(key.applyAsDouble(t), t),
+                DoubleKeyHeap::merge,
+                DoubleKeyHeap::toList);
+    }
+
+    private static void checkK(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Illegal k: " + k);
+        }
+    }
+
+    private static int grow(int length, int k) {
+        return (int) Math.min((long) length << 1, k);
+    }
+
+    /**
+     * 以comparator为序的有界堆, 堆顶为最差(排序最靠后)的元素
+     */
+    private static final class ObjectHeap<T> {
+
+        private final int k;
+        private final Comparator<? super T> comparator;
+        private Object[] values;
+        private int size;
+
+        ObjectHeap(int k, Comparator<? super T> comparator) {
+            this.k = k;
+            this.comparator = comparator;
+            this.values = new Object[Math.min(k, INITIAL_CAPACITY)];
+        }
+
+        void accept(T t) {
+            if (size < k) {
+                if (size == values.length) {
+                    values = Arrays.copyOf(values, grow(size, k));
+                }
+                values[size] = t;
+                siftUp(size++);
+            } else if (k > 0 && comparator.compare(t, value(0)) < 0) {
+                values[0] = t;
+                siftDown(0);
+            }
+        }
+
+        ObjectHeap<T> merge(ObjectHeap<T> other) {
+            ObjectHeap<T> target = size >= other.size ? this : other;
+            ObjectHeap<T> source = target == this ? other : this;
+            for (int i = 0; i < source.size; i++) {
+                target.accept(source.value(i));
+            }
+            return target;
+        }
+
+        @SuppressWarnings("unchecked")
+        private T value(int i) {
+            return (T) values[i];
+        }
+
+        private void siftUp(int i) {
+            Object t = values[i];
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (compare(t, values[parent]) <= 0) {
+                    break;
+                }
+                values[i] = values[parent];
+                i = parent;
+            }
+            values[i] = t;
+        }
+
+        private void siftDown(int i) {
+            Object t = values[i];
+            int half = size >>> 1;
+            while (i < half) {
+                int child = (i << 1) + 1;
+                int right = child + 1;
+                if (right < size && compare(values[right], values[child]) > 0) {
+                    child = right;
+                }
+                if (compare(t, values[child]) >= 0) {
+                    break;
+                }
+                values[i] = values[child];
+                i = child;
+            }
+            values[i] = t;
+        }
+
+        @SuppressWarnings("unchecked")
+        private int compare(Object a, Object b) {
+            return comparator.compare((T) a, (T) b);
+        }
+
+        @SuppressWarnings("unchecked")
+        List<T> toList() {
+            T[] sorted = (T[]) Arrays.copyOf(values, size);
+            Arrays.sort(sorted, comparator);
+            return new ArrayList<>(Arrays.asList(sorted));
+        }
+    }
+
+    /**
+     * 以int键为序的有界堆, 键与元素存放在并列的数组中, 堆顶为键最差的元素
+     */
+    private static final class IntKeyHeap<T> {
+
+        private final int k;
+        private final boolean largest;
+        private int[] keys;
+        private Object[] values;
+        private int size;
+
+        IntKeyHeap(int k, boolean largest) {
+            this.k = k;
+            this.largest = largest;
+            int capacity = Math.min(k, INITIAL_CAPACITY);
+            this.keys = new int[capacity];
+            this.values = new Object[capacity];
+        }
+
+        /**
+         * a是否劣于b, 即a应该更靠近堆顶
+         */
+        private boolean worse(int a, int b) {
+            return largest ? a < b : a > b;
+        }
+
+        void accept(int key, Object value) {
+            if (size < k) {
+                if (size == keys.length) {
+                    int capacity = grow(size, k);
+                    keys = Arrays.copyOf(keys, capacity);
+                    values = Arrays.copyOf(values, capacity);
+                }
+                siftUp(size++, key, value);
+            } else if (k > 0 && worse(keys[0], key)) {
+                siftDown(0, key, value, size);
+            }
+        }
+
+        IntKeyHeap<T> merge(IntKeyHeap<T> other) {
+            IntKeyHeap<T> target = size >= other.size ? this : other;
+            IntKeyHeap<T> source = target == this ? other : this;
+            for (int i = 0; i < source.size; i++) {
+                target.accept(source.keys[i], source.values[i]);
+            }
+            return target;
+        }
+
+        private void siftUp(int i, int key, Object value) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!worse(key, keys[parent])) {
+                    break;
+                }
+                keys[i] = keys[parent];
+                values[i] = values[parent];
+                i = parent;
+            }
+            keys[i] = key;
+            values[i] = value;
+        }
+
+        private void siftDown(int i, int key, Object value, int n) {
+            int half = n >>> 1;
+            while (i < half) {
+                int child = (i << 1) + 1;
+                int right = child + 1;
+                if (right < n && worse(keys[right], keys[child])) {
+                    child = right;
+                }
+                if (!worse(keys[child], key)) {
+                    break;
+                }
+                keys[i] = keys[child];
+                values[i] = values[child];
+                i = child;
+            }
+            keys[i] = key;
+            values[i] = value;
+        }
+
+        /**
+         * 堆排序: 依次取出堆顶(最差的元素)从后向前填入结果
+         */
+        @SuppressWarnings("unchecked")
+        List<T> toList() {
+            Object[] sorted = new Object[size];
+            for (int n = size; n > 0; n--) {
+                sorted[n - 1] = values[0];
+                if (n > 1) {
+                    siftDown(0, keys[n - 1], values[n - 1], n - 1);
+                }
+            }
+            size = 0;
+            return new ArrayList<>((List<T>) Arrays.asList(sorted));
+        }
+    }
+
+    /**
+     * 以double键为序的有界堆, 键按Double.compare比较, 其余同IntKeyHeap
+     */
+    private static final class DoubleKeyHeap<T> {
+
+        private final int k;
+        private final boolean largest;
+        private double[] keys;
+        private Object[] values;
+        private int size;
+
+        DoubleKeyHeap(int k, boolean largest) {
+            this.k = k;
+            this.largest = largest;
+            int capacity = Math.min(k, INITIAL_CAPACITY);
+            this.keys = new double[capacity];
+            this.values = new Object[capacity];
+        }
+
+        private boolean worse(double a, double b) {
+            int c = Double.compare(a, b);
+            return largest ? c < 0 : c > 0;
+        }
+
+        void accept(double key, Object value) {
+            if (size < k) {
+                if (size == keys.length) {
+                    int capacity = grow(size, k);
+                    keys = Arrays.copyOf(keys, capacity);
+                    values = Arrays.copyOf(values, capacity);
+                }
+                siftUp(size++, key, value);
+            } else if (k > 0 && worse(keys[0], key)) {
+                siftDown(0, key, value, size);
+            }
+        }
+
+        DoubleKeyHeap<T> merge(DoubleKeyHeap<T> other) {
+            DoubleKeyHeap<T> target = size >= other.size ? this : other;
+            DoubleKeyHeap<T> source = target == this ? other : this;
+            for (int i = 0; i < source.size; i++) {
+                target.accept(source.keys[i], source.values[i]);
+            }
+            return target;
+        }
+
+        private void siftUp(int i, double key, Object value) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!worse(key, keys[parent])) {
+                    break;
+                }
+                keys[i] = keys[parent];
+                values[i] = values[parent];
+                i = parent;
+            }
+            keys[i] = key;
+            values[i] = value;
+        }
+
+        private void siftDown(int i, double key, Object value, int n) {
+            int half = n >>> 1;
+            while (i < half) {
+                int child = (i << 1) + 1;
+                int right = child + 1;
+                if (right < n && worse(keys[right], keys[child])) {
+                    child = right;
+                }
+                if (!worse(keys[child], key)) {
+                    break;
+                }
+                keys[i] = keys[child];
+                values[i] = values[child];
+                i = child;
+            }
+            keys[i] = key;
+            values[i] = value;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<T> toList() {
+            Object[] sorted = new Object[size];
+            for (int n = size; n > 0; n--) {
+                sorted[n - 1] = values[0];
+                if (n > 1) {
+                    siftDown(0, keys[n - 1], values[n - 1], n - 1);
+                }
+            }
+            size = 0;
+            return new ArrayList<>((List<T>) Arrays.asList(sorted));
+        }
+    }
+}
@@ -0,0 +1,646 @@
+package com.example.stream.common;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 窗口流
+ * Stream.generate/Stream.iterate产生的无限流只能用limit()截断; WindowStreams把(无限)流转换为每个窗口的聚合结果构成的流, 惰性求值, 可以继续接limit()等操作
+ * <p>
+ * 按个数的窗口
+ * Stream<Window<R>> tumbling(Stream<T> source, int size, Collector<? super T, A, R> collector); 滚动窗口, 每size个元素一个窗口
+ * Stream<Window<R>> sliding(Stream<T> source, int size, int step, Collector<? super T, A, R> collector); 滑动窗口, 窗口大小size, 每step个元素输出一次
+ * 按时间的窗口, timestamp为元素的时间戳(毫秒), 使用处理时间时传入t -> System.currentTimeMillis(), 窗口按时间戳的整数倍对齐
+ * Stream<Window<R>> tumbling(Stream<T> source, ToLongFunction<? super T> timestamp, Duration size, Collector<? super T, A, R> collector);
+ * Stream<Window<R>> sliding(Stream<T> source, ToLongFunction<? super T> timestamp, Duration size, Duration slide, Collector<? super T, A, R> collector);
+ * 基本类型, 按个数的窗口统计(个数, 和, 平均, 最小, 最大), 元素不装箱
+ * Stream<Window<DoubleStatistics>> tumbling(DoubleStream source, int size) / tumbling(IntStream source, int size);
+ * Stream<Window<DoubleStatistics>> sliding(DoubleStream source, int size, int step) / sliding(IntStream source, int size, int step);
+ * <p>
+ * 窗口不缓存元素: 滑动窗口被切分为gcd(size, step)大小的窗格(pane), 每个窗格用collector累加, 窗口结束时用combiner合并所覆盖的窗格,
+ * 内存与size / gcd(size, step)成正比, 与窗口中的元素个数无关; collector的combiner不能修改第二个参数(JDK的收集器都满足)
+ * 基本类型的滑动窗口只保存最近size个double, 和增量加减, 最小/最大值用单调队列维护, 每个元素O(1)
+ * <p>
+ * 时间戳需非递减, 早于当前窗格的元素计入当前窗格; 不含元素的窗口不输出;
+ * 源流结束时, 如果还有元素没有出现在任何已输出的窗口中, 输出包含这些元素的第一个未满窗口
+ *
+ * @Auther: Akang
+ * @Date: 2026/10/18 23:50
+ * @Description:
+ */
+public final class WindowStreams {
+
+    private WindowStreams() {
+    }
+
+    /**
+     * 按个数的滚动窗口
+     *
+     * @param size 每个窗口的元素个数
+     */
+    public static <T, A, R> Stream<Window<R>> tumbling(Stream<T> source, int size, Collector<? super T, A, R> collector) {
+        return sliding(source, size, size, collector);
+    }
+
+    /**
+     * 按个数的滑动窗口, 窗口的start/end为元素的序号区间[start, end)
+     *
+     * @param size 每个窗口的元素个数
+     * @param step 相邻两个窗口起点的间隔
+     */
+    public static <T, A, R> Stream<Window<R>> sliding(Stream<T> source, int size, int step, Collector<? super T, A, R> collector) {
+        checkWindow(size, step);
+        long paneWidth = gcd(size, step);
+        long[] index = {0L};
+        return panes(source, t -> index[0]++ / paneWidth, paneWidth, size / paneWidth, step / paneWidth, 0L, collector);
+    }
+
+    /**
+     * 按时间的滚动窗口, 窗口的start/end为时间区间[start, end)(毫秒)
+     *
+     * @param timestamp 元素的时间戳(毫秒)
+     * @param size      窗口时长
+     */
+    public static <T, A, R> Stream<Window<R>> tumbling(Stream<T> source, ToLongFunction<? super T> timestamp, Duration size,
+                                                       Collector<? super T, A, R> collector) {
+        return sliding(source, timestamp, size, size, collector);
+    }
+
+    /**
+     * 按时间的滑动窗口, 窗口的start/end为时间区间[start, end)(毫秒)
+     *
+     * @param timestamp 元素的时间戳(毫秒)
+     * @param size      窗口时长
+     * @param slide     相邻两个窗口起点的间隔
+     */
+    public static <T, A, R> Stream<Window<R>> sliding(Stream<T> source, ToLongFunction<? super T> timestamp, Duration size,
+                                                      Duration slide, Collector<? super T, A, R> collector) {
+        Objects.requireNonNull(timestamp);
+        long sizeMillis = size.toMillis();
+        long slideMillis = slide.toMillis();
+        checkWindow(sizeMillis, slideMillis);
+        long paneWidth = gcd(sizeMillis, slideMillis);
+        return panes(source, t -> Math.floorDiv(timestamp.applyAsLong(t), paneWidth), paneWidth,
+                sizeMillis / paneWidth, slideMillis / paneWidth, Long.MIN_VALUE, collector);
+    }
+
+    /**
+     * 按个数的滚动窗口统计
+     */
+    public static Stream<Window<DoubleStatistics>> tumbling(DoubleStream source, int size) {
+        checkWindow(size, size);
+        Spliterator.OfDouble values = source.spliterator();
+        return StreamSupport.stream(new DoubleTumblingSpliterator(values, size), false).onClose(source::close);
+    }
+
+    /**
+     * 按个数的滚动窗口统计
+     */
+    public static Stream<Window<DoubleStatistics>> tumbling(IntStream source, int size) {
+        return tumbling(source.asDoubleStream(), size);
+    }
+
+    /**
+     * 按个数的滑动窗口统计, 只保存最近size个值
+     */
+    public static Stream<Window<DoubleStatistics>> sliding(DoubleStream source, int size, int step) {
+        checkWindow(size, step);
+        if (size == step) {
+            return tumbling(source, size);
+        }
+        Spliterator.OfDouble values = source.spliterator();
+        return StreamSupport.stream(new DoubleSlidingSpliterator(values, size, step), false).onClose(source::close);
+    }
+
+    /**
+     * 按个数的滑动窗口统计, 只保存最近size个值
+     */
+    public static Stream<Window<DoubleStatistics>> sliding(IntStream source, int size, int step) {
+        return sliding(source.asDoubleStream(), size, step);
+    }
+
+    private static void checkWindow(long size, long step) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Illegal window size: " + size);
+        }
+        if (step <= 0 || step > size) {
+            throw new IllegalArgumentException("Illegal window step: " + step);
+        }
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    private static <T, A, R> Stream<Window<R>> panes(Stream<T> source, ToLongFunction<? super T> paneOf, long paneWidth,
+                                                     long sizePanes, long stepPanes, long firstWindow,
+                                                     Collector<? super T, A, R> collector) {
+        Objects.requireNonNull(collector);
+        PaneSpliterator<T, A, R> spliterator = new PaneSpliterator<>(source.spliterator(), paneOf, paneWidth, sizePanes,
+                stepPanes, firstWindow, collector);
+        return StreamSupport.stream(spliterator, false).onClose(source::close);
+    }
+
+    /**
+     * 窗口及其聚合结果
+     */
+    @Getter
+    @ToString
+    public static final class Window<R> {
+
+        /**
+         * 窗口区间[start, end), 按个数的窗口为元素序号, 按时间的窗口为毫秒时间戳
+         */
+        private final long start;
+        private final long end;
+
+        /**
+         * 窗口中的元素个数
+         */
+        private final long count;
+        private final R result;
+
+        Window(long start, long end, long count, R result) {
+            this.start = start;
+            this.end = end;
+            this.count = count;
+            this.result = result;
+        }
+    }
+
+    /**
+     * 窗口统计, 不可变
+     */
+    @Getter
+    @ToString
+    public static final class DoubleStatistics {
+
+        private final long count;
+        private final double sum;
+        private final double min;
+        private final double max;
+
+        DoubleStatistics(long count, double sum, double min, double max) {
+            this.count = count;
+            this.sum = sum;
+            this.min = min;
+            this.max = max;
+        }
+
+        public double getAverage() {
+            return count > 0 ? sum / count : 0D;
+        }
+    }
+
+    /**
+     * 一个窗格的累加结果, id为窗格编号
+     */
+    private static final class Pane<A> {
+
+        final long id;
+        final A container;
+        long count;
+
+        Pane(long id, A container) {
+            this.id = id;
+            this.container = container;
+        }
+    }
+
+    /**
+     * 窗格聚合的Spliterator, 第w个窗口覆盖编号为[w * stepPanes, w * stepPanes + sizePanes)的窗格
+     */
+    private static final class PaneSpliterator<T, A, R> implements Spliterator<Window<R>>, Consumer<T> {
+
+        private final Spliterator<T> source;
+        private final ToLongFunction<? super T> paneOf;
+        private final long paneWidth;
+        private final long sizePanes;
+        private final long stepPanes;
+        private final long firstWindow;
+        private final Supplier<A> supplier;
+        private final BiConsumer<A, ? super T> accumulator;
+        private final BinaryOperator<A> combiner;
+        private final Function<A, R> finisher;
+
+        /**
+         * 已结束且仍被未输出窗口需要的窗格
+         */
+        private final ArrayDeque<Pane<A>> closed = new ArrayDeque<>();
+
+        /**
+         * 已生成待输出的窗口
+         */
+        private final ArrayDeque<Window<R>> ready = new ArrayDeque<>();
+        private Pane<A> current;
+        private long nextWindow;
+
+        /**
+         * 已输出窗口覆盖到的最后一个窗格编号
+         */
+        private long coveredThrough = Long.MIN_VALUE;
+        private boolean finished;
+
+        PaneSpliterator(Spliterator<T> source, ToLongFunction<? super T> paneOf, long paneWidth, long sizePanes,
+                        long stepPanes, long firstWindow, Collector<? super T, A, R> collector) {
+            this.source = source;
+            this.paneOf = paneOf;
+            this.paneWidth = paneWidth;
+            this.sizePanes = sizePanes;
+            this.stepPanes = stepPanes;
+            this.firstWindow = firstWindow;
+            this.supplier = collector.supplier();
+            @SuppressWarnings("unchecked")
+            BiConsumer<A, ? super T> accumulator = (BiConsumer<A, ? super T>) collector.accumulator();
+            this.accumulator = accumulator;
+            this.combiner = collector.combiner();
+            this.finisher = collector.finisher();
+        }
+
+        @Override
+        public void accept(T t) {
+            long id = paneOf.applyAsLong(t);
+            if (current == null) {
+                current = new Pane<>(id, supplier.get());
+                nextWindow = Math.max(firstWindow, firstWindowContaining(id));
+            } else if (id > current.id) {
+                closed.addLast(current);
+                emitWindowsEndingBefore(id);
+                current = new Pane<>(id, supplier.get());
+            }
+            accumulator.accept(current.container, t);
+            current.count++;
+        }
+
+        /**
+         * 包含第paneId个窗格的第一个窗口, 即满足 w * stepPanes + sizePanes > paneId 的最小w
+         */
+        private long firstWindowContaining(long paneId) {
+            return Math.floorDiv(paneId - sizePanes, stepPanes) + 1;
+        }
+
+        private long windowStartPane(long window) {
+            return window * stepPanes;
+        }
+
+        private void emitWindowsEndingBefore(long paneId) {
+            while (windowStartPane(nextWindow) + sizePanes <= paneId) {
+                emit(nextWindow++);
+                if (closed.isEmpty()) {
+                    // 中间没有数据, 直接跳到包含paneId的第一个窗口
+                    nextWindow = Math.max(nextWindow, firstWindowContaining(paneId));
+                }
+            }
+        }
+
+        /**
+         * 合并窗口覆盖的窗格生成结果, 然后丢弃之后的窗口不再需要的窗格
+         */
+        private void emit(long window) {
+            long from = windowStartPane(window);
+            long to = from + sizePanes;
+            Pane<A> single = null;
+            A container = null;
+            long count = 0L;
+            long lastPane = Long.MIN_VALUE;
+            for (Iterator<Pane<A>> it = panes(); it.hasNext(); ) {
+                Pane<A> pane = it.next();
+                if (pane.id < from || pane.id >= to) {
+                    continue;
+                }
+                count += pane.count;
+                lastPane = pane.id;
+                if (sizePanes == 1) {
+                    single = pane;
+                } else {
+                    container = combiner.apply(container == null ? supplier.get() : container, pane.container);
+                }
+            }
+            if (count > 0) {
+                R result = finisher.apply(single != null ? single.container : container);
+                ready.addLast(new Window<>(from * paneWidth, to * paneWidth, count, result));
+                coveredThrough = Math.max(coveredThrough, lastPane);
+            }
+            long nextFrom = windowStartPane(window + 1);
+            while (!closed.isEmpty() && closed.peekFirst().id < nextFrom) {
+                closed.pollFirst();
+            }
+        }
+
+        /**
+         * 已结束的窗格和当前窗格
+         */
+        private Iterator<Pane<A>> panes() {
+            Iterator<Pane<A>> closedPanes = closed.iterator();
+            return new Iterator<Pane<A>>() {
+                private boolean currentReturned;
+
+                @Override
+                public boolean hasNext() {
+                    return closedPanes.hasNext() || (!currentReturned && current != null && finished);
+                }
+
+                @Override
+                public Pane<A> next() {
+                    if (closedPanes.hasNext()) {
+                        return closedPanes.next();
+                    }
+                    currentReturned = true;
+                    return current;
+                }
+            };
+        }
+
+        /**
+         * 源流结束, 输出覆盖剩余元素的第一个未满窗口
+         */
+        private void finish() {
+            finished = true;
+            if (current == null) {
+                return;
+            }
+            long lastPane = current.id;
+            while (coveredThrough < lastPane && windowStartPane(nextWindow) <= lastPane) {
+                emit(nextWindow++);
+            }
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Window<R>> action) {
+            Objects.requireNonNull(action);
+            while (ready.isEmpty()) {
+                if (finished || !source.tryAdvance(this)) {
+                    if (!finished) {
+                        finish();
+                    }
+                    if (ready.isEmpty()) {
+                        return false;
+                    }
+                }
+            }
+            action.accept(ready.pollFirst());
+            return true;
+        }
+
+        @Override
+        public Spliterator<Window<R>> trySplit() {
+            return null;
+        }
+
+        @Override
+        public long estimateSize() {
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL;
+        }
+    }
+
+    /**
+     * 基本类型滚动窗口, 只保存当前窗口的统计量
+     */
+    private static final class DoubleTumblingSpliterator implements Spliterator<Window<DoubleStatistics>>, DoubleConsumer {
+
+        private final Spliterator.OfDouble source;
+        private final int size;
+        private long index;
+        private long count;
+        private double sum;
+        private double compensation;
+        private double min;
+        private double max;
+        private Window<DoubleStatistics> ready;
+
+        DoubleTumblingSpliterator(Spliterator.OfDouble source, int size) {
+            this.source = source;
+            this.size = size;
+        }
+
+        @Override
+        public void accept(double value) {
+            if (count == 0) {
+                sum = 0D;
+                compensation = 0D;
+                min = value;
+                max = value;
+            } else {
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+            double y = value - compensation;
+            double t = sum + y;
+            compensation = (t - sum) - y;
+            sum = t;
+            count++;
+            index++;
+            if (count == size) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            ready = new Window<>(index - count, index - count + size, count,
+                    new DoubleStatistics(count, sum - compensation, min, max));
+            count = 0;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Window<DoubleStatistics>> action) {
+            Objects.requireNonNull(action);
+            while (ready == null) {
+                if (!source.tryAdvance(this)) {
+                    if (count == 0) {
+                        return false;
+                    }
+                    flush();
+                }
+            }
+            Window<DoubleStatistics> window = ready;
+            ready = null;
+            action.accept(window);
+            return true;
+        }
+
+        @Override
+        public Spliterator<Window<DoubleStatistics>> trySplit() {
+            return null;
+        }
+
+        @Override
+        public long estimateSize() {
+            long size = source.estimateSize();
+            return size == Long.MAX_VALUE ? size : (size + this.size - 1) / this.size;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL;
+        }
+    }
+
+    /**
+     * 基本类型滑动窗口, 环形数组保存最近size个值, 和增量加减(Kahan补偿), 最小/最大值用单调队列(保存序号)维护
+     */
+    private static final class DoubleSlidingSpliterator implements Spliterator<Window<DoubleStatistics>>, DoubleConsumer {
+
+        private final Spliterator.OfDouble source;
+        private final int size;
+        private final int step;
+        private final double[] values;
+
+        /**
+         * 单调队列, 元素为值的序号, minQueue中对应的值递增, maxQueue中递减
+         */
+        private final long[] minQueue;
+        private final long[] maxQueue;
+        private int minHead;
+        private int minLength;
+        private int maxHead;
+        private int maxLength;
+
+        private long index;
+        private double sum;
+        private double compensation;
+
+        /**
+         * 最后一个已输出窗口的结束序号
+         */
+        private long coveredThrough;
+        private Window<DoubleStatistics> ready;
+
+        DoubleSlidingSpliterator(Spliterator.OfDouble source, int size, int step) {
+            this.source = source;
+            this.size = size;
+            this.step = step;
+            this.values = new double[size];
+            this.minQueue = new long[size];
+            this.maxQueue = new long[size];
+        }
+
+        @Override
+        public void accept(double value) {
+            if (index >= size) {
+                // 移出窗口的值
+                long expired = index - size;
+                add(-values[(int) (expired % size)]);
+                if (minQueue[minHead] == expired) {
+                    minHead = (minHead + 1) % size;
+                    minLength--;
+                }
+                if (maxQueue[maxHead] == expired) {
+                    maxHead = (maxHead + 1) % size;
+                    maxLength--;
+                }
+            }
+            values[(int) (index % size)] = value;
+            add(value);
+            while (minLength > 0 && values[(int) (minQueue[(minHead + minLength - 1) % size] % size)] >= value) {
+                minLength--;
+            }
+            minQueue[(minHead + minLength++) % size] = index;
+            while (maxLength > 0 && values[(int) (maxQueue[(maxHead + maxLength - 1) % size] % size)] <= value) {
+                maxLength--;
+            }
+            maxQueue[(maxHead + maxLength++) % size] = index;
+            index++;
+            if (index >= size && (index - size) % step == 0) {
+                flush(index - size);
+            }
+        }
+
+        private void add(double value) {
+            double y = value - compensation;
+            double t = sum + y;
+            compensation = (t - sum) - y;
+            sum = t;
+        }
+
+        /**
+         * 输出从start开始到当前为止的窗口
+         */
+        private void flush(long start) {
+            long count = index - start;
+            ready = new Window<>(start, start + size, count, new DoubleStatistics(count, sum - compensation,
+                    values[(int) (minQueue[minHead] % size)], values[(int) (maxQueue[maxHead] % size)]));
+            coveredThrough = index;
+        }
+
+        /**
+         * 源流结束时, 剩余元素所在的第一个窗口
+         */
+        private boolean finish() {
+            if (index == 0 || coveredThrough == index) {
+                return false;
+            }
+            long start = index < size ? 0L : ((index - size) / step + 1) * step;
+            // 剩余的值都在环形数组中, 重新计算start之后的统计
+            double total = 0D;
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (long i = start; i < index; i++) {
+                double value = values[(int) (i % size)];
+                total += value;
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+            long count = index - start;
+            ready = new Window<>(start, start + size, count, new DoubleStatistics(count, total, min, max));
+            coveredThrough = index;
+            return true;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Window<DoubleStatistics>> action) {
+            Objects.requireNonNull(action);
+            while (ready == null) {
+                if (!source.tryAdvance(this) && !finish()) {
+                    return false;
+                }
+            }
+            Window<DoubleStatistics> window = ready;
+            ready = null;
+            action.accept(window);
+            return true;
+        }
+
+        @Override
+        public Spliterator<Window<DoubleStatistics>> trySplit() {
+            return null;
+        }
+
+        @Override
+        public long estimateSize() {
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL;
+        }
+    }
+}
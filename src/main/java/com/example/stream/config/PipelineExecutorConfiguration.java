@@ -0,0 +1,25 @@
+package com.example.stream.config;
+
+import com.example.stream.common.PipelineExecutorRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 根据pipeline.executors配置创建并行流水线执行器, 应用关闭时关闭所有执行器
+ *
+ * @Auther: Akang
+ * @Date: 2026/10/18 19:35
+ * @Description:
+ */
+@Configuration
+@EnableConfigurationProperties(PipelineExecutorProperties.class)
+public class PipelineExecutorConfiguration {
+
+    @Bean(destroyMethod = "shutdown")
+    public PipelineExecutorRegistry pipelineExecutorRegistry(PipelineExecutorProperties properties) {
+        PipelineExecutorRegistry registry = new PipelineExecutorRegistry();
+        properties.getExecutors().forEach((name, executor) -> registry.register(name, executor.getParallelism(), executor.getMaxPending()));
+        return registry;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.stream.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 并行流水线执行器配置, 对应application.yml中的pipeline.executors
+ * pipeline:
+ *   executors:
+ *     report:
+ *       parallelism: 4
+ *       max-pending: 64
+ *
+ * @Auther: Akang
+ * @Date: 2026/10/18 19:30
+ * @Description:
+ */
+@Data
+@ConfigurationProperties(prefix = "pipeline")
+public class PipelineExecutorProperties {
+
+    /**
+     * 执行器名称 -> 执行器配置
+     */
+    private Map<String, Executor> executors = new LinkedHashMap<>();
+
+    @Data
+    public static class Executor {
+
+        /**
+         * 并行度, 默认为CPU核数
+         */
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * 同时提交(执行中和排队中)的流水线数上限
+         */
+        private int maxPending = 1024;
+    }
+}
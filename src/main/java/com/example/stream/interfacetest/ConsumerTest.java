@@ -31,11 +31,8 @@ public class ConsumerTest {
          */
         c.accept("accept");
 
-        // 将对象列表中对象的name设为consumer并遍历输出
-        Consumer<Employee> c1 = employee -> {
-            employee.setName("consumer");
-            System.out.println(employee);
-        };
+        // 输出对象列表中对象name设为consumer后的新对象, Employee不可变, withName生成新对象
+        Consumer<Employee> c1 = employee -> System.out.println(employee.withName("consumer"));
         Employee.EMPLOYEE_LIST.parallelStream().forEach(employee -> c1.accept(employee));
 
         /**
@@ -44,15 +41,9 @@ public class ConsumerTest {
         Consumer<String> c2 = System.out::println;
         c2.andThen(a -> System.out.println("after")).accept("this");
 
-        // 先将对象列表中对象的name设为c3遍历输出,再将对象列表中对象的name设为c4二次遍历输出
-        Consumer<Employee> c3 = employee -> {
-            employee.setName("c3");
-            System.out.println(employee);
-        };
-        Consumer<Employee> c4 = employee -> {
-            employee.setName("c4");
-            System.out.println(employee);
-        };
+        // 先输出对象name设为c3后的新对象,再输出对象name设为c4后的新对象
+        Consumer<Employee> c3 = employee -> System.out.println(employee.withName("c3"));
+        Consumer<Employee> c4 = employee -> System.out.println(employee.withName("c4"));
         Employee.EMPLOYEE_LIST.forEach(employee -> {
             c3.andThen(c4).accept(employee);
             /**
@@ -72,16 +63,10 @@ public class ConsumerTest {
         BiConsumer<Integer, Integer> b1 = (a, b) -> System.out.println(a + b);
         b1.accept(1, 2);
 
-        BiConsumer<Employee, String> b2 = (employee, b) -> {
-            employee.setName(b);
-            System.out.println(employee);
-        };
-        BiConsumer<Employee, String> b3 = (employee, b) -> {
-            employee.setName(b);
-            System.out.println(employee);
-        };
+        BiConsumer<Employee, String> b2 = (employee, b) -> System.out.println(employee.withName(b));
+        BiConsumer<Employee, String> b3 = (employee, b) -> System.out.println(employee.withName(b));
         Employee.EMPLOYEE_LIST.parallelStream().forEach(employee -> {
-            // 先把name设为b2,再把name设为b3
+            // b2和b3收到相同的参数(employee, "b2"), 各自输出name为b2的新对象
             b2.andThen(b3).accept(employee, "b2");
             /**
              *  andThen(after) after不需要额外再调用accept(), 源码里已调用accept()
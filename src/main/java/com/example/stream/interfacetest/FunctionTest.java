@@ -1,5 +1,6 @@
 package com.example.stream.interfacetest;
 
+import com.example.stream.common.BatchStreams;
 import com.example.stream.common.Employee;
 import org.junit.Test;
 
@@ -123,12 +124,15 @@ public class FunctionTest {
         UnaryOperator<String> u2 = x -> x + 1;
         System.out.println(u2.apply("aa"));
 
-        UnaryOperator<Employee> u3 = employee -> {
-            // 重设name为UnaryOperator
-            employee.setName("UnaryOperator");
-            return employee;
-        };
+        // 生成name为UnaryOperator的新对象, Employee不可变
+        UnaryOperator<Employee> u3 = employee -> employee.withName("UnaryOperator");
         Employee.EMPLOYEE_LIST.parallelStream().map(u3).forEach(System.out::println);
+        // 下游按批处理(批量写文件, 批量插入数据库), 每3个元素一批, 并行流中每个叶子任务各自分批
+        BatchStreams.batched(Employee.EMPLOYEE_LIST.parallelStream().map(u3), 3).forEach(System.out::println);
+        // Collector形式, 攒满3个薪资调用一次下游, 返回元素总数
+        Long count = Employee.EMPLOYEE_LIST.parallelStream()
+                .collect(BatchStreams.batchingDouble(3, Employee::getSalary, batch -> System.out.println(Arrays.toString(batch))));
+        System.out.println(count);
 
         // UnaryOperator.identity(): 元素本身, 也可以Function.identity()
         Map<Double, Employee> employeeMap = Employee.EMPLOYEE_LIST.parallelStream().collect(Collectors.toMap(Employee::getSalary, UnaryOperator.identity()));
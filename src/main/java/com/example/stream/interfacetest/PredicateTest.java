@@ -1,5 +1,9 @@
 package com.example.stream.interfacetest;
 
+import com.example.stream.common.Employee;
+import com.example.stream.common.EmployeeFilter;
+import com.example.stream.common.EmployeeTable;
+import com.example.stream.common.IndexedEmployeeStore;
 import org.junit.Test;
 
 import java.util.function.Predicate;
@@ -34,4 +38,24 @@ public class PredicateTest {
         System.out.println(p2.negate().test(8));
         System.out.println(Predicate.isEqual(8).test("8"));
     }
+
+    /**
+     * EmployeeFilter: 员工的过滤条件, and/or/negate同Predicate, 可以直接用于stream.filter()
+     * 交给IndexedEmployeeStore/EmployeeTable的select时, 简单条件由索引或列批量计算为位图, 组合为位图的与/或/差, 不逐行调用test
+     * EmployeeFilter.where(Predicate)包装任意lambda, 只对其他条件筛选后的候选行逐行执行
+     */
+    @Test
+    public void employeeFilterTest() {
+        EmployeeFilter filter = EmployeeFilter.ageGreaterThan(30)
+                .and(EmployeeFilter.nameEquals("李九").or(EmployeeFilter.salaryLessThan(5500D)))
+                .and(employee -> employee.getSalary() != 8000D);
+        System.out.println(filter);
+        // 逐行执行
+        Employee.EMPLOYEE_LIST.stream().filter(filter).forEach(System.out::println);
+        // 索引 + 位图运算
+        IndexedEmployeeStore store = IndexedEmployeeStore.of(Employee.EMPLOYEE_LIST);
+        store.select(filter).forEach(System.out::println);
+        // 列式扫描 + 位图运算
+        EmployeeTable.of(Employee.EMPLOYEE_LIST).select(filter.negate()).forEach(System.out::println);
+    }
 }
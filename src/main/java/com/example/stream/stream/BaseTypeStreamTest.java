@@ -1,10 +1,18 @@
 package com.example.stream.stream;
 
+import com.example.stream.common.DoublePipe;
+import com.example.stream.common.Employee;
+import com.example.stream.common.EmployeeTable;
+import com.example.stream.common.IndexedStreams;
+import com.example.stream.common.IntPipe;
+import com.example.stream.common.LongPipe;
+import com.example.stream.common.RandomStreams;
 import org.junit.Test;
 
 import java.util.*;
 import java.util.stream.DoubleStream;
 import java.util.stream.IntStream;
+import java.util.stream.Collectors;
 import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
@@ -204,4 +212,61 @@ public class BaseTypeStreamTest {
         System.out.println(doubleSummaryStatistics.getMin());
         System.out.println(doubleSummaryStatistics.getSum());
     }
+
+    /**
+     * 列式存储的基本类型流
+     * EmployeeTable按列存储员工数据, age/salary直接以int[]/double[]构成IntStream/DoubleStream, 避免mapToDouble(Employee::getSalary)逐个拆箱
+     * IntStream ages(); 年龄列
+     * DoubleStream salaries(); 薪资列
+     * IntStream nameIds(); 姓名字典编号列, name(int nameId)还原姓名
+     * Stream<Employee> stream(); 每行生成新的Employee对象, 兼容原有写法
+     * Stream<Row> rows(); 游标视图, 元素为复用的享元对象, 只能在当前回调中读取, 需要保留时调用Row.toEmployee()
+     */
+    @Test
+    public void columnarStreamTest() {
+        EmployeeTable table = EmployeeTable.of(Employee.EMPLOYEE_LIST);
+        System.out.println(table.salaries().sum());
+        System.out.println(table.ages().average());
+        System.out.println(table.salaryStatistics());
+        table.nameIds().distinct().mapToObj(table::name).forEach(System.out::println);
+        // 兼容原有写法, 元素可以保留
+        System.out.println(table.stream().filter(employee -> employee.getAge() > 30).sorted(Comparator.comparing(Employee::getSalary).reversed()).collect(Collectors.toList()));
+        // 游标视图只做过滤和聚合, 不创建对象
+        System.out.println(table.parallelRows().filter(row -> row.getAge() > 30).mapToDouble(Employee::getSalary).max());
+    }
+
+    /**
+     * 融合的基本类型流水线, 中间操作合并为一个循环, 终结操作结果同IntStream/LongStream/DoubleStream
+     * IntPipe range(int startInclusive, int endExclusive) / of(int... values); LongPipe, DoublePipe同理(DoublePipe只有数组数据源)
+     * map, filter; 中间操作, sum, count, min, max, average, reduce, anyMatch, forEach, toArray; 终结操作
+     * compile(); 为反复执行的流水线复制专属的循环类, 多条流水线使用不同lambda时JIT仍可内联
+     */
+    @Test
+    public void pipeTest() {
+        System.out.println(IntPipe.range(0, 10).map(x -> x * x).filter(x -> (x & 1) == 0).sum());
+        System.out.println(Arrays.toString(IntPipe.of(3, 1, 4, 1, 5).filter(x -> x > 1).map(x -> x * 10).toArray()));
+        System.out.println(LongPipe.rangeClosed(1L, 20L).reduce(1L, (x, y) -> x * y));
+        System.out.println(DoublePipe.of(0.1, 0.2, 0.3).map(x -> x * 2).average());
+        // 编译后的流水线保存复用
+        IntPipe evenSquares = IntPipe.range(0, 1_000_000).filter(x -> (x & 1) == 0).map(x -> x * x).compile();
+        System.out.println(evenSquares.count());
+        System.out.println(evenSquares.max());
+    }
+
+    /**
+     * 随机数流, 第i个随机数只由(seed, i)决定, 并行时不竞争同一个Random, 同一个种子的结果与线程数无关
+     * IntStream ints(long seed, long n[, int origin, int bound]); LongStream longs(...); DoubleStream doubles(...);
+     * long longAt(long seed, long index); 第index个随机数
+     */
+    @Test
+    public void randomStreamTest() {
+        // 代替IntStream.generate(() -> new Random().nextInt()).limit(3)
+        RandomStreams.ints(42L, 3L).forEach(System.out::println);
+        System.out.println(RandomStreams.doubles(42L, 10_000_000L).parallel().average());
+        // 并行与串行结果相同
+        System.out.println(RandomStreams.ints(42L, 1_000_000L, 0, 100).parallel().sum() == RandomStreams.ints(42L, 1_000_000L, 0, 100).sum());
+        // 每条记录的多个随机字段使用不同的种子
+        IndexedStreams.generate(5L, i -> "employee" + i + ", age: " + (20L + Math.floorMod(RandomStreams.longAt(1L, i), 40L))
+                + ", salary: " + Math.floorMod(RandomStreams.longAt(2L, i), 10000L)).forEach(System.out::println);
+    }
 }
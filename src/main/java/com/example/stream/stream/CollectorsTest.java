@@ -1,11 +1,22 @@
 package com.example.stream.stream;
 
+import com.example.stream.common.ConcurrentGroupingCollectors;
 import com.example.stream.common.Employee;
+import com.example.stream.common.EmployeeKey;
+import com.example.stream.common.EmployeeTable;
+import com.example.stream.common.IncrementalAggregator;
+import com.example.stream.common.IntObjectHashMap;
+import com.example.stream.common.ObjectDoubleHashMap;
+import com.example.stream.common.ObjectLongHashMap;
+import com.example.stream.common.PartitionCounts;
+import com.example.stream.common.PrimitiveCollectors;
+import com.example.stream.common.StripedDoubleStatistics;
 import org.junit.Test;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -72,6 +83,10 @@ public class CollectorsTest {
         System.out.println(Arrays.toString(nameConcurrentMap.entrySet().toArray()));
         ConcurrentHashMap<String, Employee> nameConcurrentHashMap = Employee.EMPLOYEE_LIST.parallelStream().collect(Collectors.toConcurrentMap(Employee::getName, Function.identity(), (existingValue, newValue) -> newValue, ConcurrentHashMap::new));
         System.out.println(Arrays.toString(nameConcurrentHashMap.entrySet().toArray()));
+
+        // 以int类型的age为key, 键不装箱, key重复时保留已有value
+        IntObjectHashMap<Employee> ageMap = Employee.EMPLOYEE_LIST.parallelStream().collect(PrimitiveCollectors.toIntObjectMap(Employee::getAge, Function.identity(), (existingValue, newValue) -> existingValue));
+        System.out.println(ageMap);
     }
 
     /**
@@ -106,6 +121,7 @@ public class CollectorsTest {
         // 计算元素employee的属性salary的和
         System.out.println(Employee.EMPLOYEE_LIST.parallelStream().collect(Collectors.summingDouble(Employee::getSalary)));
         System.out.println(Employee.EMPLOYEE_LIST.parallelStream().mapToDouble(Employee::getSalary).sum());
+        System.out.println(EmployeeTable.of(Employee.EMPLOYEE_LIST).salaries().sum());
     }
 
     /**
@@ -133,6 +149,8 @@ public class CollectorsTest {
         System.out.println(doubleSummaryStatistics.getMax());
         System.out.println(doubleSummaryStatistics.getMin());
         System.out.println(doubleSummaryStatistics.getSum());
+        // 列式存储, 直接遍历double[]统计, 不拆箱
+        System.out.println(EmployeeTable.of(Employee.EMPLOYEE_LIST).salaryStatistics());
     }
 
     /**
@@ -202,6 +220,9 @@ public class CollectorsTest {
         // 以name分组, key--name, value--Employee对象salary属性的平均值, 将结果存入新建的TreeMap中
         Map<String, Double> stringDoubleMap = Employee.EMPLOYEE_LIST.parallelStream().collect(Collectors.groupingBy(Employee::getName, TreeMap::new, Collectors.averagingDouble(Employee::getSalary)));
         System.out.println(Arrays.toString(stringDoubleMap.entrySet().toArray()));
+        // 以姓名和年龄分组, EmployeeKey的哈希值在创建时计算好, equals先比较缓存的哈希值, 再比较姓名和年龄
+        Map<EmployeeKey, Long> keyLongMap = Employee.EMPLOYEE_LIST.parallelStream().collect(Collectors.groupingBy(employee -> employee.key(EmployeeKey.Identity.NAME_AGE), Collectors.counting()));
+        System.out.println(Arrays.toString(keyLongMap.entrySet().toArray()));
 
         // groupingBy分组, 以name分组, key--name, value--List<Employee>
         Map<String, List<Employee>> stringListMap1 = Employee.EMPLOYEE_LIST.parallelStream().collect(Collectors.groupingByConcurrent(Employee::getName));
@@ -213,6 +234,20 @@ public class CollectorsTest {
         Map<String, Double> stringDoubleMap1 = Employee.EMPLOYEE_LIST.parallelStream().collect(Collectors.groupingByConcurrent(Employee::getName, ConcurrentHashMap::new, Collectors.averagingDouble(Employee::getSalary)));
         System.out.println(Arrays.toString(stringDoubleMap1.entrySet().toArray()));
         System.out.println(stringDoubleMap1.getClass());
+
+        // 分段累加的并发分组, 以name分组, key--name, value--LongAdder计数, 热点键(如"李九")的累加分散到多个Cell上
+        ConcurrentMap<String, LongAdder> stringAdderMap = Employee.EMPLOYEE_LIST.parallelStream().collect(ConcurrentGroupingCollectors.countingByConcurrent(Employee::getName));
+        System.out.println(Arrays.toString(stringAdderMap.entrySet().toArray()));
+        // 每个线程先在本地预聚合2个元素再批量写入, key--name, value--Employee对象salary属性的统计值
+        ConcurrentMap<String, StripedDoubleStatistics> stringStatisticsMap = Employee.EMPLOYEE_LIST.parallelStream().collect(ConcurrentGroupingCollectors.summarizingDoubleByConcurrent(Employee::getName, Employee::getSalary, 2));
+        System.out.println(Arrays.toString(stringStatisticsMap.entrySet().toArray()));
+
+        // 基本类型收集器, 以name分组, key--name, value--Employee对象的个数, 计数存放在long[]中不装箱
+        ObjectLongHashMap<String> nameCounts = Employee.EMPLOYEE_LIST.parallelStream().collect(PrimitiveCollectors.groupingByToLongCounts(Employee::getName));
+        System.out.println(nameCounts);
+        // 以name分组, key--name, value--Employee对象salary属性的和
+        ObjectDoubleHashMap<String> nameSalaries = Employee.EMPLOYEE_LIST.parallelStream().collect(PrimitiveCollectors.summingDoubleBy(Employee::getName, Employee::getSalary));
+        System.out.println(nameSalaries);
     }
 
     /**
@@ -231,6 +266,27 @@ public class CollectorsTest {
         // 以employee的age>30分区, key--对象age>30为true否则false, value--列表中对象的salary属性的和
         Map<Boolean, Double> booleanDoubleMap = Employee.EMPLOYEE_LIST.parallelStream().collect(Collectors.partitioningBy(employee -> employee.getAge() > 30, Collectors.summingDouble(Employee::getSalary)));
         System.out.println(Arrays.toString(booleanDoubleMap.entrySet().toArray()));
+        // 以employee的age>30分区计数, 结果为两个long
+        PartitionCounts partitionCounts = Employee.EMPLOYEE_LIST.parallelStream().collect(PrimitiveCollectors.partitioningByCounting(employee -> employee.getAge() > 30));
+        System.out.println(partitionCounts);
     }
 
+    /**
+     * 增量分组聚合, 数据持续变化时不必每次重新collect
+     * IncrementalAggregator按记录id保存每条记录的分组和值, 新增/修改/删除只更新受影响的分组, 查询不重新扫描数据
+     * 这里以姓名为id, 以年龄是否大于30分组, 聚合薪资
+     */
+    @Test
+    public void incrementalAggregatorTest() {
+        IncrementalAggregator<Employee, String, Boolean> aggregator = new IncrementalAggregator<>(Employee::getName, employee -> employee.getAge() > 30, Employee::getSalary);
+        aggregator.upsertAll(Employee.EMPLOYEE_LIST.stream());
+        System.out.println(aggregator.snapshot());
+        // 修改: 张三涨薪并且年龄变为31, 从false分组移到true分组
+        aggregator.upsert(new Employee("张三", 31, 9000D));
+        // 删除
+        aggregator.delete("李四");
+        System.out.println(aggregator.get(true));
+        System.out.println(aggregator.get(false));
+        System.out.println(aggregator.total());
+    }
 }
@@ -1,6 +1,12 @@
 package com.example.stream.stream;
 
+import com.example.stream.common.CollationKeyCache;
+import com.example.stream.common.DistinctStreams;
 import com.example.stream.common.Employee;
+import com.example.stream.common.FastSort;
+import com.example.stream.common.IndexedEmployeeStore;
+import com.example.stream.common.RecordCodec;
+import com.example.stream.common.TopKCollectors;
 import org.junit.Test;
 
 import java.text.Collator;
@@ -81,12 +87,44 @@ public class IntermediateTest {
         employeeList.forEach(System.out::println);
     }
 
+    /**
+     * 同样形式的filter反复执行时, 用IndexedEmployeeStore按索引定位, 不遍历所有员工
+     * 年龄, 薪资为有序索引(范围查询), 姓名为哈希索引, bitmapIndex注册低基数字段的位图索引
+     * int insert(Employee) / update(int row, Employee) / Employee delete(int row); 增量维护索引
+     */
+    @Test
+    public void indexedFilterTest() {
+        IndexedEmployeeStore store = IndexedEmployeeStore.of(Employee.EMPLOYEE_LIST)
+                .bitmapIndex("ageGroup", employee -> employee.getAge() / 10 * 10);
+        // 同filter(employee -> employee.getAge() < 50)
+        store.ageBetween(Integer.MIN_VALUE, 49).forEach(System.out::println);
+        store.salaryBetween(3000D, 6000D).forEach(System.out::println);
+        store.nameEquals("李九").forEach(System.out::println);
+        store.keyEquals("ageGroup", 50).forEach(System.out::println);
+        int row = store.insert(new Employee("周十", 28, 3500D));
+        store.update(row, store.get(row).withAge(52));
+        System.out.println(store.keyEquals("ageGroup", 50).count());
+        store.delete(row);
+        System.out.println(store.size());
+    }
+
     /**
      * Stream<T> distinct(); 去重--只保留所有相同元素中的第一个, 流中元素按原顺序剔除重复元素后返回新的流, 去重规则: Object.equals(Object obj)
      */
     @Test
     public void distinctTest() {
         Stream.of(1, 2, 3, 1, 2, 4).distinct().forEach(System.out::println);
+        // Employee.equals按姓名比较, 姓名相同的只保留第一个
+        Employee.EMPLOYEE_LIST.stream().distinct().forEach(System.out::println);
+        // 按姓名去重, 只保存键, 不依赖Employee.equals
+        DistinctStreams.distinctBy(Employee.EMPLOYEE_LIST.stream(), Employee::getName).forEach(System.out::println);
+        DistinctStreams.distinctByLong(Employee.EMPLOYEE_LIST.stream(), Employee::getAge).forEach(System.out::println);
+        // 限制内存, 内存中最多保存4个键, 其余元素溢出到临时文件后再去重
+        try (Stream<Employee> stream = DistinctStreams.distinctBySpilling(Employee.EMPLOYEE_LIST.stream(), Employee::getName, RecordCodec.EMPLOYEE, 4)) {
+            stream.forEach(System.out::println);
+        }
+        // 近似去重, 布隆过滤器, 误判率1%
+        DistinctStreams.approximateDistinctBy(Employee.EMPLOYEE_LIST.stream(), Employee::getName, 1000, 0.01D).forEach(System.out::println);
     }
 
     /**
@@ -128,6 +166,12 @@ public class IntermediateTest {
         Employee.EMPLOYEE_LIST.stream().map(employee -> employee.getAge()).sorted().forEach(System.out::println);
         // 中文排序, 自定义排序规则, 不够准确
         Employee.EMPLOYEE_LIST.stream().sorted(Comparator.comparing(employee -> employee.getName(), Collator.getInstance(Locale.CHINA))).forEach(System.out::println);
+        // 中文排序, Collator每次比较都重新分析两个字符串, CollationKeyCache对每个不同的姓名只计算一次排序键并缓存
+        CollationKeyCache collationKeyCache = CollationKeyCache.chinese();
+        Employee.EMPLOYEE_LIST.stream().sorted(collationKeyCache.comparing(Employee::getName)).forEach(System.out::println);
+        List<Employee> sortedByName = new ArrayList<>(Employee.EMPLOYEE_LIST);
+        collationKeyCache.sort(sortedByName, Employee::getName);
+        sortedByName.forEach(System.out::println);
         // 倒序, 自定义排序规则, 按薪资倒序
         Employee.EMPLOYEE_LIST.stream().sorted(Comparator.comparing(o -> ((Employee) o).getSalary()).reversed()).forEach(System.out::println);
         Employee.EMPLOYEE_LIST.stream().sorted(Comparator.comparing(Employee::getSalary).reversed()).forEach(System.out::println);
@@ -143,6 +187,20 @@ public class IntermediateTest {
                 return x.getAge() > y.getAge() ? -1 : 1;
             }
         }).forEach(System.out::println);
+
+        // 只需要前k个时不必全部排序, TopKCollectors每个线程只维护容量为k的堆, 薪资最高的3个
+        Employee.EMPLOYEE_LIST.stream().collect(TopKCollectors.largestByDouble(3, Employee::getSalary)).forEach(System.out::println);
+        // 同sorted(comparator).limit(2), 先按年龄倒序, 年龄相同, 按薪资倒序, 再按姓名
+        Comparator<Employee> comparator = Comparator.comparing(Employee::getAge).reversed()
+                .thenComparing(Comparator.comparing(Employee::getSalary).reversed())
+                .thenComparing(Employee::getName);
+        TopKCollectors.topK(Employee.EMPLOYEE_LIST.parallelStream(), 2, comparator).forEachOrdered(System.out::println);
+        // 按数值键排序, FastSort每个元素只提取一次键, 在long[]上基数排序, 不装箱; 排序稳定, 先按姓名排序再按年龄倒序, 薪资倒序, 结果同上面的自定义比较器
+        List<Employee> employees = new ArrayList<>(Employee.EMPLOYEE_LIST);
+        employees.sort(Comparator.comparing(Employee::getName));
+        FastSort.sort(employees, FastSort.<Employee>comparingInt(Employee::getAge).thenComparingDouble(Employee::getSalary).reversed());
+        employees.forEach(System.out::println);
+        FastSort.sorted(Employee.EMPLOYEE_LIST.stream(), FastSort.comparingDouble(Employee::getSalary).reversed()).forEach(System.out::println);
     }
 
     /**
@@ -1,8 +1,16 @@
 package com.example.stream.stream;
 
+import com.example.stream.common.AdaptiveStreams;
+import com.example.stream.common.BlockingStreams;
 import com.example.stream.common.Employee;
+import com.example.stream.common.IndexedStreams;
+import com.example.stream.common.PipelineExecutor;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 /**
@@ -20,6 +28,7 @@ import java.util.stream.Stream;
  * LinkedList 差
  * IntStream.range 极佳
  * Stream.iterate 差
+ * IndexedStreams 极佳
  * HashSet 好
  * TreeSet 好
  *
@@ -62,4 +71,105 @@ public class ParallelStreamTest {
         Employee.EMPLOYEE_LIST.parallelStream().forEach(System.out::println);
         Employee.EMPLOYEE_LIST.parallelStream().sequential().forEach(System.out::println);
     }
+
+    /**
+     * 自适应并行: 根据数据量, Spliterator特征(SIZED, SUBSIZED)和历史耗时自动选择顺序流, 公共线程池并行或独立线程池并行
+     * Source<T> of(Collection<T> collection); 以集合为数据源
+     * Source<T> named(String pipeline); 流水线名称, 同名流水线共享历史耗时统计
+     * Source<T> costPerElement(double nanos); 每个元素处理耗时的提示, 没有历史统计时使用
+     * <R> R apply(Function<? super Stream<T>, ? extends R> pipeline); 按选择的方式执行并记录耗时
+     */
+    @Test
+    public void adaptiveTest() {
+        // 数据量小, 顺序执行
+        System.out.println(AdaptiveStreams.of(Employee.EMPLOYEE_LIST).mode());
+        double salarySum = AdaptiveStreams.of(Employee.EMPLOYEE_LIST).named("salary-sum").apply(stream -> stream.mapToDouble(Employee::getSalary).sum());
+        System.out.println(salarySum);
+        // 数据量大, 并行执行
+        List<Integer> list = IntStream.range(0, 1_000_000).boxed().collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
+        System.out.println(AdaptiveStreams.of(list).mode());
+        long squareSum = AdaptiveStreams.of(list).named("square-sum").apply(stream -> stream.mapToLong(i -> (long) i * i).sum());
+        System.out.println(squareSum);
+        System.out.println(AdaptiveStreams.learnedNanosPerElement("square-sum"));
+    }
+
+    /**
+     * 独立线程池执行并行流
+     * 在ForkJoinPool的工作线程中调用终结操作时, 并行流使用该线程所属的线程池, 不占用ForkJoinPool.commonPool()
+     * <R> R execute(Supplier<R> terminal); 在独立线程池中执行终结操作并等待结果
+     * <T, R> R execute(Stream<T> stream, Function<? super Stream<T>, ? extends R> terminal); 将流转为并行流后在独立线程池中执行终结操作
+     * Metrics metrics(); 线程池及排队情况
+     * Spring中通过application.yml的pipeline.executors配置, 从PipelineExecutorRegistry按名称获取
+     */
+    @Test
+    public void pipelineExecutorTest() {
+        try (PipelineExecutor executor = new PipelineExecutor("demo", 2, 16)) {
+            double salarySum = executor.execute(Employee.EMPLOYEE_LIST.stream(), stream -> stream.mapToDouble(Employee::getSalary).sum());
+            System.out.println(salarySum);
+            executor.run(() -> Employee.EMPLOYEE_LIST.parallelStream().forEach(employee -> System.out.println(Thread.currentThread().getName() + ": " + employee)));
+            System.out.println(executor.metrics());
+        }
+    }
+
+    /**
+     * 并行流操作过程中不能阻塞, 阻塞的映射(读磁盘, 调用本地服务)交给BlockingStreams, 不占用ForkJoinPool.commonPool()
+     * Stream<R> mapBlocking(Stream<T> stream, Function<? super T, ? extends R> mapper, int maxConcurrency[, boolean ordered]);
+     * 默认在虚拟线程(Java 21+)或有界IO线程池中执行, 最多maxConcurrency个同时进行, 映射的异常在终结操作中抛出
+     */
+    @Test
+    public void mapBlockingTest() {
+        System.out.println(BlockingStreams.usesVirtualThreads());
+        // 每个元素模拟100ms的阻塞调用, 8个同时进行, 总耗时约100ms而不是800ms
+        long start = System.currentTimeMillis();
+        BlockingStreams.mapBlocking(Employee.EMPLOYEE_LIST.stream(), employee -> {
+            try {
+                TimeUnit.MILLISECONDS.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Thread.currentThread().getName() + ": " + employee.getName();
+        }, 8).forEach(System.out::println);
+        System.out.println(System.currentTimeMillis() - start + "ms");
+        // 不保持顺序, 先完成的先输出
+        BlockingStreams.mapBlocking(Stream.of(300, 100, 200), millis -> {
+            try {
+                TimeUnit.MILLISECONDS.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return millis;
+        }, 3, false).forEach(System.out::println);
+    }
+
+    /**
+     * Stream.iterate只能逐项递推, 并行流无法拆分; 能写成下标的函数或能跳跃递推时用IndexedStreams
+     * Stream<T> generate(long n, LongFunction<? extends T> f); 第i个元素为f(i)
+     * Stream<T> iterate(T seed, UnaryOperator<T> next, SkipAhead<T> skipAhead, long n); 拆分时用skipAhead直接跳到右半部分的起点
+     */
+    @Test
+    public void indexedStreamTest() {
+        // Stream.iterate(1D, n -> n + 1).map(n -> Math.pow(n, 2D))的下标形式
+        System.out.println(IndexedStreams.generateDouble(10_000_000L, i -> Math.pow(i + 1, 2D)).parallel().sum());
+        // 等比数列, 第k项可以直接计算
+        System.out.println(IndexedStreams.iterate(1D, x -> x * 1.000001, (x, k) -> x * Math.pow(1.000001, k), 10_000_000L)
+                .parallel().mapToDouble(Double::doubleValue).max());
+        // 线性同余, 跳k步为a^k * x + c * (a^k - 1) / (a - 1), 用快速幂计算
+        long a = 6364136223846793005L;
+        long c = 1442695040888963407L;
+        IndexedStreams.iterate(42L, x -> a * x + c, (x, k) -> {
+            long multiplier = 1L;
+            long increment = 0L;
+            long squareMultiplier = a;
+            long squareIncrement = c;
+            for (long steps = k; steps > 0L; steps >>>= 1) {
+                if ((steps & 1L) != 0L) {
+                    multiplier *= squareMultiplier;
+                    increment = increment * squareMultiplier + squareIncrement;
+                }
+                squareIncrement = (squareMultiplier + 1L) * squareIncrement;
+                squareMultiplier *= squareMultiplier;
+            }
+            return multiplier * x + increment;
+        }, 5L).parallel().forEachOrdered(System.out::println);
+    }
 }
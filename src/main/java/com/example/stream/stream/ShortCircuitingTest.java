@@ -1,9 +1,17 @@
 package com.example.stream.stream;
 
+import com.example.stream.common.ParallelSearch;
+import com.example.stream.common.WindowStreams;
 import org.junit.Test;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 /**
@@ -57,4 +65,56 @@ public class ShortCircuitingTest {
         System.out.println(stringList.parallelStream().filter(s -> !"a".equals(s)).findFirst().orElse(null));
         System.out.println(stringList.parallelStream().filter(s -> !"a".equals(s)).findAny().orElse(null));
     }
+
+    /**
+     * 无限流除了limit()截断, 还可以用WindowStreams按窗口聚合, 每个窗口输出一个结果, 窗口不缓存元素
+     * Stream<Window<R>> tumbling(Stream<T> source, int size, Collector<? super T, A, R> collector); 按个数的滚动窗口
+     * Stream<Window<R>> sliding(Stream<T> source, int size, int step, Collector<? super T, A, R> collector); 按个数的滑动窗口
+     * tumbling/sliding(Stream<T> source, ToLongFunction<? super T> timestamp, Duration size[, Duration slide], collector); 按时间的窗口
+     * Stream<Window<DoubleStatistics>> tumbling/sliding(DoubleStream/IntStream source, ...); 基本类型的窗口统计
+     */
+    @Test
+    public void windowTest() {
+        // 每3个元素一个窗口求和: 6, 15, 24
+        WindowStreams.tumbling(Stream.iterate(1, n -> n + 1), 3, Collectors.summingInt(Integer::intValue))
+                .limit(3).forEach(window -> System.out.println(window.getResult()));
+        // 窗口大小4, 每2个元素滑动一次, 窗口区间[0, 4), [2, 6), [4, 8)
+        WindowStreams.sliding(Stream.iterate(1, n -> n + 1), 4, 2, Collectors.toList())
+                .limit(3).forEach(System.out::println);
+        // 按时间戳每10ms一个窗口, 时间戳在[0, 10), [10, 20), [20, 30)的元素分别聚合
+        WindowStreams.tumbling(Stream.iterate(0L, t -> t + 3), t -> t, Duration.ofMillis(10), Collectors.counting())
+                .limit(3).forEach(System.out::println);
+        // 模拟传感器读数, 最近1000个读数的滚动统计, 每100个读数输出一次, 只保存1000个double
+        WindowStreams.sliding(ThreadLocalRandom.current().doubles(0D, 100D), 1000, 100)
+                .limit(3).forEach(window -> System.out.println(window.getResult()));
+        // IntStream按个数的滚动窗口统计
+        WindowStreams.tumbling(IntStream.iterate(1, n -> n + 1), 5)
+                .limit(2).forEach(window -> System.out.println(window.getResult()));
+    }
+
+    /**
+     * 谓词耗时较长时, 并行流的anyMatch/findFirst找到结果后兄弟任务仍会处理完各自的整段数据;
+     * ParallelSearch按从左到右的顺序分块领取, 每个元素前检查共享的结果, 找到后其他线程立即停止
+     * Source<T> of(List<T> list) / of(T... array) / of(long size, LongFunction<? extends T> element); 数据源
+     * Source<T> costPerElement(double nanos); 每个元素的耗时提示, 决定分块大小
+     * anyMatch, allMatch, noneMatch, findAny, findFirst, indexOfFirst; 同并行流的结果
+     */
+    @Test
+    public void parallelSearchTest() {
+        List<String> stringList = Arrays.asList("d", "b", "a", "c", "a");
+        System.out.println(ParallelSearch.of(stringList).anyMatch("a"::equals));
+        System.out.println(ParallelSearch.of(stringList).findFirst(s -> !"d".equals(s)).orElse(null));
+        // 每个元素模拟1ms的检查, 第300个元素满足条件
+        long start = System.currentTimeMillis();
+        Optional<Long> first = ParallelSearch.of(10_000L, i -> i).costPerElement(TimeUnit.MILLISECONDS.toNanos(1))
+                .findFirst(i -> {
+                    try {
+                        TimeUnit.MILLISECONDS.sleep(1);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return i >= 300;
+                });
+        System.out.println(first.orElse(null) + ", " + (System.currentTimeMillis() - start) + "ms");
+    }
 }
@@ -1,5 +1,8 @@
 package com.example.stream.stream;
 
+import com.example.stream.common.Employee;
+import com.example.stream.common.EmployeeFile;
+import com.example.stream.common.FileStreams;
 import org.junit.Test;
 
 import java.io.IOException;
@@ -73,6 +76,18 @@ public class StreamCreateTest {
         Files.lines(path).limit(3).forEach(System.out::println);
         Files.lines(path, StandardCharsets.UTF_8).limit(3).forEach(System.out::println);
 
+        /**
+         * FileStreams
+         */
+        // Stream<String> lines(Path path) 内存映射文件, 按换行符拆分, 并行流可多核处理, 不把整个文件读入堆中
+        // Stream<String> words(Path path) 以非字母分割, 同Pattern.compile("\\PL+").splitAsStream, 逐个码点扫描, 不使用正则
+        try (Stream<String> lines = FileStreams.lines(path)) {
+            lines.parallel().limit(3).forEach(System.out::println);
+        }
+        try (Stream<String> words = FileStreams.words(path)) {
+            words.limit(3).forEach(System.out::println);
+        }
+
         /**
          * Collection.stream, 继承Collection的接口的集合实现，如：Set，List，SortedSet等
          * Map需转换成集合才可以使用流
@@ -86,4 +101,26 @@ public class StreamCreateTest {
             put("a", 1);
         }}.entrySet().stream().forEach(System.out::println);
     }
+
+    /**
+     * 内存映射的定长二进制员工文件
+     * long write(Path path, Iterable<Employee> employees); 将员工写入定长记录文件
+     * EmployeeFile open(Path path); 以只读方式内存映射文件, 数据位于堆外, 读取无需反序列化
+     * Stream<Employee> stream()/parallelStream(); 员工流, 按记录边界拆分
+     * DoubleStream salaries(); 薪资流, 直接读取映射内存, 不创建对象
+     */
+    @Test
+    public void employeeFileTest() throws IOException {
+        Path path = Files.createTempFile("employee", ".bin");
+        try {
+            EmployeeFile.write(path, Employee.EMPLOYEE_LIST);
+            EmployeeFile employeeFile = EmployeeFile.open(path);
+            System.out.println(employeeFile.size());
+            employeeFile.stream().forEach(System.out::println);
+            System.out.println(employeeFile.salaries().parallel().sum());
+            System.out.println(employeeFile.parallelStream().filter(employee -> employee.getAge() > 30).count());
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
 }
@@ -1,10 +1,19 @@
 package com.example.stream.stream;
 
+import com.example.stream.common.ChunkedCollectors;
+import com.example.stream.common.ChunkedList;
 import com.example.stream.common.Employee;
+import com.example.stream.common.ReactiveStreams;
 import org.junit.Test;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
 
 import java.math.BigDecimal;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -40,6 +49,59 @@ public class TerminalTest {
         integerList.parallelStream().sorted().forEachOrdered(System.out::println);
     }
 
+    /**
+     * forEach一次推送完所有元素, 下游慢时没有流量控制; ReactiveStreams把流适配为Publisher, 按订阅者request(n)的需求拉取元素
+     * Publisher<T> publisher(Supplier<? extends Stream<? extends T>> streamSupplier, Executor executor); 每个订阅者一个新的流
+     * Stream<T> toStream(Publisher<? extends T> publisher, int prefetch); 反向适配, 最多缓存prefetch个元素, 关闭流时取消订阅
+     */
+    @Test
+    public void publisherTest() throws InterruptedException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Publisher<Employee> publisher = ReactiveStreams.publisher(
+                () -> Employee.EMPLOYEE_LIST.stream().peek(employee -> System.out.println("pull " + employee.getName())), executor);
+        // 每次只请求一个元素, 处理完再请求下一个, 取到3个后取消, 之后的元素不会被拉取
+        CountDownLatch latch = new CountDownLatch(1);
+        publisher.subscribe(new Subscriber<Employee>() {
+            private Subscription subscription;
+            private int received;
+
+            @Override
+            public void onSubscribe(Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(Employee employee) {
+                System.out.println("onNext " + employee);
+                if (++received == 3) {
+                    subscription.cancel();
+                    latch.countDown();
+                } else {
+                    subscription.request(1);
+                }
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                throwable.printStackTrace();
+                latch.countDown();
+            }
+
+            @Override
+            public void onComplete() {
+                latch.countDown();
+            }
+        });
+        latch.await();
+
+        // 无限流通过Publisher再转回流, 每次预取4个, try-with-resources关闭时取消订阅, 源流随之停止
+        try (Stream<Double> stream = ReactiveStreams.toStream(ReactiveStreams.publisher(() -> Stream.generate(Math::random), executor), 4)) {
+            stream.limit(5).forEach(System.out::println);
+        }
+        executor.shutdown();
+    }
+
     /**
      * Object[] toArray();
      * <A> A[] toArray(IntFunction<A[]> generator);
@@ -240,6 +302,16 @@ public class TerminalTest {
                 LinkedList::addAll);
         System.out.println(Arrays.toString(linkedListList.toArray()));
 
+        /**
+         * 上面两种写法在并行流中合并时都要复制元素, ArrayList逐层addAll的总复制量为O(n log n)
+         * ChunkedCollectors收集到分段列表ChunkedList, 合并时只移动段引用, 不复制元素
+         * toChunkedList()保持遇到顺序, toConcurrentChunkedList()不保证顺序, 所有线程共享一个容器, 没有合并步骤
+         */
+        ChunkedList<String> chunkedList = Stream.of("aa", "ab", "c", "ad").parallel().collect(ChunkedCollectors.filtering(predicate, true));
+        System.out.println(Arrays.toString(chunkedList.toArray()));
+        ChunkedList<List<Integer>> concurrentChunkedList = listList.parallelStream().filter(listPredicate).collect(ChunkedCollectors.toConcurrentChunkedList());
+        System.out.println(Arrays.toString(concurrentChunkedList.toArray()));
+
         // 取出对象列表中对象的salary组成新list, collect可以用toArray代替
         List<Double> salaryList = Employee.EMPLOYEE_LIST.stream().map(Employee::getSalary).collect(Collectors.toList());
         System.out.println(Arrays.toString(salaryList.toArray()));